@@ -18,18 +18,20 @@
 # along with this program.  If not, see <https://www.gnu.org/licenses/>.
 #
 
+import os
 import platform
 import re
 import subprocess
 import sys
-import time
 import uuid
 
-if len(sys.argv) != 2:
-    sys.exit("Required parameters: <match>")
+if len(sys.argv) != 2 and len(sys.argv) != 3:
+    sys.exit("Required parameters: <match> [matchMode]")
 
 match = sys.argv[1]
 
+matchMode = len(sys.argv) == 3 and sys.argv[2] == "matchMode"  # replay all sensors of the match in a single JVM
+
 p = re.compile('CYGWIN')
 m = p.match(platform.system())
 if m:
@@ -48,30 +50,45 @@ matchId = uuid.uuid4().int % 1000000
 
 execfile("./sensorData/" + match + "/sids.py")
 
-print "Calculate starting timestamp parameter for sensor simulators..."
-curTimeInS = time.time()
-simulationStartTimeInS = curTimeInS + 40  # start simulation 40 seconds in the future
-simulationStartTimeInMs = long(simulationStartTimeInS * 1000)
-simulationStartTimeInMsString = str(simulationStartTimeInMs)
-print "Starting timestamp in ms: " + simulationStartTimeInMsString
+simulationStartTimeInMsString = "0"  # start as soon as all sensor simulators of the match have arrived at the start barrier
+if matchMode:
+    startBarrierCommandPart = " NONE 1"
+else:
+    startBarrierCommandPart = " FILE " + str(len(sids))
 
 print "Start Sensor Simulators..."
 
-isMatchAnnouncer = "true"
+jarCommandPart = "-jar ./target/streamteam-sensor-simulator-1.2.0-jar-with-dependencies.jar"
 
-for curSid in sids:
-    print "Start Sensor Simulator for sensor " + curSid
+if matchMode:
+    print "Start Sensor Simulator for all sensors of match " + match
 
-    logFileNameCommandPart = "-DlogFileName=SensorSimulator_" + str(matchId) + "_" + curSid.replace("/", "_") + "_local"
-    jarCommandPart = "-jar ./target/streamteam-sensor-simulator-1.2.0-jar-with-dependencies.jar"
-    curPathToSensorDataFile = pathToSensorDataFiles + curSid + ".csv"
-    argsCommandPart = logFileNameCommandPart + " " + jarCommandPart + " " + matchConfigFile + " " + str(matchId) + " " + curPathToSensorDataFile + " " + simulationStartTimeInMsString + " " + isMatchAnnouncer
+    logFileNameCommandPart = "-DlogFileName=SensorSimulator_" + str(matchId) + "_match_local"
+    argsCommandPart = logFileNameCommandPart + " " + jarCommandPart + " " + matchConfigFile + " " + str(matchId) + " " + pathToSensorDataFiles + " " + simulationStartTimeInMsString + " true" + startBarrierCommandPart
 
     curCmd = "java " + argsCommandPart
 
     print curCmd
     subprocess.call(commandPrefix + curCmd + commandSuffix, shell=True)
+else:
+    isMatchAnnouncer = "true"
+
+    for curSid in sids:
+        print "Start Sensor Simulator for sensor " + curSid
+
+        logFileNameCommandPart = "-DlogFileName=SensorSimulator_" + str(matchId) + "_" + curSid.replace("/", "_") + "_local"
+        curPathToSensorDataFile = pathToSensorDataFiles + curSid + ".csv"
+        if not os.path.isfile(curPathToSensorDataFile) and os.path.isfile(curPathToSensorDataFile + ".gz"):
+            curPathToSensorDataFile += ".gz"  # gzip compressed sensor data file
+        elif not os.path.isfile(curPathToSensorDataFile) and os.path.isfile(curPathToSensorDataFile + ".lz4"):
+            curPathToSensorDataFile += ".lz4"  # LZ4 compressed sensor data file
+        argsCommandPart = logFileNameCommandPart + " " + jarCommandPart + " " + matchConfigFile + " " + str(matchId) + " " + curPathToSensorDataFile + " " + simulationStartTimeInMsString + " " + isMatchAnnouncer + startBarrierCommandPart
+
+        curCmd = "java " + argsCommandPart
+
+        print curCmd
+        subprocess.call(commandPrefix + curCmd + commandSuffix, shell=True)
 
-    isMatchAnnouncer = "false"
+        isMatchAnnouncer = "false"
 
 print "Simulation environment started"
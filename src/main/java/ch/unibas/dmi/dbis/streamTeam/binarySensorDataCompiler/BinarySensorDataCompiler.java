@@ -0,0 +1,160 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.binarySensorDataCompiler;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.BinarySensorDataFileFormat;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.RawPositionSensorDataLineParser;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.BufferedReaderLineSource;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.LineSourceInterface;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.SensorDataFileCompression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Compiler for transforming the CSV sensor data files of a match (matchDirectory/team/sensorId.csv, matchDirectory/team/sensorId.csv.gz or matchDirectory/team/sensorId.csv.lz4) into binary sensor data files (see BinarySensorDataFileFormat).
+ * All other files in the match directory (e.g., config.properties and sids.py) are copied.
+ */
+public class BinarySensorDataCompiler {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BinarySensorDataCompiler.class);
+
+    /**
+     * Main method for performing the parameters.
+     *
+     * @param args inputMatchDirectoryPath and outputMatchDirectoryPath
+     */
+    public static void main(String[] args) {
+        File inputMatchDirectory = new File(args[0]);
+        logger.info("Input match directory: {}", inputMatchDirectory.getPath());
+        File outputMatchDirectory = new File(args[1]);
+        logger.info("Output match directory: {}", outputMatchDirectory.getPath());
+
+        try {
+            outputMatchDirectory.mkdirs();
+
+            File[] files = inputMatchDirectory.listFiles();
+            if (files == null) {
+                throw new IOException(inputMatchDirectory.getPath() + " is not a directory.");
+            }
+            Arrays.sort(files);
+
+            long csvBytes = 0;
+            long binaryBytes = 0;
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    File[] sensorDataFiles = file.listFiles((dir, name) -> SensorDataFileCompression.isCsvFileName(name));
+                    if (sensorDataFiles != null) {
+                        Arrays.sort(sensorDataFiles);
+                        File outputTeamDirectory = new File(outputMatchDirectory, file.getName());
+                        outputTeamDirectory.mkdirs();
+                        for (File sensorDataFile : sensorDataFiles) {
+                            String sensorId = sensorDataFile.getName().substring(0, sensorDataFile.getName().indexOf(".csv"));
+                            File binarySensorDataFile = new File(outputTeamDirectory, sensorId + BinarySensorDataFileFormat.FILE_EXTENSION);
+                            compileSensorDataFile(sensorDataFile, binarySensorDataFile, sensorId, file.getName());
+                            csvBytes += sensorDataFile.length();
+                            binaryBytes += binarySensorDataFile.length();
+                        }
+                    }
+                } else {
+                    Files.copy(file.toPath(), new File(outputMatchDirectory, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            logger.info("Finished. CSV: {} bytes, binary: {} bytes.", csvBytes, binaryBytes);
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+    }
+
+    /**
+     * Compiles a single CSV sensor data file into a binary sensor data file.
+     * The records are streamed to the binary sensor data file and the number of elements in the header is patched afterwards.
+     *
+     * @param sensorDataFile       CSV sensor data file
+     * @param binarySensorDataFile Binary sensor data file
+     * @param sensorId             Identifier of the sensor (used as object identifier if the CSV file contains no elements)
+     * @param teamId               Identifier of the team
+     * @throws IOException All potential IOExceptions (including lines which cannot be parsed)
+     */
+    public static void compileSensorDataFile(File sensorDataFile, File binarySensorDataFile, String sensorId, String teamId) throws IOException {
+        logger.info("Compiling {} to {}", sensorDataFile.getPath(), binarySensorDataFile.getPath());
+
+        RawPositionSensorDataLineParser lineParser = new RawPositionSensorDataLineParser();
+        long lineNumber = 0;
+
+        try (LineSourceInterface lineSource = new BufferedReaderLineSource(sensorDataFile);
+             FileOutputStream fileOutputStream = new FileOutputStream(binarySensorDataFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOutputStream))) {
+            lineSource.readLine(); // skip first line
+            lineNumber++;
+
+            // The object identifier of the header is taken from the first element
+            CharSequence line = lineSource.readLine();
+            lineNumber++;
+            while (line != null && line.length() == 0) {
+                line = lineSource.readLine();
+                lineNumber++;
+            }
+            String objectId = sensorId;
+            if (line != null) {
+                lineParser.parse(line);
+                objectId = lineParser.getObjectId();
+            }
+
+            // Header with a placeholder for the number of elements
+            new BinarySensorDataFileFormat.Header(objectId, teamId, 0).write(out);
+            long elementCountOffset = out.size() - Long.BYTES;
+
+            long elementCount = 0;
+            while (line != null) {
+                if (line.length() > 0) {
+                    lineParser.parse(line);
+                    if (!objectId.equals(lineParser.getObjectId())) {
+                        throw new IOException("Line " + lineNumber + " of " + sensorDataFile.getPath() + " belongs to object " + lineParser.getObjectId() + " instead of " + objectId + ".");
+                    }
+                    out.writeLong(lineParser.getGenerationTimestamp());
+                    out.writeFloat((float) lineParser.getX());
+                    out.writeFloat((float) lineParser.getY());
+                    out.writeFloat((float) lineParser.getZ());
+                    elementCount++;
+                }
+                line = lineSource.readLine();
+                lineNumber++;
+            }
+            out.flush();
+
+            ByteBuffer elementCountBuffer = ByteBuffer.allocate(Long.BYTES);
+            elementCountBuffer.putLong(elementCount);
+            elementCountBuffer.flip();
+            while (elementCountBuffer.hasRemaining()) {
+                fileOutputStream.getChannel().write(elementCountBuffer, elementCountOffset + elementCountBuffer.position());
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Cannot parse line " + lineNumber + " of " + sensorDataFile.getPath() + ".", e);
+        }
+    }
+}
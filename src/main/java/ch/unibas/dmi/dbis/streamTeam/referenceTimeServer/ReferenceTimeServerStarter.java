@@ -0,0 +1,57 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.referenceTimeServer;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.ShutdownHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider.ReferenceTimeServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketException;
+
+/**
+ * Starter for a standalone ReferenceTimeServer which provides the reference time for the ClusterTimeProviders of all simulator hosts.
+ */
+public class ReferenceTimeServerStarter {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceTimeServerStarter.class);
+
+    /**
+     * Main method for performing the parameters.
+     *
+     * @param args port
+     */
+    public static void main(String[] args) {
+        ShutdownHelper.initialize();
+
+        int port = Integer.parseInt(args[0]);
+        logger.info("Port: {}", port);
+
+        ReferenceTimeServer referenceTimeServer = new ReferenceTimeServer(port);
+        try {
+            referenceTimeServer.start();
+            ShutdownHelper.addCloseable(referenceTimeServer);
+            referenceTimeServer.awaitTermination();
+        } catch (SocketException | InterruptedException e) {
+            logger.error("Caught exception.", e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Definition of the binary sensor data file format.
+ * A binary sensor data file consists of a header (magic number, version, object identifier, team identifier, number of elements) followed by fixed-width records of the form (long generationTimestamp, float x, float y, float z).
+ * All values are stored in big-endian byte order.
+ */
+public class BinarySensorDataFileFormat {
+
+    /**
+     * File extension of binary sensor data files
+     */
+    public static final String FILE_EXTENSION = ".bin";
+
+    /**
+     * Magic number at the beginning of every binary sensor data file ("STSD")
+     */
+    public static final int MAGIC_NUMBER = 0x53545344;
+
+    /**
+     * Version of the binary sensor data file format
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * Size of a single record in bytes
+     */
+    public static final int RECORD_SIZE = Long.BYTES + 3 * Float.BYTES;
+
+    /**
+     * Checks if the given file is a binary sensor data file (w.r.t. its file extension).
+     *
+     * @param file File
+     * @return True if the file is a binary sensor data file
+     */
+    public static boolean isBinarySensorDataFile(File file) {
+        return file.getName().endsWith(FILE_EXTENSION);
+    }
+
+    /**
+     * Header of a binary sensor data file.
+     */
+    public static class Header {
+
+        /**
+         * Identifier of the object (player or ball)
+         */
+        private final String objectId;
+
+        /**
+         * Identifier of the team
+         */
+        private final String teamId;
+
+        /**
+         * Number of records in the file
+         */
+        private final long elementCount;
+
+        /**
+         * Header constructor.
+         *
+         * @param objectId     Identifier of the object (player or ball)
+         * @param teamId       Identifier of the team
+         * @param elementCount Number of records in the file
+         */
+        public Header(String objectId, String teamId, long elementCount) {
+            this.objectId = objectId;
+            this.teamId = teamId;
+            this.elementCount = elementCount;
+        }
+
+        /**
+         * Reads a header.
+         *
+         * @param in DataInputStream positioned at the beginning of the file
+         * @return Header
+         * @throws IOException Thrown in case of an IOException while reading or if the file is not a binary sensor data file.
+         */
+        public static Header read(DataInputStream in) throws IOException {
+            int magicNumber = in.readInt();
+            if (magicNumber != MAGIC_NUMBER) {
+                throw new IOException("Not a binary sensor data file (magic number " + Integer.toHexString(magicNumber) + ").");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary sensor data file version " + version + ".");
+            }
+            String objectId = in.readUTF().intern();
+            String teamId = in.readUTF().intern();
+            long elementCount = in.readLong();
+            return new Header(objectId, teamId, elementCount);
+        }
+
+        /**
+         * Writes the header.
+         *
+         * @param out DataOutputStream positioned at the beginning of the file
+         * @throws IOException Thrown in case of an IOException while writing.
+         */
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC_NUMBER);
+            out.writeShort(VERSION);
+            out.writeUTF(this.objectId);
+            out.writeUTF(this.teamId);
+            out.writeLong(this.elementCount);
+        }
+
+        /**
+         * Returns the identifier of the object.
+         *
+         * @return Identifier of the object
+         */
+        public String getObjectId() {
+            return this.objectId;
+        }
+
+        /**
+         * Returns the identifier of the team.
+         *
+         * @return Identifier of the team
+         */
+        public String getTeamId() {
+            return this.teamId;
+        }
+
+        /**
+         * Returns the number of records in the file.
+         *
+         * @return Number of records
+         */
+        public long getElementCount() {
+            return this.elementCount;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.AbstractImmutableDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.dataStructures.Geometry;
+import ch.unibas.dmi.dbis.streamTeam.dataStructures.ObjectInfo;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Properties;
+
+/**
+ * A TimedRawPositionSensorDataStreamElementReader which reads a binary sensor data file (see BinarySensorDataFileFormat) instead of a CSV file.
+ */
+public class BinaryTimedRawPositionSensorDataStreamElementReader extends TimedRawPositionSensorDataStreamElementReader {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BinaryTimedRawPositionSensorDataStreamElementReader.class);
+
+    /**
+     * Number of records which are read from the file at once
+     */
+    private static final int RECORDS_PER_READ = 1024;
+
+    /**
+     * FileInputStream for reading the file
+     */
+    private FileInputStream fileInputStream;
+
+    /**
+     * FileChannel for reading the records
+     */
+    private FileChannel fileChannel;
+
+    /**
+     * Buffer storing the records which are read from the file but not yet converted
+     */
+    private ByteBuffer recordBuffer;
+
+    /**
+     * Identifier of the match
+     */
+    private String matchId;
+
+    /**
+     * Header of the file
+     */
+    private BinarySensorDataFileFormat.Header header;
+
+    /**
+     * BinaryTimedRawPositionSensorDataStreamElementReader constructor.
+     *
+     * @param properties Properties
+     * @param file       Binary sensor data file that have to be read
+     */
+    public BinaryTimedRawPositionSensorDataStreamElementReader(Properties properties, File file) {
+        super(properties, file);
+    }
+
+    /**
+     * Opens the file and reads the header.
+     *
+     * @throws IOException Thrown in case of an IOException while opening the file or reading the header.
+     */
+    @Override
+    protected void openFile() throws IOException {
+        this.matchId = PropertyReadHelper.readStringOrDie(this.properties, "match.id");
+
+        this.fileInputStream = new FileInputStream(this.file);
+        this.header = BinarySensorDataFileFormat.Header.read(new DataInputStream(this.fileInputStream));
+        logger.info("Binary sensor data file {} contains {} elements for object {} of team {}.", this.file.getPath(), this.header.getElementCount(), this.header.getObjectId(), this.header.getTeamId());
+
+        this.fileChannel = this.fileInputStream.getChannel(); // positioned behind the header
+        this.recordBuffer = ByteBuffer.allocateDirect(RECORDS_PER_READ * BinarySensorDataFileFormat.RECORD_SIZE);
+        this.recordBuffer.flip(); // empty
+    }
+
+    /**
+     * Moves the file to the first record which is measured at or after match.time.startTs (if fileReader.index.enabled is set).
+     * Since the records have a fixed width and are sorted by their generation timestamp, no index file is required: the record is found by a binary search.
+     *
+     * @throws IOException Thrown in case of an IOException while searching the record.
+     */
+    @Override
+    protected void seekToStart() throws IOException {
+        boolean indexEnabled = PropertyReadHelper.readBooleanOrDie(this.properties, "fileReader.index.enabled");
+        if (indexEnabled) {
+            long matchStartTimestampInMs = PropertyReadHelper.readLongOrDie(this.properties, "match.time.startTs");
+
+            long firstRecordPosition = this.fileChannel.position();
+            long numRecords = (this.fileChannel.size() - firstRecordPosition) / BinarySensorDataFileFormat.RECORD_SIZE;
+            ByteBuffer timestampBuffer = ByteBuffer.allocate(Long.BYTES);
+
+            long low = 0;
+            long high = numRecords;
+            while (low < high) { // find the first record with generationTimestamp >= matchStartTimestampInMs
+                long mid = (low + high) >>> 1;
+                timestampBuffer.clear();
+                this.fileChannel.read(timestampBuffer, firstRecordPosition + mid * BinarySensorDataFileFormat.RECORD_SIZE); // the complete record is within the file
+                if (timestampBuffer.getLong(0) < matchStartTimestampInMs) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            if (low > 0) {
+                logger.info("Seeking to record {} of {} (match timestamp {}).", low, this.file.getPath(), matchStartTimestampInMs);
+                this.fileChannel.position(firstRecordPosition + low * BinarySensorDataFileFormat.RECORD_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Reads the next record and converts it into a rawPositionSensorData stream element.
+     *
+     * @return Next rawPositionSensorData stream element or null if the end of the file is reached
+     * @throws IOException Thrown in case of an IOException while reading the file.
+     */
+    @Override
+    protected RawPositionSensorDataStreamElement readNextElement() throws IOException {
+        while (true) {
+            if (this.recordBuffer.remaining() < BinarySensorDataFileFormat.RECORD_SIZE) {
+                this.recordBuffer.compact();
+                int numBytes = this.fileChannel.read(this.recordBuffer);
+                this.recordBuffer.flip();
+                if (numBytes < 0 && this.recordBuffer.remaining() < BinarySensorDataFileFormat.RECORD_SIZE) {
+                    if (this.recordBuffer.hasRemaining()) {
+                        logger.error("Ignored {} trailing bytes in {}.", this.recordBuffer.remaining(), this.file.getPath());
+                    }
+                    return null;
+                }
+                continue;
+            }
+
+            long generationTimestamp = this.recordBuffer.getLong();
+            float x = this.recordBuffer.getFloat();
+            float y = this.recordBuffer.getFloat();
+            float z = this.recordBuffer.getFloat();
+
+            try {
+                ObjectInfo objectInfo = new ObjectInfo(this.header.getObjectId(), this.header.getTeamId(), new Geometry.Vector(x, y, z));
+                return RawPositionSensorDataStreamElement.generateRawPositionSensorDataStreamElement(this.matchId, generationTimestamp, objectInfo);
+            } catch (AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement e) {
+                logger.error("Caught exception during generating a data stream element from a record: ", e);
+            }
+        }
+    }
+
+    /**
+     * Closes the FileChannel and the FileInputStream.
+     *
+     * @throws IOException Thrown in case of an IOException while closing the file.
+     */
+    @Override
+    protected void closeFile() throws IOException {
+        this.fileChannel.close();
+        this.fileInputStream.close();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.EmptyBufferException;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.SensorDataFileCompression;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.SensorScheduleInterface;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.SensorScheduleType;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * A reader which reads all sensor data files of a match (one TimedRawPositionSensorDataStreamElementReader per file) and merges them by the generation timestamp of their rawPositionSensorData stream elements.
+ * The sensor data files have to be stored in the match directory in the form matchDirectory/team/sensorId.csv (or matchDirectory/team/sensorId.bin for binary sensor data files).
+ */
+public class MatchRawPositionSensorDataStreamElementReader implements TimedRawPositionSensorDataStreamElementReaderInterface {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MatchRawPositionSensorDataStreamElementReader.class);
+
+    /**
+     * Properties
+     */
+    private final Properties properties;
+
+    /**
+     * Directory which contains the sensor data files of the match
+     */
+    private final File matchDirectory;
+
+    /**
+     * Readers for the single sensor data files (index = sensor index)
+     */
+    private TimedRawPositionSensorDataStreamElementReader[] readers;
+
+    /**
+     * Schedule which orders the sensor indices by the generation timestamp of their next rawPositionSensorData stream element
+     */
+    private SensorScheduleInterface schedule;
+
+    /**
+     * Array which is reused for the sensor indices which are due while dropping elements
+     */
+    private int[] dueSensorIndices;
+
+    /**
+     * List which is reused for returning the due rawPositionSensorData stream elements
+     */
+    private final List<RawPositionSensorDataStreamElement> resultBatch;
+
+    /**
+     * Consumer which appends rawPositionSensorData stream elements to the resultBatch
+     */
+    private final Consumer<RawPositionSensorDataStreamElement> resultBatchAppender;
+
+    /**
+     * MatchRawPositionSensorDataStreamElementReader constructor.
+     *
+     * @param properties     Properties
+     * @param matchDirectory Directory which contains the sensor data files of the match
+     */
+    public MatchRawPositionSensorDataStreamElementReader(Properties properties, File matchDirectory) {
+        this.properties = properties;
+        this.matchDirectory = matchDirectory;
+        this.resultBatch = new ArrayList<>();
+        this.resultBatchAppender = this.resultBatch::add;
+    }
+
+    /**
+     * Initializes a TimedRawPositionSensorDataStreamElementReader for every sensor data file of the match.
+     *
+     * @throws IOException Thrown in case of an IOException while opening or reading a sensor data file.
+     */
+    @Override
+    public void initialize() throws IOException {
+        List<File> sensorDataFiles = findSensorDataFiles(this.matchDirectory);
+        if (sensorDataFiles.isEmpty()) {
+            throw new IOException("There is no sensor data file in " + this.matchDirectory.getPath());
+        }
+
+        this.readers = new TimedRawPositionSensorDataStreamElementReader[sensorDataFiles.size()];
+        this.dueSensorIndices = new int[sensorDataFiles.size()];
+        String scheduleTypeString = PropertyReadHelper.readStringOrDie(this.properties, "fileReader.match.schedule");
+        SensorScheduleType scheduleType = SensorScheduleType.valueOf(scheduleTypeString.toUpperCase().trim());
+        this.schedule = scheduleType.getSensorSchedule(this.properties, sensorDataFiles.size());
+
+        for (int i = 0; i < sensorDataFiles.size(); ++i) {
+            File sensorDataFile = sensorDataFiles.get(i);
+            logger.info("Initializing reader for sensor data file {}", sensorDataFile.getPath());
+            this.readers[i] = TimedRawPositionSensorDataStreamElementReader.createReader(this.properties, sensorDataFile);
+            this.readers[i].initialize();
+
+            long nextGenerationTimestamp = this.readers[i].peekNextGenerationTimestamp();
+            if (nextGenerationTimestamp != Long.MAX_VALUE) {
+                this.schedule.add(i, nextGenerationTimestamp);
+            }
+        }
+    }
+
+    /**
+     * Retrieves a list containing the rawPositionSensorData stream elements of all sensors which are measured before or at a given match timestamp (in ms).
+     * The returned list is reused by the next call of this method.
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return rawPositionSensorData stream elements (ordered by their generation timestamp)
+     * @throws IOException Thrown in case of an IOException while filling the buffer of a reader.
+     */
+    @Override
+    public List<RawPositionSensorDataStreamElement> readDataStreamElementsProducedBeforeOrAt(long timestamp) throws IOException {
+        this.resultBatch.clear();
+        drainDataStreamElementsProducedBeforeOrAt(timestamp, this.resultBatchAppender);
+        return this.resultBatch;
+    }
+
+    /**
+     * Hands the rawPositionSensorData stream elements of all sensors which are measured before or at a given match timestamp (in ms) to a consumer.
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @param consumer  Consumer for the rawPositionSensorData stream elements (called in the order of their generation timestamp)
+     * @return Number of rawPositionSensorData stream elements handed to the consumer
+     * @throws IOException Thrown in case of an IOException while filling the buffer of a reader.
+     */
+    @Override
+    public int drainDataStreamElementsProducedBeforeOrAt(long timestamp, Consumer<RawPositionSensorDataStreamElement> consumer) throws IOException {
+        int numElements = 0;
+
+        while (this.schedule.peekTimestamp() <= timestamp) {
+            TimedRawPositionSensorDataStreamElementReader reader = this.readers[this.schedule.peekSensorIndex()];
+            try {
+                consumer.accept(reader.pollDataStreamElement());
+                numElements++;
+            } catch (EmptyBufferException e) {
+                logger.error("Caught exception.", e); // cannot happen since the sensor index is only in the schedule if its buffer is not empty
+            }
+
+            updateTopTimestamp(reader);
+        }
+
+        return numElements;
+    }
+
+    /**
+     * Returns the smallest generation timestamp (in ms) of the next rawPositionSensorData stream elements of all sensors.
+     *
+     * @return Generation timestamp (in ms) of the next rawPositionSensorData stream element or Long.MAX_VALUE if there is none
+     */
+    @Override
+    public long peekNextGenerationTimestamp() {
+        return this.schedule.peekTimestamp();
+    }
+
+    /**
+     * Drops the rawPositionSensorData stream elements of all sensors which are measured before a given match timestamp (in ms).
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return Number of dropped rawPositionSensorData stream elements
+     * @throws IOException Thrown in case of an IOException while filling the buffer of a reader.
+     */
+    @Override
+    public int dropDataStreamElementsProducedBefore(long timestamp) throws IOException {
+        int numDroppedElements = 0;
+
+        while (this.schedule.peekTimestamp() < timestamp) {
+            TimedRawPositionSensorDataStreamElementReader reader = this.readers[this.schedule.peekSensorIndex()];
+            numDroppedElements += reader.dropDataStreamElementsProducedBefore(timestamp);
+            updateTopTimestamp(reader);
+        }
+
+        return numDroppedElements;
+    }
+
+    /**
+     * Drops the rawPositionSensorData stream elements of all sensors which are measured before or at a given match timestamp (in ms) except for the latest one of every sensor.
+     * The due sensors are removed from the schedule and added again with the generation timestamp of their latest due element.
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return Number of dropped rawPositionSensorData stream elements
+     * @throws IOException Thrown in case of an IOException while filling the buffer of a reader.
+     */
+    @Override
+    public int dropAllButLatestDataStreamElementsProducedBeforeOrAt(long timestamp) throws IOException {
+        int numDroppedElements = 0;
+
+        int numDueSensors = 0;
+        while (this.schedule.peekTimestamp() <= timestamp) {
+            this.dueSensorIndices[numDueSensors++] = this.schedule.removeTop();
+        }
+
+        for (int i = 0; i < numDueSensors; ++i) {
+            TimedRawPositionSensorDataStreamElementReader reader = this.readers[this.dueSensorIndices[i]];
+            numDroppedElements += reader.dropAllButLatestDataStreamElementsProducedBeforeOrAt(timestamp);
+            long nextGenerationTimestamp = reader.peekNextGenerationTimestamp();
+            if (nextGenerationTimestamp != Long.MAX_VALUE) {
+                this.schedule.add(this.dueSensorIndices[i], nextGenerationTimestamp);
+            }
+        }
+
+        return numDroppedElements;
+    }
+
+    /**
+     * Updates the timestamp of the sensor with the smallest timestamp in the schedule after elements have been polled from its reader (or removes the sensor if its reader has no more elements).
+     *
+     * @param reader Reader of the sensor with the smallest timestamp in the schedule
+     */
+    private void updateTopTimestamp(TimedRawPositionSensorDataStreamElementReader reader) {
+        long nextGenerationTimestamp = reader.peekNextGenerationTimestamp();
+        if (nextGenerationTimestamp == Long.MAX_VALUE) {
+            this.schedule.removeTop();
+        } else {
+            this.schedule.updateTopTimestamp(nextGenerationTimestamp);
+        }
+    }
+
+    /**
+     * Closes the readers of all sensor data files.
+     *
+     * @throws IOException Thrown in case of an IOException while closing a reader.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.readers != null) {
+            for (TimedRawPositionSensorDataStreamElementReader reader : this.readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds all sensor data files in a match directory (matchDirectory/team/sensorId.csv, matchDirectory/team/sensorId.csv.gz, matchDirectory/team/sensorId.csv.lz4 or matchDirectory/team/sensorId.bin).
+     *
+     * @param matchDirectory Match directory
+     * @return Sensor data files (sorted by team and file name)
+     */
+    private static List<File> findSensorDataFiles(File matchDirectory) {
+        List<File> res = new ArrayList<>();
+
+        File[] teamDirectories = matchDirectory.listFiles(File::isDirectory);
+        if (teamDirectories != null) {
+            Arrays.sort(teamDirectories);
+            for (File teamDirectory : teamDirectories) {
+                File[] sensorDataFiles = teamDirectory.listFiles((dir, name) -> SensorDataFileCompression.isCsvFileName(name) || name.endsWith(BinarySensorDataFileFormat.FILE_EXTENSION));
+                if (sensorDataFiles != null) {
+                    Arrays.sort(sensorDataFiles);
+                    res.addAll(Arrays.asList(sensorDataFiles));
+                }
+            }
+        }
+
+        return res;
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.StringInternPool;
+
+/**
+ * Single-pass parser for lines of a sensor data file of the form generationTimestamp,x,y,z,objectId.
+ * Works directly on the characters of the line without creating intermediate strings: Empty fields are parsed as 0, " characters around the fields are ignored, and the object identifiers are interned.
+ * The parser is reused for all lines of a file and is therefore not thread-safe.
+ */
+public class RawPositionSensorDataLineParser {
+
+    /**
+     * Largest mantissa which can be represented exactly by a double (2^53)
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Powers of ten which can be represented exactly by a double
+     */
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Pool for interning the object identifiers
+     */
+    private final StringInternPool objectIdPool;
+
+    /**
+     * Line which is currently parsed
+     */
+    private CharSequence line;
+
+    /**
+     * Current position in the line
+     */
+    private int position;
+
+    /**
+     * End position of the line (without trailing carriage return)
+     */
+    private int end;
+
+    /**
+     * Generation timestamp of the last parsed line
+     */
+    private long generationTimestamp;
+
+    /**
+     * X position of the last parsed line
+     */
+    private double x;
+
+    /**
+     * Y position of the last parsed line
+     */
+    private double y;
+
+    /**
+     * Z position of the last parsed line
+     */
+    private double z;
+
+    /**
+     * Object identifier of the last parsed line
+     */
+    private String objectId;
+
+    /**
+     * RawPositionSensorDataLineParser constructor.
+     */
+    public RawPositionSensorDataLineParser() {
+        this.objectIdPool = new StringInternPool();
+    }
+
+    /**
+     * Parses a single line. The values are afterwards accessible via the getters.
+     *
+     * @param line Line of the form generationTimestamp,x,y,z,objectId
+     * @throws NumberFormatException Thrown if the line cannot be parsed.
+     */
+    public void parse(CharSequence line) throws NumberFormatException {
+        this.line = line;
+        this.position = 0;
+        this.end = line.length();
+        if (this.end > 0 && line.charAt(this.end - 1) == '\r') {
+            this.end--;
+        }
+
+        this.generationTimestamp = parseLongField();
+        this.x = parseDoubleField();
+        this.y = parseDoubleField();
+        this.z = parseDoubleField();
+        this.objectId = parseStringField();
+
+        this.line = null;
+    }
+
+    /**
+     * Returns the generation timestamp of the last parsed line.
+     *
+     * @return Generation timestamp
+     */
+    public long getGenerationTimestamp() {
+        return this.generationTimestamp;
+    }
+
+    /**
+     * Returns the x position of the last parsed line.
+     *
+     * @return X position
+     */
+    public double getX() {
+        return this.x;
+    }
+
+    /**
+     * Returns the y position of the last parsed line.
+     *
+     * @return Y position
+     */
+    public double getY() {
+        return this.y;
+    }
+
+    /**
+     * Returns the z position of the last parsed line.
+     *
+     * @return Z position
+     */
+    public double getZ() {
+        return this.z;
+    }
+
+    /**
+     * Returns the (interned) object identifier of the last parsed line.
+     *
+     * @return Object identifier
+     */
+    public String getObjectId() {
+        return this.objectId;
+    }
+
+    /**
+     * Finds the end of the current field (position of the next comma or end of the line).
+     *
+     * @return End of the current field (exclusive)
+     */
+    private int findFieldEnd() {
+        int fieldEnd = this.position;
+        while (fieldEnd < this.end && this.line.charAt(fieldEnd) != ',') {
+            fieldEnd++;
+        }
+        return fieldEnd;
+    }
+
+    /**
+     * Moves the position behind the comma which terminates the current field.
+     *
+     * @param fieldEnd End of the current field (exclusive)
+     */
+    private void skipField(int fieldEnd) {
+        this.position = fieldEnd < this.end ? fieldEnd + 1 : this.end;
+    }
+
+    /**
+     * Parses the current field as a long value.
+     *
+     * @return Long value (0 for an empty field)
+     * @throws NumberFormatException Thrown if the field is not a valid long value.
+     */
+    private long parseLongField() throws NumberFormatException {
+        int fieldEnd = findFieldEnd();
+        int start = this.position;
+        int stop = fieldEnd;
+        while (start < stop && this.line.charAt(start) == '"') {
+            start++;
+        }
+        while (stop > start && this.line.charAt(stop - 1) == '"') {
+            stop--;
+        }
+        skipField(fieldEnd);
+
+        if (start == stop) {
+            return 0;
+        }
+
+        boolean negative = false;
+        int i = start;
+        char c = this.line.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+        if (i == stop || stop - i > 18) { // more than 18 digits may overflow
+            return Long.parseLong(this.line.subSequence(start, stop).toString());
+        }
+
+        long value = 0;
+        for (; i < stop; ++i) {
+            c = this.line.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("For input string: \"" + this.line.subSequence(start, stop) + "\"");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the current field as a double value.
+     * Values with at most 15 significant digits and a small decimal exponent are parsed exactly without creating objects, all other values are delegated to Double.parseDouble().
+     *
+     * @return Double value (0 for an empty field)
+     * @throws NumberFormatException Thrown if the field is not a valid double value.
+     */
+    private double parseDoubleField() throws NumberFormatException {
+        int fieldEnd = findFieldEnd();
+        int start = this.position;
+        int stop = fieldEnd;
+        while (start < stop && this.line.charAt(start) == '"') {
+            start++;
+        }
+        while (stop > start && this.line.charAt(stop - 1) == '"') {
+            stop--;
+        }
+        skipField(fieldEnd);
+
+        if (start == stop) {
+            return 0;
+        }
+
+        boolean negative = false;
+        int i = start;
+        char c = this.line.charAt(i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int numDigits = 0;
+        int exponent = 0;
+        boolean seenDot = false;
+        boolean valid = i < stop;
+        for (; i < stop && valid; ++i) {
+            c = this.line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+                    valid = false; // too many significant digits for the exact fast path
+                } else {
+                    mantissa = mantissa * 10 + (c - '0');
+                    numDigits++;
+                    if (seenDot) {
+                        exponent--;
+                    }
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else if ((c == 'e' || c == 'E') && numDigits > 0) {
+                int explicitExponent = 0;
+                boolean negativeExponent = false;
+                int j = i + 1;
+                if (j < stop && (this.line.charAt(j) == '-' || this.line.charAt(j) == '+')) {
+                    negativeExponent = this.line.charAt(j) == '-';
+                    j++;
+                }
+                valid = j < stop && stop - j <= 3;
+                for (; j < stop && valid; ++j) {
+                    char e = this.line.charAt(j);
+                    if (e < '0' || e > '9') {
+                        valid = false;
+                    } else {
+                        explicitExponent = explicitExponent * 10 + (e - '0');
+                    }
+                }
+                exponent += negativeExponent ? -explicitExponent : explicitExponent;
+                i = stop;
+            } else {
+                valid = false;
+            }
+        }
+
+        if (!valid || numDigits == 0 || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(this.line.subSequence(start, stop).toString());
+        }
+
+        // Both the mantissa and the power of ten are exact doubles, hence a single division/multiplication yields the correctly rounded result
+        double value = exponent < 0 ? mantissa / EXACT_POWERS_OF_TEN[-exponent] : mantissa * EXACT_POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the current field as an (interned) string without surrounding " characters.
+     *
+     * @return Interned string
+     */
+    private String parseStringField() {
+        int fieldEnd = findFieldEnd();
+        int start = this.position;
+        int stop = fieldEnd;
+        while (start < stop && this.line.charAt(start) == '"') {
+            start++;
+        }
+        while (stop > start && this.line.charAt(stop - 1) == '"') {
+            stop--;
+        }
+        skipField(fieldEnd);
+
+        return this.objectIdPool.intern(this.line, start, stop);
+    }
+}
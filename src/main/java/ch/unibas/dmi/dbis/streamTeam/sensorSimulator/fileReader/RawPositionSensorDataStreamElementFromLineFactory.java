@@ -25,6 +25,7 @@ import ch.unibas.dmi.dbis.streamTeam.dataStructures.ObjectInfo;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.DataStreamElementFromLineFactoryInterface;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
 
+import java.io.File;
 import java.util.Properties;
 
 /**
@@ -38,19 +39,25 @@ public class RawPositionSensorDataStreamElementFromLineFactory implements DataSt
     private String matchId;
 
     /**
-     * Identifier of the team
+     * Identifier of the team (name of the directory which contains the sensor data file)
      */
     private String teamId;
 
+    /**
+     * Parser for the single lines
+     */
+    private final RawPositionSensorDataLineParser lineParser;
+
     /**
      * RawPositionSensorDataStreamElementFromLineFactory constructor.
      *
-     * @param properties Properties
+     * @param properties     Properties
+     * @param sensorDataFile Sensor data file whose lines are converted by this factory
      */
-    public RawPositionSensorDataStreamElementFromLineFactory(Properties properties) {
+    public RawPositionSensorDataStreamElementFromLineFactory(Properties properties, File sensorDataFile) {
         this.matchId = PropertyReadHelper.readStringOrDie(properties, "match.id");
-        String sensorDataFile = PropertyReadHelper.readStringOrDie(properties, "fileReader.sensorDataFile");
-        this.teamId = sensorDataFile.split("/")[3];
+        this.teamId = sensorDataFile.getAbsoluteFile().getParentFile().getName().intern(); // matchDirectory/team/sensorId.csv
+        this.lineParser = new RawPositionSensorDataLineParser();
     }
 
     /**
@@ -60,24 +67,13 @@ public class RawPositionSensorDataStreamElementFromLineFactory implements DataSt
      * @return rawPositionSensorData stream element that is generated using the given line
      * @throws AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement Thrown if the rawPositionSensorData stream element could not be generated
      */
-    public RawPositionSensorDataStreamElement generateFromLine(String line) throws AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement {
-        // Replace missing x and y values with 0
-        String correctedLine = line.replaceAll(",,", ",0,");
-
-        // Remove " around playerId
-        String correctedLine2 = correctedLine.replaceAll("\"", "");
-
-        String[] splittedLine = correctedLine2.split(",");
-
-        long generationTimestamp = Long.parseLong(splittedLine[0]);
-        double x = Double.parseDouble(splittedLine[1]);
-        double y = Double.parseDouble(splittedLine[2]);
-        double z = Double.parseDouble(splittedLine[3]);
-        String objectId = splittedLine[4];
+    public RawPositionSensorDataStreamElement generateFromLine(CharSequence line) throws AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement {
+        // Single pass over the line (missing values are parsed as 0 and " around the playerId are ignored)
+        this.lineParser.parse(line);
 
-        ObjectInfo objectInfo = new ObjectInfo(objectId, this.teamId, new Geometry.Vector(x, y, z));
+        ObjectInfo objectInfo = new ObjectInfo(this.lineParser.getObjectId(), this.teamId, new Geometry.Vector(this.lineParser.getX(), this.lineParser.getY(), this.lineParser.getZ()));
 
-        return RawPositionSensorDataStreamElement.generateRawPositionSensorDataStreamElement(this.matchId, generationTimestamp, objectInfo);
+        return RawPositionSensorDataStreamElement.generateRawPositionSensorDataStreamElement(this.matchId, this.lineParser.getGenerationTimestamp(), objectInfo);
     }
 
 }
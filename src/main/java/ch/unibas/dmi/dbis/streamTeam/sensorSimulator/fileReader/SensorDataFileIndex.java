@@ -0,0 +1,385 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.AsciiByteSequence;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.SensorDataFileCompression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Sparse timestamp index of a (CSV) sensor data file which maps the generation timestamp of every n-th line to the byte offset of this line.
+ * The offsets of compressed sensor data files refer to the uncompressed content.
+ * The index is stored in a side file (sensor data file path + ".idx") which consists of a header (magic number, version, length and last modification time of the sensor data file, number of entries) followed by entries of the form (long generationTimestamp, long offset).
+ * All values are stored in big-endian byte order.
+ */
+public class SensorDataFileIndex {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SensorDataFileIndex.class);
+
+    /**
+     * File extension of index files (appended to the path of the sensor data file)
+     */
+    public static final String FILE_EXTENSION = ".idx";
+
+    /**
+     * Magic number at the beginning of every index file ("STIX")
+     */
+    public static final int MAGIC_NUMBER = 0x53544958;
+
+    /**
+     * Version of the index file format
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * Default number of lines between two index entries
+     */
+    public static final int DEFAULT_INTERVAL = 250;
+
+    /**
+     * Size of the blocks in which the sensor data file is scanned while building the index
+     */
+    private static final int BUILD_BLOCK_SIZE = 65536;
+
+    /**
+     * Length of the indexed sensor data file in bytes
+     */
+    private long sensorDataFileLength;
+
+    /**
+     * Last modification time of the indexed sensor data file
+     */
+    private long sensorDataFileLastModified;
+
+    /**
+     * Generation timestamps of the entries (ascending)
+     */
+    private long[] timestamps;
+
+    /**
+     * Byte offsets of the entries (ascending)
+     */
+    private long[] offsets;
+
+    /**
+     * Number of entries
+     */
+    private int size;
+
+    /**
+     * SensorDataFileIndex constructor.
+     */
+    public SensorDataFileIndex() {
+        this.timestamps = new long[64];
+        this.offsets = new long[64];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the index file of a sensor data file.
+     *
+     * @param sensorDataFile Sensor data file
+     * @return Index file
+     */
+    public static File getIndexFile(File sensorDataFile) {
+        return new File(sensorDataFile.getPath() + FILE_EXTENSION);
+    }
+
+    /**
+     * Loads the index of a sensor data file from its index file or builds (and writes) the index if the index file does not exist or is outdated.
+     *
+     * @param sensorDataFile Sensor data file
+     * @param interval       Number of lines between two index entries (only used if the index has to be built)
+     * @return Index of the sensor data file
+     * @throws IOException Thrown in case of an IOException while reading the sensor data file.
+     */
+    public static SensorDataFileIndex loadOrBuild(File sensorDataFile, int interval) throws IOException {
+        File indexFile = getIndexFile(sensorDataFile);
+        if (indexFile.exists()) {
+            try {
+                SensorDataFileIndex index = read(indexFile);
+                if (index.matches(sensorDataFile)) {
+                    return index;
+                }
+                logger.info("Index file {} is outdated.", indexFile.getPath());
+            } catch (IOException e) {
+                logger.error("Caught exception.", e);
+            }
+        }
+
+        logger.info("Building index file {}...", indexFile.getPath());
+        SensorDataFileIndex index = build(sensorDataFile, interval);
+        try {
+            index.write(indexFile);
+        } catch (IOException e) {
+            logger.error("Caught exception.", e); // the index can still be used without being persisted
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index of a sensor data file by scanning its lines (the first line is skipped since it is the header line).
+     *
+     * @param sensorDataFile Sensor data file
+     * @param interval       Number of lines between two index entries
+     * @return Index of the sensor data file
+     * @throws IOException Thrown in case of an IOException while reading the sensor data file.
+     */
+    public static SensorDataFileIndex build(File sensorDataFile, int interval) throws IOException {
+        SensorDataFileIndex index = new SensorDataFileIndex();
+        RawPositionSensorDataLineParser parser = new RawPositionSensorDataLineParser();
+        AsciiByteSequence line = new AsciiByteSequence();
+        byte[] block = new byte[BUILD_BLOCK_SIZE];
+        ByteBuffer blockBuffer = ByteBuffer.wrap(block);
+        byte[] carryBytes = new byte[256]; // beginning of a line which spans two blocks
+        ByteBuffer carryBuffer = ByteBuffer.wrap(carryBytes);
+        int carryLength = 0;
+
+        try (InputStream in = SensorDataFileCompression.openInputStream(sensorDataFile)) {
+            long blockOffset = 0;
+            long lineStartOffset = 0;
+            long lineNumber = 0;
+            boolean indexNextLine = false;
+
+            int blockLength = in.read(block);
+            while (blockLength >= 0) {
+                int lineStart = 0;
+                for (int i = 0; i < blockLength; ++i) {
+                    if (block[i] == '\n') {
+                        if (lineNumber > 0) { // skip header line
+                            if ((lineNumber - 1) % interval == 0) {
+                                indexNextLine = true;
+                            }
+                            if (indexNextLine) {
+                                if (carryLength == 0) {
+                                    indexNextLine = !indexLine(index, parser, line, blockBuffer, lineStart, i - lineStart, lineStartOffset);
+                                } else {
+                                    if (carryLength + i - lineStart > carryBytes.length) {
+                                        carryBytes = Arrays.copyOf(carryBytes, Math.max(carryBytes.length * 2, carryLength + i - lineStart));
+                                        carryBuffer = ByteBuffer.wrap(carryBytes);
+                                    }
+                                    System.arraycopy(block, lineStart, carryBytes, carryLength, i - lineStart);
+                                    indexNextLine = !indexLine(index, parser, line, carryBuffer, 0, carryLength + i - lineStart, lineStartOffset);
+                                }
+                            }
+                        }
+                        lineNumber++;
+                        carryLength = 0;
+                        lineStart = i + 1;
+                        lineStartOffset = blockOffset + lineStart;
+                    }
+                }
+
+                // carry the beginning of the last line of the block over to the next block
+                int remainingLength = blockLength - lineStart;
+                if (remainingLength > 0) {
+                    if (carryLength + remainingLength > carryBytes.length) {
+                        carryBytes = Arrays.copyOf(carryBytes, Math.max(carryBytes.length * 2, carryLength + remainingLength));
+                        carryBuffer = ByteBuffer.wrap(carryBytes);
+                    }
+                    System.arraycopy(block, lineStart, carryBytes, carryLength, remainingLength);
+                    carryLength += remainingLength;
+                }
+                blockOffset += blockLength;
+                blockLength = in.read(block);
+            }
+
+            // last line without a trailing line break
+            if (lineNumber > 0 && carryLength > 0 && (indexNextLine || (lineNumber - 1) % interval == 0)) {
+                indexLine(index, parser, line, carryBuffer, 0, carryLength, lineStartOffset);
+            }
+        }
+
+        index.setSensorDataFileAttributes(sensorDataFile);
+        return index;
+    }
+
+    /**
+     * Adds a line to the index if a data stream element can be generated from it.
+     *
+     * @param index           Index
+     * @param parser          Line parser
+     * @param line            AsciiByteSequence which is set to the line
+     * @param lineBuffer      ByteBuffer (with an accessible array) which contains the line
+     * @param offset          Index of the first byte of the line in the ByteBuffer
+     * @param length          Number of bytes of the line (without the line break)
+     * @param lineStartOffset Byte offset of the line in the sensor data file
+     * @return True if the line has been added to the index
+     */
+    private static boolean indexLine(SensorDataFileIndex index, RawPositionSensorDataLineParser parser, AsciiByteSequence line, ByteBuffer lineBuffer, int offset, int length, long lineStartOffset) {
+        if (length > 0 && lineBuffer.array()[offset + length - 1] == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            return false;
+        }
+        line.set(lineBuffer, offset, length);
+        try {
+            parser.parse(line);
+            index.add(parser.getGenerationTimestamp(), lineStartOffset);
+            return true;
+        } catch (NumberFormatException e) {
+            return false; // index the next line from which a data stream element can be generated
+        }
+    }
+
+    /**
+     * Reads an index file.
+     *
+     * @param indexFile Index file
+     * @return Index
+     * @throws IOException Thrown in case of an IOException while reading or if the file is not an index file.
+     */
+    public static SensorDataFileIndex read(File indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            int magicNumber = in.readInt();
+            if (magicNumber != MAGIC_NUMBER) {
+                throw new IOException("Not an index file (magic number " + Integer.toHexString(magicNumber) + ").");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported index file version " + version + ".");
+            }
+            SensorDataFileIndex index = new SensorDataFileIndex();
+            index.sensorDataFileLength = in.readLong();
+            index.sensorDataFileLastModified = in.readLong();
+            int size = in.readInt();
+            for (int i = 0; i < size; ++i) {
+                long timestamp = in.readLong();
+                long offset = in.readLong();
+                index.add(timestamp, offset);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Writes the index to an index file.
+     * The index is first written to a temporary file in the same directory which is then atomically moved such that readers never see a partially written index file.
+     *
+     * @param indexFile Index file
+     * @throws IOException Thrown in case of an IOException while writing.
+     */
+    public void write(File indexFile) throws IOException {
+        File tmpFile = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getAbsoluteFile().getParentFile());
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC_NUMBER);
+                out.writeShort(VERSION);
+                out.writeLong(this.sensorDataFileLength);
+                out.writeLong(this.sensorDataFileLastModified);
+                out.writeInt(this.size);
+                for (int i = 0; i < this.size; ++i) {
+                    out.writeLong(this.timestamps[i]);
+                    out.writeLong(this.offsets[i]);
+                }
+            }
+            Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            tmpFile.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds an entry to the index (the entries have to be added in ascending order).
+     *
+     * @param timestamp Generation timestamp of the line
+     * @param offset    Byte offset of the line
+     */
+    public void add(long timestamp, long offset) {
+        if (this.size == this.timestamps.length) {
+            this.timestamps = Arrays.copyOf(this.timestamps, this.size * 2);
+            this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+        }
+        this.timestamps[this.size] = timestamp;
+        this.offsets[this.size] = offset;
+        this.size++;
+    }
+
+    /**
+     * Stores the length and the last modification time of the indexed sensor data file (has to be called after the sensor data file is completely written).
+     *
+     * @param sensorDataFile Indexed sensor data file
+     */
+    public void setSensorDataFileAttributes(File sensorDataFile) {
+        this.sensorDataFileLength = sensorDataFile.length();
+        this.sensorDataFileLastModified = sensorDataFile.lastModified();
+    }
+
+    /**
+     * Checks if the index matches the given sensor data file, i.e., if the sensor data file has not been modified since the index was built.
+     *
+     * @param sensorDataFile Sensor data file
+     * @return True if the index matches the sensor data file
+     */
+    public boolean matches(File sensorDataFile) {
+        return this.sensorDataFileLength == sensorDataFile.length() && this.sensorDataFileLastModified == sensorDataFile.lastModified();
+    }
+
+    /**
+     * Returns the byte offset of the last indexed line whose generation timestamp is before the given timestamp.
+     * Since all lines from this offset on are read, no line with a generation timestamp at or after the given timestamp is skipped.
+     *
+     * @param timestamp Generation timestamp (in ms)
+     * @return Byte offset of the line or -1 if there is no such line (i.e., the file has to be read from the beginning)
+     */
+    public long findOffsetBefore(long timestamp) {
+        int low = 0;
+        int high = this.size - 1;
+        int res = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (this.timestamps[mid] < timestamp) {
+                res = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return res < 0 ? -1 : this.offsets[res];
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return Number of entries
+     */
+    public int size() {
+        return this.size;
+    }
+}
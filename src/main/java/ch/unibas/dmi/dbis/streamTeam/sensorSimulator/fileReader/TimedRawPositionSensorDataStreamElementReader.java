@@ -22,17 +22,41 @@ import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSens
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.DataStreamElementFromLineFactoryInterface;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.EmptyBufferException;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.PreBufferedDataStreamElementFileReader;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * A PreBufferedDataStreamElementFileReader implementation which supports retreiving all rawPositionSensorData stream elements from the buffer which are measured before a given match timestamp (in ms).
  */
-public class TimedRawPositionSensorDataStreamElementReader extends PreBufferedDataStreamElementFileReader<RawPositionSensorDataStreamElement> {
+public class TimedRawPositionSensorDataStreamElementReader extends PreBufferedDataStreamElementFileReader<RawPositionSensorDataStreamElement> implements TimedRawPositionSensorDataStreamElementReaderInterface {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TimedRawPositionSensorDataStreamElementReader.class);
+
+    /**
+     * Generation timestamp (in ms) before which all rawPositionSensorData stream elements are skipped
+     */
+    private long firstGenerationTimestamp;
+
+    /**
+     * List which is reused for returning the due rawPositionSensorData stream elements
+     */
+    private final List<RawPositionSensorDataStreamElement> resultBatch;
+
+    /**
+     * Consumer which appends rawPositionSensorData stream elements to the resultBatch
+     */
+    private final Consumer<RawPositionSensorDataStreamElement> resultBatchAppender;
 
     /**
      * TimedRawPositionSensorDataStreamElementReader constructor.
@@ -42,6 +66,24 @@ public class TimedRawPositionSensorDataStreamElementReader extends PreBufferedDa
      */
     public TimedRawPositionSensorDataStreamElementReader(Properties properties, File file) {
         super(properties, file);
+        this.resultBatch = new ArrayList<>();
+        this.resultBatchAppender = this.resultBatch::add;
+        this.firstGenerationTimestamp = Long.MIN_VALUE;
+    }
+
+    /**
+     * Creates the reader for the given sensor data file (BinaryTimedRawPositionSensorDataStreamElementReader for binary sensor data files, TimedRawPositionSensorDataStreamElementReader otherwise).
+     *
+     * @param properties     Properties
+     * @param sensorDataFile Sensor data file that have to be read
+     * @return Reader for the sensor data file
+     */
+    public static TimedRawPositionSensorDataStreamElementReader createReader(Properties properties, File sensorDataFile) {
+        if (BinarySensorDataFileFormat.isBinarySensorDataFile(sensorDataFile)) {
+            return new BinaryTimedRawPositionSensorDataStreamElementReader(properties, sensorDataFile);
+        } else {
+            return new TimedRawPositionSensorDataStreamElementReader(properties, sensorDataFile);
+        }
     }
 
     /**
@@ -51,36 +93,162 @@ public class TimedRawPositionSensorDataStreamElementReader extends PreBufferedDa
      */
     @Override
     protected DataStreamElementFromLineFactoryInterface<RawPositionSensorDataStreamElement> generateFactory() {
-        return new RawPositionSensorDataStreamElementFromLineFactory(this.properties);
+        return new RawPositionSensorDataStreamElementFromLineFactory(this.properties, this.file);
+    }
+
+    /**
+     * Moves the file to the last indexed line before match.time.startTs (if fileReader.index.enabled is set) using the SensorDataFileIndex of the file.
+     * The index is built (and written) on first read if it does not exist yet.
+     *
+     * @throws IOException Thrown in case of an IOException while building the index or moving the file.
+     */
+    @Override
+    protected void seekToStart() throws IOException {
+        boolean indexEnabled = PropertyReadHelper.readBooleanOrDie(this.properties, "fileReader.index.enabled");
+        if (indexEnabled) {
+            this.firstGenerationTimestamp = PropertyReadHelper.readLongOrDie(this.properties, "match.time.startTs");
+            int indexInterval = PropertyReadHelper.readIntOrDie(this.properties, "fileReader.index.interval");
+
+            SensorDataFileIndex index = SensorDataFileIndex.loadOrBuild(this.file, indexInterval);
+            long offset = index.findOffsetBefore(this.firstGenerationTimestamp);
+            if (offset >= 0) {
+                logger.info("Seeking to byte {} of {} (match timestamp {}).", offset, this.file.getPath(), this.firstGenerationTimestamp);
+                seekLineSource(offset);
+            }
+        }
+    }
+
+    /**
+     * Reads the next rawPositionSensorData stream element from the file and skips all elements which are measured before match.time.startTs (i.e., the elements between the indexed line and match.time.startTs).
+     *
+     * @return Next rawPositionSensorData stream element or null if the end of the file is reached
+     * @throws IOException Thrown in case of an IOException while reading the file.
+     */
+    @Override
+    protected RawPositionSensorDataStreamElement readNextElement() throws IOException {
+        RawPositionSensorDataStreamElement nextElement = super.readNextElement();
+        while (nextElement != null && nextElement.getGenerationTimestamp() < this.firstGenerationTimestamp) {
+            nextElement = super.readNextElement();
+        }
+        return nextElement;
     }
 
     /**
      * Retrieves a list containing all rawPositionSensorData stream elements from the buffer which are measured before a given match timestamp (in ms).
+     * The returned list is reused by the next call of this method.
      *
      * @param timestamp Match timestamp (in ms)
      * @return rawPositionSensorData stream elements
      * @throws IOException Thrown in case of an IOException while filling the buffer.
      */
+    @Override
     public List<RawPositionSensorDataStreamElement> readDataStreamElementsProducedBeforeOrAt(long timestamp) throws IOException {
-        List<RawPositionSensorDataStreamElement> res = new LinkedList<>();
+        this.resultBatch.clear();
+        drainDataStreamElementsProducedBeforeOrAt(timestamp, this.resultBatchAppender);
+        return this.resultBatch;
+    }
+
+    /**
+     * Hands all rawPositionSensorData stream elements from the buffer which are measured before or at a given match timestamp (in ms) to a consumer.
+     * Only the elements which are due are removed from the buffer (peek before poll).
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @param consumer  Consumer for the rawPositionSensorData stream elements
+     * @return Number of rawPositionSensorData stream elements handed to the consumer
+     * @throws IOException Thrown in case of an IOException while filling the buffer.
+     */
+    @Override
+    public int drainDataStreamElementsProducedBeforeOrAt(long timestamp, Consumer<RawPositionSensorDataStreamElement> consumer) throws IOException {
+        int numElements = 0;
 
-        boolean done = false;
+        RawPositionSensorDataStreamElement nextRawPositionSensorDataStreamElement = this.peekElementFromBuffer();
+        while (nextRawPositionSensorDataStreamElement != null && nextRawPositionSensorDataStreamElement.getGenerationTimestamp() <= timestamp) {
+            try {
+                consumer.accept(this.pollElementFromBuffer());
+                numElements++;
+            } catch (EmptyBufferException e) {
+                break; // cannot happen since the buffer contains nextRawPositionSensorDataStreamElement
+            }
+            nextRawPositionSensorDataStreamElement = this.peekElementFromBuffer();
+        }
 
-        while (!done) {
+        return numElements;
+    }
+
+    /**
+     * Returns the generation timestamp (in ms) of the first rawPositionSensorData stream element in the buffer without removing it.
+     *
+     * @return Generation timestamp (in ms) of the first rawPositionSensorData stream element in the buffer or Long.MAX_VALUE if the buffer is empty
+     */
+    @Override
+    public long peekNextGenerationTimestamp() {
+        RawPositionSensorDataStreamElement nextRawPositionSensorDataStreamElement = this.peekElementFromBuffer();
+        if (nextRawPositionSensorDataStreamElement == null) {
+            return Long.MAX_VALUE;
+        } else {
+            return nextRawPositionSensorDataStreamElement.getGenerationTimestamp();
+        }
+    }
+
+    /**
+     * Drops all rawPositionSensorData stream elements from the buffer which are measured before a given match timestamp (in ms).
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return Number of dropped rawPositionSensorData stream elements
+     * @throws IOException Thrown in case of an IOException while filling the buffer.
+     */
+    @Override
+    public int dropDataStreamElementsProducedBefore(long timestamp) throws IOException {
+        int numDroppedElements = 0;
+
+        RawPositionSensorDataStreamElement nextRawPositionSensorDataStreamElement = this.peekElementFromBuffer();
+        while (nextRawPositionSensorDataStreamElement != null && nextRawPositionSensorDataStreamElement.getGenerationTimestamp() < timestamp) {
+            try {
+                this.pollElementFromBuffer();
+                numDroppedElements++;
+            } catch (EmptyBufferException e) {
+                break; // cannot happen since the buffer contains nextRawPositionSensorDataStreamElement
+            }
+            nextRawPositionSensorDataStreamElement = this.peekElementFromBuffer();
+        }
+
+        return numDroppedElements;
+    }
+
+    /**
+     * Drops all rawPositionSensorData stream elements from the buffer which are measured before or at a given match timestamp (in ms) except for the latest one.
+     * An element is only dropped if its successor is already in the buffer and due as well.
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return Number of dropped rawPositionSensorData stream elements
+     * @throws IOException Thrown in case of an IOException while filling the buffer.
+     */
+    @Override
+    public int dropAllButLatestDataStreamElementsProducedBeforeOrAt(long timestamp) throws IOException {
+        int numDroppedElements = 0;
+
+        RawPositionSensorDataStreamElement secondRawPositionSensorDataStreamElement = this.peekSecondElementFromBuffer();
+        while (secondRawPositionSensorDataStreamElement != null && secondRawPositionSensorDataStreamElement.getGenerationTimestamp() <= timestamp) {
             try {
-                RawPositionSensorDataStreamElement newRawPositionSensorDataStreamElement = this.pollElementFromBuffer();
-                if (newRawPositionSensorDataStreamElement.getGenerationTimestamp() <= timestamp) {
-                    res.add(newRawPositionSensorDataStreamElement);
-                } else {
-                    this.addToFirstPositionAtTheBuffer(newRawPositionSensorDataStreamElement); // put it back!!! otherwise we lose the data stream element!
-                    done = true;
-                }
+                this.pollElementFromBuffer();
+                numDroppedElements++;
             } catch (EmptyBufferException e) {
-                done = true;
+                break; // cannot happen since the buffer contains secondRawPositionSensorDataStreamElement
             }
+            secondRawPositionSensorDataStreamElement = this.peekSecondElementFromBuffer();
         }
 
-        return res;
+        return numDroppedElements;
+    }
+
+    /**
+     * Polls the first rawPositionSensorData stream element from the buffer.
+     *
+     * @return First rawPositionSensorData stream element from the buffer
+     * @throws EmptyBufferException Thrown if the buffer is empty.
+     */
+    RawPositionSensorDataStreamElement pollDataStreamElement() throws EmptyBufferException {
+        return this.pollElementFromBuffer();
     }
 
 }
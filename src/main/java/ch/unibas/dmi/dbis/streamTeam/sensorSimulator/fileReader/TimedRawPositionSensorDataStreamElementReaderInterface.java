@@ -0,0 +1,68 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing.CatchUpTargetInterface;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Interface for readers which provide the rawPositionSensorData stream elements which are due w.r.t. a given match timestamp (in ms).
+ * Every sensor data file contains the rawPositionSensorData stream elements of a single object, i.e., dropping all but the latest element of every object keeps the latest due element of every sensor data file.
+ */
+public interface TimedRawPositionSensorDataStreamElementReaderInterface extends Closeable, CatchUpTargetInterface {
+
+    /**
+     * Initializes the reader.
+     *
+     * @throws IOException Thrown in case of an IOException while opening or reading the sensor data file(s).
+     */
+    void initialize() throws IOException;
+
+    /**
+     * Retrieves a list containing all rawPositionSensorData stream elements which are measured before or at a given match timestamp (in ms).
+     * The returned list may be reused by the next call of this method.
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return rawPositionSensorData stream elements (ordered by their generation timestamp)
+     * @throws IOException Thrown in case of an IOException while reading the sensor data file(s).
+     */
+    List<RawPositionSensorDataStreamElement> readDataStreamElementsProducedBeforeOrAt(long timestamp) throws IOException;
+
+    /**
+     * Hands all rawPositionSensorData stream elements which are measured before or at a given match timestamp (in ms) to a consumer.
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @param consumer  Consumer for the rawPositionSensorData stream elements (called in the order of their generation timestamp)
+     * @return Number of rawPositionSensorData stream elements handed to the consumer
+     * @throws IOException Thrown in case of an IOException while reading the sensor data file(s).
+     */
+    int drainDataStreamElementsProducedBeforeOrAt(long timestamp, Consumer<RawPositionSensorDataStreamElement> consumer) throws IOException;
+
+    /**
+     * Returns the generation timestamp (in ms) of the next rawPositionSensorData stream element without consuming it.
+     *
+     * @return Generation timestamp (in ms) of the next rawPositionSensorData stream element or Long.MAX_VALUE if there is none
+     */
+    long peekNextGenerationTimestamp();
+}
@@ -0,0 +1,108 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable CharSequence view on a range of ASCII encoded bytes in a ByteBuffer (one byte = one character).
+ */
+public class AsciiByteSequence implements CharSequence {
+
+    /**
+     * ByteBuffer which contains the bytes
+     */
+    private ByteBuffer byteBuffer;
+
+    /**
+     * Index of the first byte of the range in the ByteBuffer
+     */
+    private int offset;
+
+    /**
+     * Number of bytes in the range
+     */
+    private int length;
+
+    /**
+     * Sets the range of bytes this sequence refers to.
+     *
+     * @param byteBuffer ByteBuffer which contains the bytes
+     * @param offset     Index of the first byte of the range in the ByteBuffer
+     * @param length     Number of bytes in the range
+     */
+    public void set(ByteBuffer byteBuffer, int offset, int length) {
+        this.byteBuffer = byteBuffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the number of characters in the sequence.
+     *
+     * @return Number of characters
+     */
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Returns the character at the given index.
+     *
+     * @param index Index
+     * @return Character at the given index
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + this.length);
+        }
+        return (char) (this.byteBuffer.get(this.offset + index) & 0xFF);
+    }
+
+    /**
+     * Returns a copy of the given subsequence as a string.
+     *
+     * @param start Start index (inclusive)
+     * @param end   End index (exclusive)
+     * @return Subsequence as a string
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > this.length || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", End: " + end + ", Length: " + this.length);
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; ++i) {
+            chars[i - start] = (char) (this.byteBuffer.get(this.offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns a copy of the sequence as a string.
+     *
+     * @return Sequence as a string
+     */
+    @Override
+    public String toString() {
+        return (String) subSequence(0, this.length);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * A LineSourceInterface implementation which reads the lines of a file using a BufferedReader.
+ * Gzip compressed files are detected by their magic number and decompressed while reading.
+ */
+public class BufferedReaderLineSource implements LineSourceInterface {
+
+    /**
+     * File that have to be read
+     */
+    private final File file;
+
+    /**
+     * InputStream providing the (uncompressed) content of the file
+     */
+    private InputStream inputStream;
+
+    /**
+     * BufferedReader for reading the file
+     */
+    private BufferedReader bufferedReader;
+
+    /**
+     * BufferedReaderLineSource constructor.
+     *
+     * @param file File that have to be read
+     * @throws IOException Thrown in case of an IOException while opening the file.
+     */
+    public BufferedReaderLineSource(File file) throws IOException {
+        this.file = file;
+        this.inputStream = SensorDataFileCompression.openInputStream(file);
+        this.bufferedReader = new BufferedReader(new InputStreamReader(this.inputStream));
+    }
+
+    /**
+     * Reads the next line using the BufferedReader.
+     *
+     * @return Next line or null if the end of the file is reached
+     * @throws IOException Thrown in case of an IOException while reading the file.
+     */
+    @Override
+    public CharSequence readLine() throws IOException {
+        return this.bufferedReader.readLine();
+    }
+
+    /**
+     * Moves the InputStream to the given byte offset and discards the characters which are buffered by the BufferedReader.
+     * Compressed files are reopened and decompressed up to the offset since they cannot be accessed randomly.
+     *
+     * @param offset Byte offset of the start of a line (w.r.t. the uncompressed content)
+     * @throws IOException Thrown in case of an IOException while moving the InputStream.
+     */
+    @Override
+    public void seek(long offset) throws IOException {
+        if (this.inputStream instanceof FileInputStream) {
+            ((FileInputStream) this.inputStream).getChannel().position(offset);
+            this.bufferedReader = new BufferedReader(new InputStreamReader(this.inputStream));
+        } else {
+            this.bufferedReader.close();
+            this.inputStream = SensorDataFileCompression.openInputStream(this.file);
+            this.bufferedReader = new BufferedReader(new InputStreamReader(this.inputStream));
+            long remainingChars = offset; // the lines are ASCII encoded
+            while (remainingChars > 0) {
+                long skippedChars = this.bufferedReader.skip(remainingChars);
+                if (skippedChars <= 0) {
+                    throw new IOException("Cannot seek to byte " + offset + " of " + this.file.getPath() + ".");
+                }
+                remainingChars -= skippedChars;
+            }
+        }
+    }
+
+    /**
+     * Closes the BufferedReader and the InputStream.
+     *
+     * @throws IOException Thrown in case of an IOException while closing the BufferedReader and the InputStream.
+     */
+    @Override
+    public void close() throws IOException {
+        this.bufferedReader.close();
+        this.inputStream.close();
+    }
+}
@@ -29,11 +29,12 @@ public interface DataStreamElementFromLineFactoryInterface<T extends AbstractImm
 
     /**
      * Generates a data stream element (AbstractImmutableDataStreamElement implementation) given a single line (string).
+     * The line must not be referenced after the method returns since the caller may reuse it for the next line.
      *
      * @param line Line (string) that specifies the data stream element
      * @return Data stream element that is generated using the given line
      * @throws AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement Thrown if the data stream element could not be generated
      */
-    T generateFromLine(String line) throws AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement;
+    T generateFromLine(CharSequence line) throws AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement;
 
 }
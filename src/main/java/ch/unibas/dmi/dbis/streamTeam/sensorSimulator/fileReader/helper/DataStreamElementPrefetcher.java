@@ -0,0 +1,253 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.AbstractImmutableDataStreamElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread which reads batches of data stream elements ahead of time (double buffering).
+ * While one batch is ready to be taken by the consumer, the next batch is already filled.
+ * The batches are handed over via a lock-free single-producer/single-consumer slot and the emptied batches are handed back for reuse.
+ *
+ * @param <T> Implementation of AbstractImmutableDataStreamElement
+ */
+public class DataStreamElementPrefetcher<T extends AbstractImmutableDataStreamElement> implements Runnable, Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(DataStreamElementPrefetcher.class);
+
+    /**
+     * Time (in ns) the consumer parks between two checks when it has to wait for a batch
+     */
+    private static final long CONSUMER_WAIT_INTERVAL_IN_NS = 100000;
+
+    /**
+     * Supplier for reading a single data stream element.
+     *
+     * @param <T> Implementation of AbstractImmutableDataStreamElement
+     */
+    public interface ElementSupplier<T> {
+
+        /**
+         * Reads the next data stream element.
+         *
+         * @return Next data stream element or null if the end of the file is reached
+         * @throws IOException Thrown in case of an IOException while reading the file.
+         */
+        T readNextElement() throws IOException;
+    }
+
+    /**
+     * Supplier for reading the single data stream elements
+     */
+    private final ElementSupplier<T> elementSupplier;
+
+    /**
+     * Number of data stream elements per batch
+     */
+    private final int batchSize;
+
+    /**
+     * Thread which fills the batches
+     */
+    private final Thread thread;
+
+    /**
+     * Slot containing the batch which is ready to be taken by the consumer (null if there is none)
+     */
+    private final AtomicReference<ArrayList<T>> readyBatch;
+
+    /**
+     * Slot containing an emptied batch which is handed back by the consumer for reuse (null if there is none)
+     */
+    private final AtomicReference<ArrayList<T>> freeBatch;
+
+    /**
+     * Reflects if the thread has read the last data stream element of the file
+     */
+    private volatile boolean finished;
+
+    /**
+     * Reflects if the thread should continue to fill batches
+     */
+    private volatile boolean running;
+
+    /**
+     * IOException which has been thrown while reading the file or IOException wrapping a RuntimeException which has been thrown while parsing it (rethrown to the consumer)
+     */
+    private volatile IOException exception;
+
+    /**
+     * DataStreamElementPrefetcher constructor.
+     *
+     * @param elementSupplier Supplier for reading the single data stream elements
+     * @param batchSize       Number of data stream elements per batch
+     * @param name            Name of the thread
+     */
+    public DataStreamElementPrefetcher(ElementSupplier<T> elementSupplier, int batchSize, String name) {
+        this.elementSupplier = elementSupplier;
+        this.batchSize = Math.max(1, batchSize);
+        this.readyBatch = new AtomicReference<>();
+        this.freeBatch = new AtomicReference<>();
+        this.finished = false;
+        this.running = false;
+        this.exception = null;
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the thread.
+     */
+    public void start() {
+        this.running = true;
+        this.thread.start();
+    }
+
+    /**
+     * Fills batches until the end of the file is reached or the prefetcher is closed.
+     */
+    @Override
+    public void run() {
+        ArrayList<T> batch = new ArrayList<>(this.batchSize);
+        try {
+            while (this.running) {
+                boolean endReached = false;
+                while (batch.size() < this.batchSize) {
+                    T element = this.elementSupplier.readNextElement();
+                    if (element == null) {
+                        endReached = true;
+                        break;
+                    }
+                    batch.add(element);
+                }
+
+                // Wait until the consumer has taken the previous batch
+                while (this.running && this.readyBatch.get() != null) {
+                    LockSupport.park(this);
+                }
+                if (!this.running) {
+                    return;
+                }
+                this.readyBatch.set(batch);
+
+                if (endReached) {
+                    return;
+                }
+
+                batch = this.freeBatch.getAndSet(null);
+                if (batch == null) {
+                    batch = new ArrayList<>(this.batchSize);
+                }
+            }
+        } catch (IOException e) { // reported by the consumer
+            this.exception = e;
+        } catch (RuntimeException e) { // e.g., a NumberFormatException for a malformed line (must not look like the end of the file)
+            this.exception = new IOException("Prefetching data stream elements failed.", e);
+        } finally {
+            this.finished = true;
+        }
+    }
+
+    /**
+     * Takes the ready batch without waiting.
+     * The batch has to be handed back via recycle() after it has been emptied.
+     *
+     * @return Ready batch or null if there is none
+     * @throws IOException Thrown if an exception has been thrown while reading the file.
+     */
+    public ArrayList<T> pollBatch() throws IOException {
+        ArrayList<T> batch = this.readyBatch.getAndSet(null);
+        if (batch != null) {
+            LockSupport.unpark(this.thread);
+            return batch;
+        }
+        if (this.exception != null) {
+            throw this.exception;
+        }
+        return null;
+    }
+
+    /**
+     * Takes the ready batch and waits until one is available if necessary.
+     * The batch has to be handed back via recycle() after it has been emptied.
+     *
+     * @return Ready batch or null if the end of the file is reached
+     * @throws IOException Thrown if an exception has been thrown while reading the file.
+     */
+    public ArrayList<T> takeBatch() throws IOException {
+        while (true) {
+            ArrayList<T> batch = pollBatch();
+            if (batch != null) {
+                return batch;
+            }
+            if (this.finished && this.readyBatch.get() == null) {
+                if (this.exception != null) {
+                    throw this.exception;
+                }
+                return null;
+            }
+            LockSupport.parkNanos(CONSUMER_WAIT_INTERVAL_IN_NS);
+        }
+    }
+
+    /**
+     * Checks if all batches have been taken, i.e., if the end of the file is reached.
+     * Returns false if the thread has failed such that the consumer polls again and receives the exception.
+     *
+     * @return True if all batches have been taken
+     */
+    public boolean isExhausted() {
+        return this.finished && this.readyBatch.get() == null && this.exception == null;
+    }
+
+    /**
+     * Hands an emptied batch back to the thread for reuse.
+     *
+     * @param batch Emptied batch
+     */
+    public void recycle(ArrayList<T> batch) {
+        batch.clear();
+        this.freeBatch.set(batch);
+    }
+
+    /**
+     * Stops the thread and waits until it has terminated.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            logger.error("Caught exception.", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Interface for sources which provide the lines of a file.
+ */
+public interface LineSourceInterface extends Closeable {
+
+    /**
+     * Reads the next line (without line terminator).
+     * The returned character sequence may be reused by the next call of readLine().
+     *
+     * @return Next line or null if the end of the file is reached
+     * @throws IOException Thrown in case of an IOException while reading the file.
+     */
+    CharSequence readLine() throws IOException;
+
+    /**
+     * Moves the source to the given byte offset such that the next call of readLine() returns the line which starts at this offset.
+     *
+     * @param offset Byte offset of the start of a line
+     * @throws IOException Thrown in case of an IOException while moving the source.
+     */
+    void seek(long offset) throws IOException;
+
+}
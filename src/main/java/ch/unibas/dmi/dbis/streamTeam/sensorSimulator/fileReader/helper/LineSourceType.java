@@ -0,0 +1,59 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * LineSource types.
+ */
+public enum LineSourceType {
+    /**
+     * BufferedReaderLineSource.
+     */
+    BUFFERED {
+        @Override
+        public LineSourceInterface getLineSource(File file) throws IOException {
+            return new BufferedReaderLineSource(file);
+        }
+    },
+    /**
+     * MappedFileLineSource (BufferedReaderLineSource for compressed files).
+     */
+    MAPPED {
+        @Override
+        public LineSourceInterface getLineSource(File file) throws IOException {
+            if (SensorDataFileCompression.isCompressed(file)) {
+                return new BufferedReaderLineSource(file); // compressed files cannot be scanned in the mapped bytes
+            } else {
+                return new MappedFileLineSource(file);
+            }
+        }
+    };
+
+    /**
+     * Returns a LineSourceInterface instance for the given file.
+     *
+     * @param file File that have to be read
+     * @return LineSourceInterface instance
+     * @throws IOException Thrown in case of an IOException while opening the file.
+     */
+    public abstract LineSourceInterface getLineSource(File file) throws IOException;
+}
@@ -0,0 +1,123 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A LineSourceInterface implementation which maps the file into memory and scans the line boundaries directly in the MappedByteBuffer.
+ * The lines are provided as AsciiByteSequence views on the mapped bytes (i.e., the file has to be ASCII encoded) and the mapped pages are shared with the page cache of the operating system.
+ */
+public class MappedFileLineSource implements LineSourceInterface {
+
+    /**
+     * RandomAccessFile for accessing the file
+     */
+    private final RandomAccessFile randomAccessFile;
+
+    /**
+     * FileChannel of the file
+     */
+    private final FileChannel fileChannel;
+
+    /**
+     * Memory mapped content of the file
+     */
+    private final MappedByteBuffer mappedByteBuffer;
+
+    /**
+     * Reused view on the current line
+     */
+    private final AsciiByteSequence line;
+
+    /**
+     * Index of the first byte of the next line
+     */
+    private int position;
+
+    /**
+     * MappedFileLineSource constructor.
+     *
+     * @param file File that have to be read
+     * @throws IOException Thrown in case of an IOException while opening or mapping the file.
+     */
+    public MappedFileLineSource(File file) throws IOException {
+        this.randomAccessFile = new RandomAccessFile(file, "r");
+        this.fileChannel = this.randomAccessFile.getChannel();
+        long size = this.fileChannel.size();
+        if (size > Integer.MAX_VALUE) {
+            this.randomAccessFile.close();
+            throw new IOException("Cannot map " + file.getPath() + " since it is larger than 2 GB.");
+        }
+        this.mappedByteBuffer = this.fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        this.line = new AsciiByteSequence();
+        this.position = 0;
+    }
+
+    /**
+     * Reads the next line by scanning for the next line feed in the mapped bytes.
+     *
+     * @return View on the next line (reused by the next call) or null if the end of the file is reached
+     */
+    @Override
+    public CharSequence readLine() {
+        int limit = this.mappedByteBuffer.limit();
+        if (this.position >= limit) {
+            return null;
+        }
+
+        int lineStart = this.position;
+        int lineEnd = lineStart;
+        while (lineEnd < limit && this.mappedByteBuffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        this.position = lineEnd + 1;
+
+        if (lineEnd > lineStart && this.mappedByteBuffer.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        this.line.set(this.mappedByteBuffer, lineStart, lineEnd - lineStart);
+        return this.line;
+    }
+
+    /**
+     * Moves the position to the given byte offset.
+     *
+     * @param offset Byte offset of the start of a line
+     */
+    @Override
+    public void seek(long offset) {
+        this.position = (int) offset;
+    }
+
+    /**
+     * Closes the FileChannel and the RandomAccessFile (the mapping is released by the garbage collector).
+     *
+     * @throws IOException Thrown in case of an IOException while closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        this.fileChannel.close();
+        this.randomAccessFile.close();
+    }
+}
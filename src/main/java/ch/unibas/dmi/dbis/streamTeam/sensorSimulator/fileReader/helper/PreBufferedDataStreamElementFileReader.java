@@ -23,8 +23,10 @@ import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyR
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
-import java.util.LinkedList;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Properties;
 
 /**
@@ -33,6 +35,8 @@ import java.util.Properties;
  * After initializing the PreBufferedDataStreamElementFileReader the buffer is filled (size = MAX_BUFFER_SIZE).
  * When the buffer size falls below MIN_BUFFER_SIZE, it is refilled up to its maximum size.
  * Exception: The buffer size is allowed to fall below MIN_BUFFER_SIZE if the reader reaches the end of the file.
+ * Subclasses can skip the beginning of the file by overriding seekToStart() (e.g., using a SensorDataFileIndex).
+ * If fileReader.prefetch.enabled is set or the file is compressed (such that inflating does not happen on the pacing thread), the buffer is refilled with batches which a DataStreamElementPrefetcher reads ahead of time in a background thread, i.e., the thread which polls the elements never reads or parses the file after the initialization.
  * Always initialize() the PreBufferedDataStreamElementFileReader before call pollElementFromBuffer() and close() it after reading the last element.
  *
  * @param <T> Implementation of AbstractImmutableDataStreamElement
@@ -52,17 +56,12 @@ public abstract class PreBufferedDataStreamElementFileReader<T extends AbstractI
     /**
      * File that have to be read
      */
-    private final File file;
+    protected final File file;
 
     /**
-     * FileReader for reading the file
+     * Source which provides the lines of the file
      */
-    private FileReader fileReader;
-
-    /**
-     * BufferedReader for reading the file
-     */
-    private BufferedReader bufferedReader;
+    private LineSourceInterface lineSource;
 
     /**
      * Factory for generating data stream elements given a line of the file (string)
@@ -82,13 +81,18 @@ public abstract class PreBufferedDataStreamElementFileReader<T extends AbstractI
     /**
      * Buffer storing prefetched objects
      */
-    private LinkedList<T> buffer;
+    private RingBuffer<T> buffer;
 
     /**
      * Reflects if the end of the file is already reached
      */
     private boolean fileEnd = false;
 
+    /**
+     * Background prefetcher which reads the elements ahead of time (null if prefetching is disabled)
+     */
+    private DataStreamElementPrefetcher<T> prefetcher;
+
     /**
      * PreBufferedDataStreamElementFileReader constructor.
      *
@@ -99,27 +103,34 @@ public abstract class PreBufferedDataStreamElementFileReader<T extends AbstractI
         this.properties = properties;
         this.file = file;
         this.buffer = null;
+        this.prefetcher = null;
     }
 
     /**
      * Initializes all important variables and first time fills the buffer.
      *
-     * @throws IOException Thrown in case of an IOException while creating the BufferedReader or filling the buffer.
+     * @throws IOException Thrown in case of an IOException while opening the file or filling the buffer.
      */
     public final void initialize() throws IOException {
-        this.fileReader = new FileReader(this.file);
-        this.bufferedReader = new BufferedReader(this.fileReader);
-
-        this.factory = generateFactory();
-
-        this.buffer = new LinkedList<>();
-
-        this.bufferedReader.readLine(); // skip first line
+        openFile();
+        seekToStart();
 
         this.minBufferSize = PropertyReadHelper.readIntOrDie(this.properties, "fileReader.buffer.size.min");
         this.maxBufferSize = PropertyReadHelper.readIntOrDie(this.properties, "fileReader.buffer.size.max");
 
+        this.buffer = new RingBuffer<>(this.maxBufferSize);
+
         fillBuffer();
+
+        boolean prefetchEnabled = PropertyReadHelper.readBooleanOrDie(this.properties, "fileReader.prefetch.enabled");
+        if (!prefetchEnabled && SensorDataFileCompression.isCompressed(this.file)) {
+            logger.info("Prefetching {} since it is compressed.", this.file);
+            prefetchEnabled = true;
+        }
+        if (prefetchEnabled && !this.fileEnd) {
+            this.prefetcher = new DataStreamElementPrefetcher<>(this::readNextElement, this.maxBufferSize - this.minBufferSize, "prefetcher-" + this.file.getName());
+            this.prefetcher.start();
+        }
     }
 
     /**
@@ -129,47 +140,131 @@ public abstract class PreBufferedDataStreamElementFileReader<T extends AbstractI
      */
     protected abstract DataStreamElementFromLineFactoryInterface<T> generateFactory();
 
+    /**
+     * Opens the file and skips the header line.
+     * Subclasses which do not read a line-based file override this method together with readNextElement() and closeFile().
+     *
+     * @throws IOException Thrown in case of an IOException while opening the file.
+     */
+    protected void openFile() throws IOException {
+        String lineSourceTypeString = PropertyReadHelper.readStringOrDie(this.properties, "fileReader.lineSource");
+        LineSourceType lineSourceType = LineSourceType.valueOf(lineSourceTypeString.toUpperCase().trim());
+        this.lineSource = lineSourceType.getLineSource(this.file);
+
+        this.factory = generateFactory();
+
+        this.lineSource.readLine(); // skip first line
+    }
+
+    /**
+     * Moves the opened file to the position from which the data stream elements are read (called before the buffer is filled the first time).
+     * By default, the file is read from the beginning.
+     *
+     * @throws IOException Thrown in case of an IOException while moving the file.
+     */
+    protected void seekToStart() throws IOException {
+    }
+
+    /**
+     * Moves the line source to the given byte offset (which has to be the start of a line).
+     *
+     * @param offset Byte offset of the start of a line
+     * @throws IOException Thrown in case of an IOException while moving the line source.
+     */
+    protected final void seekLineSource(long offset) throws IOException {
+        this.lineSource.seek(offset);
+    }
+
+    /**
+     * Reads the next data stream element from the file.
+     * Empty lines and lines from which no data stream element can be generated are skipped.
+     *
+     * @return Next data stream element or null if the end of the file is reached
+     * @throws IOException Thrown in case of an IOException while reading the file.
+     */
+    protected T readNextElement() throws IOException {
+        CharSequence newLine = this.lineSource.readLine();
+
+        while (newLine != null) {
+            if (newLine.length() > 0) { // skip empty lines
+                try {
+                    return this.factory.generateFromLine(newLine);
+                } catch (AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement e) {
+                    logger.error("Caught exception during generating a data stream element from the line: ", e);
+                }
+            }
+            newLine = this.lineSource.readLine();
+        }
+
+        return null;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException Thrown in case of an IOException while closing the file.
+     */
+    protected void closeFile() throws IOException {
+        this.lineSource.close();
+    }
+
     /**
      * Fills the buffer up the the maxBufferSize unless the end of the given file is reached.
      *
      * @throws IOException Thrown in case of an IOException while filling the buffer.
      */
     private void fillBuffer() throws IOException {
-        if (!this.fileEnd && this.buffer.size() < this.maxBufferSize) {
-            String newLine;
+        while (!this.fileEnd && this.buffer.size() < this.maxBufferSize) {
+            T newT = readNextElement();
 
-            while (this.buffer.size() < this.maxBufferSize) {
-                newLine = this.bufferedReader.readLine();
-
-                if (newLine == null) {
-                    this.fileEnd = true;
-                    return;
-                } else {
-                    try {
-                        T newT = this.factory.generateFromLine(newLine);
-                        this.buffer.addLast(newT);
-                    } catch (AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement e) {
-                        logger.error("Caught exception during generating a data stream element from the line: ", e);
-                    }
-                }
+            if (newT == null) {
+                this.fileEnd = true;
+            } else {
+                this.buffer.addLast(newT);
             }
         }
     }
 
+    /**
+     * Refills the buffer with the batch of the prefetcher (if it is ready).
+     * Waits for the batch if the buffer is empty since an empty buffer must only be observed at the end of the file.
+     *
+     * @throws IOException Thrown in case of an IOException while prefetching.
+     */
+    private void refillBufferFromPrefetcher() throws IOException {
+        ArrayList<T> batch = this.buffer.isEmpty() ? this.prefetcher.takeBatch() : this.prefetcher.pollBatch();
+        if (batch != null) {
+            this.buffer.addAll(batch);
+            this.prefetcher.recycle(batch);
+        }
+        if (this.prefetcher.isExhausted()) {
+            this.fileEnd = true;
+        }
+    }
+
     /**
      * Polls a single data stream element from the buffer.
      * Refills the buffer if necessary, i.e., if the buffer size falls below minBufferSize and the end of the file is not reached yet.
+     * If refilling the buffer fails, the failure is logged once and the file is treated as ended after the remaining elements in the buffer (the polled element is still returned).
      *
      * @return First data stream element from the buffer
      * @throws EmptyBufferException Thrown if the buffer is empty.
-     * @throws IOException          Thrown in case of an IOException while filling the buffer.
      */
-    protected final T pollElementFromBuffer() throws EmptyBufferException, IOException {
+    protected final T pollElementFromBuffer() throws EmptyBufferException {
         if (this.buffer.size() > 0) {
             T res = this.buffer.pollFirst();
 
             if (!this.fileEnd && this.buffer.size() < this.minBufferSize) {
-                fillBuffer();
+                try {
+                    if (this.prefetcher == null) {
+                        fillBuffer();
+                    } else {
+                        refillBufferFromPrefetcher();
+                    }
+                } catch (IOException e) {
+                    logger.error("Caught exception while filling the buffer of {} (the remaining elements of the file are skipped).", this.file.getPath(), e);
+                    this.fileEnd = true;
+                }
             }
             return res;
         } else {
@@ -178,22 +273,33 @@ public abstract class PreBufferedDataStreamElementFileReader<T extends AbstractI
     }
 
     /**
-     * Adds a data stream element to the first position of the buffer
+     * Returns the first data stream element from the buffer without removing it.
+     *
+     * @return First data stream element from the buffer or null if the buffer is empty
+     */
+    protected final T peekElementFromBuffer() {
+        return this.buffer.peekFirst();
+    }
+
+    /**
+     * Returns the second data stream element from the buffer without removing it.
      *
-     * @param element Element that has to be added
+     * @return Second data stream element from the buffer or null if the buffer contains less than two elements
      */
-    protected final void addToFirstPositionAtTheBuffer(T element) {
-        this.buffer.addFirst(element);
+    protected final T peekSecondElementFromBuffer() {
+        return this.buffer.peekSecond();
     }
 
     /**
      * Closes the file reader.
      *
-     * @throws IOException Thrown in case of an IOException while closing the BufferedReader and the FileReader.
+     * @throws IOException Thrown in case of an IOException while closing the file.
      */
     public final void close() throws IOException {
-        this.bufferedReader.close();
-        this.fileReader.close();
+        if (this.prefetcher != null) {
+            this.prefetcher.close();
+        }
+        closeFile();
     }
 
 }
@@ -0,0 +1,151 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import java.util.List;
+
+/**
+ * An array-backed FIFO ring buffer which grows if necessary.
+ * In contrast to a LinkedList, adding and removing elements does not allocate nodes.
+ *
+ * @param <T> Type of the elements
+ */
+public class RingBuffer<T> {
+
+    /**
+     * Array storing the elements (its length is always a power of two)
+     */
+    private Object[] elements;
+
+    /**
+     * Index of the first element
+     */
+    private int head;
+
+    /**
+     * Number of elements in the buffer
+     */
+    private int size;
+
+    /**
+     * RingBuffer constructor.
+     *
+     * @param initialCapacity Initial capacity (rounded up to the next power of two)
+     */
+    public RingBuffer(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1;
+        this.elements = new Object[capacity];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of elements in the buffer.
+     *
+     * @return Number of elements
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks if the buffer is empty.
+     *
+     * @return True if the buffer is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Adds an element at the end of the buffer.
+     *
+     * @param element Element
+     */
+    public void addLast(T element) {
+        if (this.size == this.elements.length) {
+            grow();
+        }
+        this.elements[(this.head + this.size) & (this.elements.length - 1)] = element;
+        this.size++;
+    }
+
+    /**
+     * Adds all elements of a list at the end of the buffer.
+     *
+     * @param list List of elements
+     */
+    public void addAll(List<T> list) {
+        for (int i = 0; i < list.size(); ++i) {
+            addLast(list.get(i));
+        }
+    }
+
+    /**
+     * Returns the first element without removing it.
+     *
+     * @return First element or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T peekFirst() {
+        return (T) this.elements[this.head]; // null if the buffer is empty
+    }
+
+    /**
+     * Returns the second element without removing it.
+     *
+     * @return Second element or null if the buffer contains less than two elements
+     */
+    @SuppressWarnings("unchecked")
+    public T peekSecond() {
+        if (this.size < 2) {
+            return null;
+        }
+        return (T) this.elements[(this.head + 1) & (this.elements.length - 1)];
+    }
+
+    /**
+     * Removes and returns the first element.
+     *
+     * @return First element or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T pollFirst() {
+        if (this.size == 0) {
+            return null;
+        }
+        T res = (T) this.elements[this.head];
+        this.elements[this.head] = null;
+        this.head = (this.head + 1) & (this.elements.length - 1);
+        this.size--;
+        return res;
+    }
+
+    /**
+     * Doubles the capacity of the buffer.
+     */
+    private void grow() {
+        Object[] newElements = new Object[this.elements.length * 2];
+        for (int i = 0; i < this.size; ++i) {
+            newElements[i] = this.elements[(this.head + i) & (this.elements.length - 1)];
+        }
+        this.elements = newElements;
+        this.head = 0;
+    }
+}
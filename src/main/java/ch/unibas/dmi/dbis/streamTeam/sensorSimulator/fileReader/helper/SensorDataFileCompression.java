@@ -0,0 +1,171 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Helper class for reading and writing compressed sensor data files (gzip or LZ4 frame format).
+ * Compressed files are detected by their magic number (not by their file extension) such that they are decompressed transparently.
+ * LZ4 is provided by lz4-java which is a dependency of kafka-clients.
+ */
+public class SensorDataFileCompression {
+
+    /**
+     * File extension of gzip compressed sensor data files (appended to the file extension of the uncompressed file)
+     */
+    public static final String GZIP_FILE_EXTENSION = ".gz";
+
+    /**
+     * File extension of LZ4 compressed sensor data files (appended to the file extension of the uncompressed file)
+     */
+    public static final String LZ4_FILE_EXTENSION = ".lz4";
+
+    /**
+     * Magic number at the beginning of every gzip compressed file
+     */
+    private static final int GZIP_MAGIC_NUMBER = 0x1f8b;
+
+    /**
+     * Magic number at the beginning of every LZ4 frame (stored in little-endian byte order)
+     */
+    private static final int LZ4_FRAME_MAGIC_NUMBER = 0x184D2204;
+
+    /**
+     * Size of the buffer for the compressed bytes in bytes
+     */
+    private static final int COMPRESSED_BUFFER_SIZE = 65536;
+
+    /**
+     * Checks if the given file is gzip compressed (w.r.t. its magic number).
+     *
+     * @param file File
+     * @return True if the file is gzip compressed
+     * @throws IOException Thrown in case of an IOException while reading the beginning of the file.
+     */
+    public static boolean isGzipCompressed(File file) throws IOException {
+        int magicBytes = readMagicBytes(file);
+        return magicBytes >= 0 && (magicBytes >>> 16) == GZIP_MAGIC_NUMBER;
+    }
+
+    /**
+     * Checks if the given file is LZ4 compressed (w.r.t. the magic number of the LZ4 frame format).
+     *
+     * @param file File
+     * @return True if the file is LZ4 compressed
+     * @throws IOException Thrown in case of an IOException while reading the beginning of the file.
+     */
+    public static boolean isLz4Compressed(File file) throws IOException {
+        return Integer.reverseBytes(readMagicBytes(file)) == LZ4_FRAME_MAGIC_NUMBER;
+    }
+
+    /**
+     * Checks if the given file is compressed (gzip or LZ4).
+     *
+     * @param file File
+     * @return True if the file is compressed
+     * @throws IOException Thrown in case of an IOException while reading the beginning of the file.
+     */
+    public static boolean isCompressed(File file) throws IOException {
+        return isGzipCompressed(file) || isLz4Compressed(file);
+    }
+
+    /**
+     * Checks if the given file name is the name of a (possibly compressed) CSV sensor data file.
+     *
+     * @param fileName File name
+     * @return True if the file name ends with .csv, .csv.gz or .csv.lz4
+     */
+    public static boolean isCsvFileName(String fileName) {
+        return fileName.endsWith(".csv") || fileName.endsWith(".csv" + GZIP_FILE_EXTENSION) || fileName.endsWith(".csv" + LZ4_FILE_EXTENSION);
+    }
+
+    /**
+     * Reads the first four bytes of the given file.
+     *
+     * @param file File
+     * @return First four bytes (big-endian) or -1 if the file is shorter than four bytes
+     * @throws IOException Thrown in case of an IOException while reading the beginning of the file.
+     */
+    private static int readMagicBytes(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            int magicBytes = 0;
+            for (int i = 0; i < 4; ++i) {
+                int b = in.read();
+                if (b < 0) {
+                    return -1;
+                }
+                magicBytes = (magicBytes << 8) | b;
+            }
+            return magicBytes;
+        }
+    }
+
+    /**
+     * Opens an InputStream which provides the uncompressed content of the given file.
+     *
+     * @param file File that have to be read
+     * @return GZIPInputStream if the file is gzip compressed, LZ4FrameInputStream if the file is LZ4 compressed, FileInputStream otherwise
+     * @throws IOException Thrown in case of an IOException while opening the file.
+     */
+    public static InputStream openInputStream(File file) throws IOException {
+        boolean gzipCompressed = isGzipCompressed(file);
+        boolean lz4Compressed = !gzipCompressed && isLz4Compressed(file);
+        FileInputStream fileInputStream = new FileInputStream(file);
+        if (gzipCompressed) {
+            return new GZIPInputStream(fileInputStream, COMPRESSED_BUFFER_SIZE);
+        } else if (lz4Compressed) {
+            return new LZ4FrameInputStream(new BufferedInputStream(fileInputStream, COMPRESSED_BUFFER_SIZE));
+        } else {
+            return fileInputStream;
+        }
+    }
+
+    /**
+     * Wraps an OutputStream such that the written content is gzip compressed.
+     *
+     * @param out OutputStream
+     * @return GZIPOutputStream
+     * @throws IOException Thrown in case of an IOException while writing the gzip header.
+     */
+    public static OutputStream wrapGzipOutputStream(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, COMPRESSED_BUFFER_SIZE);
+    }
+
+    /**
+     * Wraps an OutputStream such that the written content is LZ4 compressed (LZ4 frame format).
+     *
+     * @param out OutputStream
+     * @return LZ4FrameOutputStream
+     * @throws IOException Thrown in case of an IOException while writing the frame header.
+     */
+    public static OutputStream wrapLz4OutputStream(OutputStream out) throws IOException {
+        return new LZ4FrameOutputStream(out);
+    }
+}
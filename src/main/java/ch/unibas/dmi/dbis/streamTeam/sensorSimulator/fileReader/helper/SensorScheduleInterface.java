@@ -0,0 +1,69 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+/**
+ * Interface for schedules which order sensor indices by the timestamp of their next data stream element.
+ * Each sensor index can be contained at most once in the schedule.
+ */
+public interface SensorScheduleInterface {
+
+    /**
+     * Checks if the schedule is empty.
+     *
+     * @return True if the schedule is empty
+     */
+    boolean isEmpty();
+
+    /**
+     * Adds a sensor index with the timestamp of its next data stream element to the schedule.
+     *
+     * @param sensorIndex Sensor index
+     * @param timestamp   Timestamp of the next data stream element of the sensor
+     */
+    void add(int sensorIndex, long timestamp);
+
+    /**
+     * Returns the sensor index with the smallest timestamp without removing it.
+     *
+     * @return Sensor index with the smallest timestamp
+     */
+    int peekSensorIndex();
+
+    /**
+     * Returns the smallest timestamp in the schedule.
+     *
+     * @return Smallest timestamp or Long.MAX_VALUE if the schedule is empty
+     */
+    long peekTimestamp();
+
+    /**
+     * Replaces the timestamp of the sensor index with the smallest timestamp.
+     *
+     * @param timestamp New timestamp of the sensor index with the smallest timestamp
+     */
+    void updateTopTimestamp(long timestamp);
+
+    /**
+     * Removes the sensor index with the smallest timestamp from the schedule.
+     *
+     * @return Removed sensor index
+     */
+    int removeTop();
+}
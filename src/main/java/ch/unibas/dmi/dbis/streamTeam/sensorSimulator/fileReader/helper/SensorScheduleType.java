@@ -0,0 +1,57 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+
+import java.util.Properties;
+
+/**
+ * SensorSchedule types.
+ */
+public enum SensorScheduleType {
+    /**
+     * SensorTimestampMinHeap.
+     */
+    HEAP {
+        @Override
+        public SensorScheduleInterface getSensorSchedule(Properties properties, int capacity) {
+            return new SensorTimestampMinHeap(capacity);
+        }
+    },
+    /**
+     * SensorTimingWheel.
+     */
+    TIMING_WHEEL {
+        @Override
+        public SensorScheduleInterface getSensorSchedule(Properties properties, int capacity) {
+            int numSlots = PropertyReadHelper.readIntOrDie(properties, "fileReader.match.timingWheel.numSlots");
+            return new SensorTimingWheel(capacity, numSlots);
+        }
+    };
+
+    /**
+     * Returns a SensorScheduleInterface instance.
+     *
+     * @param properties Properties
+     * @param capacity   Maximal number of sensor indices in the schedule
+     * @return SensorScheduleInterface instance
+     */
+    public abstract SensorScheduleInterface getSensorSchedule(Properties properties, int capacity);
+}
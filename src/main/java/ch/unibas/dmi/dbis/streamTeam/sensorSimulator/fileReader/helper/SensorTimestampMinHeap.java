@@ -0,0 +1,178 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+/**
+ * A SensorScheduleInterface implementation based on a binary min-heap over primitive arrays which orders sensor indices by the timestamp of their next data stream element.
+ * Each sensor index can be contained at most once in the heap.
+ */
+public class SensorTimestampMinHeap implements SensorScheduleInterface {
+
+    /**
+     * Sensor indices in heap order
+     */
+    private final int[] sensorIndices;
+
+    /**
+     * Timestamps in heap order (timestamps[i] belongs to sensorIndices[i])
+     */
+    private final long[] timestamps;
+
+    /**
+     * Number of sensor indices in the heap
+     */
+    private int size;
+
+    /**
+     * SensorTimestampMinHeap constructor.
+     *
+     * @param capacity Maximal number of sensor indices in the heap
+     */
+    public SensorTimestampMinHeap(int capacity) {
+        this.sensorIndices = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Checks if the heap is empty.
+     *
+     * @return True if the heap is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Adds a sensor index with the timestamp of its next data stream element to the heap.
+     *
+     * @param sensorIndex Sensor index
+     * @param timestamp   Timestamp of the next data stream element of the sensor
+     */
+    @Override
+    public void add(int sensorIndex, long timestamp) {
+        if (this.size == this.sensorIndices.length) {
+            throw new IllegalStateException("The heap is full.");
+        }
+        this.sensorIndices[this.size] = sensorIndex;
+        this.timestamps[this.size] = timestamp;
+        siftUp(this.size);
+        this.size++;
+    }
+
+    /**
+     * Returns the sensor index with the smallest timestamp without removing it.
+     *
+     * @return Sensor index with the smallest timestamp
+     */
+    @Override
+    public int peekSensorIndex() {
+        return this.sensorIndices[0];
+    }
+
+    /**
+     * Returns the smallest timestamp in the heap.
+     *
+     * @return Smallest timestamp or Long.MAX_VALUE if the heap is empty
+     */
+    @Override
+    public long peekTimestamp() {
+        if (this.size == 0) {
+            return Long.MAX_VALUE;
+        } else {
+            return this.timestamps[0];
+        }
+    }
+
+    /**
+     * Replaces the timestamp of the sensor index with the smallest timestamp and restores the heap order.
+     *
+     * @param timestamp New timestamp of the sensor index with the smallest timestamp
+     */
+    @Override
+    public void updateTopTimestamp(long timestamp) {
+        this.timestamps[0] = timestamp;
+        siftDown(0);
+    }
+
+    /**
+     * Removes the sensor index with the smallest timestamp from the heap.
+     *
+     * @return Removed sensor index
+     */
+    @Override
+    public int removeTop() {
+        int res = this.sensorIndices[0];
+        this.size--;
+        if (this.size > 0) {
+            this.sensorIndices[0] = this.sensorIndices[this.size];
+            this.timestamps[0] = this.timestamps[this.size];
+            siftDown(0);
+        }
+        return res;
+    }
+
+    /**
+     * Moves the entry at the given position up until the heap order is restored.
+     *
+     * @param position Position in the heap
+     */
+    private void siftUp(int position) {
+        int sensorIndex = this.sensorIndices[position];
+        long timestamp = this.timestamps[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (this.timestamps[parent] <= timestamp) {
+                break;
+            }
+            this.sensorIndices[position] = this.sensorIndices[parent];
+            this.timestamps[position] = this.timestamps[parent];
+            position = parent;
+        }
+        this.sensorIndices[position] = sensorIndex;
+        this.timestamps[position] = timestamp;
+    }
+
+    /**
+     * Moves the entry at the given position down until the heap order is restored.
+     *
+     * @param position Position in the heap
+     */
+    private void siftDown(int position) {
+        int sensorIndex = this.sensorIndices[position];
+        long timestamp = this.timestamps[position];
+        int half = this.size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < this.size && this.timestamps[right] < this.timestamps[child]) {
+                child = right;
+            }
+            if (timestamp <= this.timestamps[child]) {
+                break;
+            }
+            this.sensorIndices[position] = this.sensorIndices[child];
+            this.timestamps[position] = this.timestamps[child];
+            position = child;
+        }
+        this.sensorIndices[position] = sensorIndex;
+        this.timestamps[position] = timestamp;
+    }
+}
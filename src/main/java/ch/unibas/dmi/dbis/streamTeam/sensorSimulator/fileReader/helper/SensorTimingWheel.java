@@ -0,0 +1,257 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+import java.util.Arrays;
+
+/**
+ * A SensorScheduleInterface implementation based on a hashed timing wheel over primitive arrays.
+ * Every slot of the wheel covers a single match millisecond (timestamp & (numSlots - 1)) and stores the sensor indices whose next data stream element is due at a timestamp which is mapped to this slot in a doubly linked list.
+ * The cursor of the wheel only moves forward (unless an earlier timestamp is added), i.e., finding the next due sensor index only inspects the slots between two consecutive due timestamps instead of comparing all sensors.
+ * If no sensor index is due within a whole revolution of the wheel (e.g., during the half-time break), the cursor jumps directly to the smallest timestamp.
+ * Each sensor index can be contained at most once in the timing wheel.
+ */
+public class SensorTimingWheel implements SensorScheduleInterface {
+
+    /**
+     * Marker for the end of a slot list and for an unknown top sensor index
+     */
+    private static final int NONE = -1;
+
+    /**
+     * First sensor index of every slot list
+     */
+    private final int[] slotHeads;
+
+    /**
+     * Mask for mapping a timestamp to its slot (number of slots - 1)
+     */
+    private final long slotMask;
+
+    /**
+     * Next sensor index in the slot list (index = sensor index)
+     */
+    private final int[] next;
+
+    /**
+     * Previous sensor index in the slot list (index = sensor index)
+     */
+    private final int[] previous;
+
+    /**
+     * Timestamp of the next data stream element (index = sensor index)
+     */
+    private final long[] timestamps;
+
+    /**
+     * Reflects if the sensor index is contained in the timing wheel (index = sensor index)
+     */
+    private final boolean[] contained;
+
+    /**
+     * Number of sensor indices in the timing wheel
+     */
+    private int size;
+
+    /**
+     * Timestamp of the cursor (no sensor index in the timing wheel has a smaller timestamp)
+     */
+    private long cursorTimestamp;
+
+    /**
+     * Sensor index with the smallest timestamp (NONE if it has to be searched)
+     */
+    private int topSensorIndex;
+
+    /**
+     * SensorTimingWheel constructor.
+     *
+     * @param capacity Maximal number of sensor indices in the timing wheel (sensor indices have to be smaller than capacity)
+     * @param numSlots Number of slots (rounded up to the next power of two)
+     */
+    public SensorTimingWheel(int capacity, int numSlots) {
+        int numSlotsPowerOfTwo = Integer.highestOneBit(Math.max(1, numSlots - 1)) << 1;
+        this.slotHeads = new int[numSlotsPowerOfTwo];
+        Arrays.fill(this.slotHeads, NONE);
+        this.slotMask = numSlotsPowerOfTwo - 1;
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.contained = new boolean[capacity];
+        this.size = 0;
+        this.cursorTimestamp = Long.MAX_VALUE;
+        this.topSensorIndex = NONE;
+    }
+
+    /**
+     * Checks if the timing wheel is empty.
+     *
+     * @return True if the timing wheel is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Adds a sensor index with the timestamp of its next data stream element to the timing wheel.
+     *
+     * @param sensorIndex Sensor index
+     * @param timestamp   Timestamp of the next data stream element of the sensor
+     */
+    @Override
+    public void add(int sensorIndex, long timestamp) {
+        if (this.contained[sensorIndex]) {
+            throw new IllegalStateException("Sensor index " + sensorIndex + " is already contained in the timing wheel.");
+        }
+        this.contained[sensorIndex] = true;
+        this.size++;
+        link(sensorIndex, timestamp);
+    }
+
+    /**
+     * Returns the sensor index with the smallest timestamp without removing it.
+     *
+     * @return Sensor index with the smallest timestamp
+     */
+    @Override
+    public int peekSensorIndex() {
+        if (this.size == 0) {
+            throw new IllegalStateException("The timing wheel is empty.");
+        }
+        if (this.topSensorIndex == NONE) {
+            findTop();
+        }
+        return this.topSensorIndex;
+    }
+
+    /**
+     * Returns the smallest timestamp in the timing wheel.
+     *
+     * @return Smallest timestamp or Long.MAX_VALUE if the timing wheel is empty
+     */
+    @Override
+    public long peekTimestamp() {
+        if (this.size == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (this.topSensorIndex == NONE) {
+            findTop();
+        }
+        return this.timestamps[this.topSensorIndex];
+    }
+
+    /**
+     * Replaces the timestamp of the sensor index with the smallest timestamp and moves it to the slot of the new timestamp.
+     *
+     * @param timestamp New timestamp of the sensor index with the smallest timestamp
+     */
+    @Override
+    public void updateTopTimestamp(long timestamp) {
+        int sensorIndex = peekSensorIndex();
+        unlink(sensorIndex);
+        link(sensorIndex, timestamp);
+    }
+
+    /**
+     * Removes the sensor index with the smallest timestamp from the timing wheel.
+     *
+     * @return Removed sensor index
+     */
+    @Override
+    public int removeTop() {
+        int sensorIndex = peekSensorIndex();
+        unlink(sensorIndex);
+        this.contained[sensorIndex] = false;
+        this.size--;
+        return sensorIndex;
+    }
+
+    /**
+     * Inserts a sensor index at the head of the slot list of its timestamp.
+     *
+     * @param sensorIndex Sensor index
+     * @param timestamp   Timestamp of the next data stream element of the sensor
+     */
+    private void link(int sensorIndex, long timestamp) {
+        int slot = (int) (timestamp & this.slotMask);
+        int head = this.slotHeads[slot];
+        this.timestamps[sensorIndex] = timestamp;
+        this.previous[sensorIndex] = NONE;
+        this.next[sensorIndex] = head;
+        if (head != NONE) {
+            this.previous[head] = sensorIndex;
+        }
+        this.slotHeads[slot] = sensorIndex;
+
+        if (timestamp < this.cursorTimestamp) {
+            this.cursorTimestamp = timestamp;
+        }
+        this.topSensorIndex = NONE;
+    }
+
+    /**
+     * Removes a sensor index from the slot list of its timestamp.
+     *
+     * @param sensorIndex Sensor index
+     */
+    private void unlink(int sensorIndex) {
+        int previousSensorIndex = this.previous[sensorIndex];
+        int nextSensorIndex = this.next[sensorIndex];
+        if (previousSensorIndex == NONE) {
+            this.slotHeads[(int) (this.timestamps[sensorIndex] & this.slotMask)] = nextSensorIndex;
+        } else {
+            this.next[previousSensorIndex] = nextSensorIndex;
+        }
+        if (nextSensorIndex != NONE) {
+            this.previous[nextSensorIndex] = previousSensorIndex;
+        }
+        this.topSensorIndex = NONE;
+    }
+
+    /**
+     * Moves the cursor forward to the first timestamp at which a sensor index is due and stores this sensor index as top sensor index.
+     * Has to be called only if the timing wheel is not empty.
+     */
+    private void findTop() {
+        while (true) {
+            for (int i = 0; i < this.slotHeads.length; ++i) {
+                long timestamp = this.cursorTimestamp + i;
+                int sensorIndex = this.slotHeads[(int) (timestamp & this.slotMask)];
+                while (sensorIndex != NONE) {
+                    if (this.timestamps[sensorIndex] == timestamp) {
+                        this.cursorTimestamp = timestamp;
+                        this.topSensorIndex = sensorIndex;
+                        return;
+                    }
+                    sensorIndex = this.next[sensorIndex];
+                }
+            }
+
+            // no sensor index is due within a whole revolution: jump to the smallest timestamp
+            long smallestTimestamp = Long.MAX_VALUE;
+            for (int sensorIndex = 0; sensorIndex < this.contained.length; ++sensorIndex) {
+                if (this.contained[sensorIndex] && this.timestamps[sensorIndex] < smallestTimestamp) {
+                    smallestTimestamp = this.timestamps[sensorIndex];
+                }
+            }
+            this.cursorTimestamp = smallestTimestamp;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper;
+
+/**
+ * A pool which returns a canonical String instance for a range of characters without creating an intermediate String if the value is already in the pool.
+ * The pool is not thread-safe.
+ */
+public class StringInternPool {
+
+    /**
+     * Initial capacity of the hash table (has to be a power of two)
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Open addressing hash table storing the pooled strings
+     */
+    private String[] table;
+
+    /**
+     * Number of pooled strings
+     */
+    private int size;
+
+    /**
+     * StringInternPool constructor.
+     */
+    public StringInternPool() {
+        this.table = new String[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the canonical String instance for the characters in the given range.
+     *
+     * @param chars Character sequence
+     * @param start Start index (inclusive)
+     * @param end   End index (exclusive)
+     * @return Canonical String instance
+     */
+    public String intern(CharSequence chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; ++i) {
+            hash = 31 * hash + chars.charAt(i); // same hash function as String.hashCode()
+        }
+
+        int mask = this.table.length - 1;
+        int slot = spread(hash) & mask;
+        String candidate = this.table[slot];
+        while (candidate != null) {
+            if (candidate.hashCode() == hash && contentEquals(candidate, chars, start, end)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+            candidate = this.table[slot];
+        }
+
+        String res = chars.subSequence(start, end).toString().intern();
+        this.table[slot] = res;
+        this.size++;
+        if (2 * this.size > this.table.length) {
+            resize();
+        }
+        return res;
+    }
+
+    /**
+     * Checks if a string contains exactly the characters in the given range.
+     *
+     * @param string String
+     * @param chars  Character sequence
+     * @param start  Start index (inclusive)
+     * @param end    End index (exclusive)
+     * @return True if the string contains exactly the characters in the given range
+     */
+    private static boolean contentEquals(String string, CharSequence chars, int start, int end) {
+        if (string.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; ++i) {
+            if (string.charAt(i - start) != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spreads the higher bits of the hash to the lower bits.
+     *
+     * @param hash Hash
+     * @return Spread hash
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Doubles the size of the hash table.
+     */
+    private void resize() {
+        String[] oldTable = this.table;
+        this.table = new String[oldTable.length * 2];
+        int mask = this.table.length - 1;
+        for (String string : oldTable) {
+            if (string != null) {
+                int slot = spread(string.hashCode()) & mask;
+                while (this.table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                this.table[slot] = string;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.AbstractImmutableDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.MatchMetadataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Helper class for generating the matchMetadata stream element which the match announcer sends before the simulation starts.
+ */
+public class MatchMetadataHelper {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MatchMetadataHelper.class);
+
+    /**
+     * Sender which writes the matchMetadata stream element in the format of a stream writer.
+     */
+    public interface MatchMetadataSender {
+
+        /**
+         * Sends the matchMetadata stream element.
+         *
+         * @param streamName          Stream name of the matchMetadata stream element
+         * @param key                 Key of the matchMetadata stream element
+         * @param generationTimestamp Generation timestamp (match start timestamp in ms)
+         * @param content             Serialized matchMetadata stream element
+         * @throws IOException Thrown in case of an IOException while sending the matchMetadata stream element.
+         */
+        void send(String streamName, String key, long generationTimestamp, byte[] content) throws IOException;
+    }
+
+    /**
+     * Generates the matchMetadata stream element and sends it via the given sender if this simulator is the match announcer (streamWriter.isMatchAnnouncer).
+     *
+     * @param properties Properties
+     * @param sender     Sender which writes the matchMetadata stream element in the format of the stream writer
+     * @return True if the matchMetadata stream element has been sent
+     * @throws IOException Thrown in case of an IOException while sending the matchMetadata stream element.
+     */
+    public static boolean sendMatchMetadataIfMatchAnnouncer(Properties properties, MatchMetadataSender sender) throws IOException {
+        boolean isMatchAnnouncer = PropertyReadHelper.readBooleanOrDie(properties, "streamWriter.isMatchAnnouncer");
+        if (!isMatchAnnouncer) {
+            return false;
+        }
+        long matchStartTimestampInMs = PropertyReadHelper.readLongOrDie(properties, "match.time.startTs");
+        try {
+            MatchMetadataStreamElement matchMetadataStreamElement = generateMatchMetadataStreamElement(properties);
+            sender.send(matchMetadataStreamElement.getStreamName(), matchMetadataStreamElement.getKey(), matchStartTimestampInMs, matchMetadataStreamElement.getContentAsByteArray());
+            logger.info("Sent matchMetadata stream element.");
+            return true;
+        } catch (AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement e) {
+            logger.error("Error during generating matchMetadata stream element: ", e);
+            return false;
+        }
+    }
+
+    /**
+     * Generates the matchMetadata stream element from the match properties.
+     *
+     * @param properties Properties
+     * @return matchMetadata stream element
+     * @throws AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement Thrown if the matchMetadata stream element could not be generated
+     */
+    public static MatchMetadataStreamElement generateMatchMetadataStreamElement(Properties properties) throws AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement {
+        String matchId = PropertyReadHelper.readStringOrDie(properties, "match.id");
+        long matchStartTimestampInMs = PropertyReadHelper.readLongOrDie(properties, "match.time.startTs");
+        String sport = PropertyReadHelper.readStringOrDie(properties, "match.sport");
+        double fieldLength = PropertyReadHelper.readDoubleOrDie(properties, "match.fieldLength");
+        double fieldWidth = PropertyReadHelper.readDoubleOrDie(properties, "match.fieldWidth");
+        boolean mirroredX = PropertyReadHelper.readBooleanOrDie(properties, "match.mirroredX");
+        boolean mirroredY = PropertyReadHelper.readBooleanOrDie(properties, "match.mirroredY");
+        String areaInfos = PropertyReadHelper.readStringOrDie(properties, "match.areaInfos");
+        String competition = PropertyReadHelper.readStringOrDie(properties, "match.competition");
+        String venue = PropertyReadHelper.readStringOrDie(properties, "match.venue");
+        String objectRenameMap = PropertyReadHelper.readStringOrDie(properties, "match.objectRenameMap");
+        String teamRenameMap = PropertyReadHelper.readStringOrDie(properties, "match.teamRenameMap");
+        String videoPath = PropertyReadHelper.readStringOrDie(properties, "match.video.path");
+        int videoOffset = PropertyReadHelper.readIntOrDie(properties, "match.video.offset");
+        String teamColors = PropertyReadHelper.readStringOrDie(properties, "match.teamColors");
+
+        long matchStartUnixTs = System.currentTimeMillis();
+
+        return MatchMetadataStreamElement.generateMatchMetadataStreamElement(matchId, matchStartTimestampInMs, matchStartTimestampInMs, sport, fieldLength, fieldWidth, mirroredX, mirroredY, areaInfos, matchStartUnixTs, competition, venue, objectRenameMap, teamRenameMap, videoPath, videoOffset, teamColors);
+    }
+}
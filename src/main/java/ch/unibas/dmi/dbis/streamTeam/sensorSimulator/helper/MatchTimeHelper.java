@@ -38,5 +38,20 @@ public class MatchTimeHelper {
         return (long) (matchStartTimestampInMs + machineDiff * simulationSpeedup);
     }
 
+    /**
+     * Calculates the current soccer match timestamp (in ns) from the timestamp (in ns) the time provider returns.
+     *
+     * @param currentMachineTimestampInNs              Current machine timestamp (in ns) returned by the time provider
+     * @param machineTimestampWhenStartingTheMatchInNs Machine timestamp (in ns) returned by the time provider when simulation starts
+     * @param matchStartTimestampInMs                  Match timestamp (in ms) when the match started
+     * @param simulationSpeedup                        Speedup multiplier for the simulation
+     * @return Current soccer match timestamp (in ns)
+     */
+    public static long generateMatchTimestampInNs(long currentMachineTimestampInNs, long machineTimestampWhenStartingTheMatchInNs, long matchStartTimestampInMs, double simulationSpeedup) {
+        long machineDiffInNs = currentMachineTimestampInNs - machineTimestampWhenStartingTheMatchInNs;
+
+        return matchStartTimestampInMs * 1_000_000L + (long) Math.floor(machineDiffInNs * simulationSpeedup);
+    }
+
 
 }
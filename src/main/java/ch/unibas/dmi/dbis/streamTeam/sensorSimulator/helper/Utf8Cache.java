@@ -0,0 +1,57 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache for the UTF-8 encodings of the topics (stream names) and keys which the stream writers put in front of every record.
+ * There are only a few distinct topics and keys per simulator, i.e., every string is encoded only once.
+ * The cache is not thread-safe.
+ */
+public class Utf8Cache {
+
+    /**
+     * UTF-8 encoding of every string which has been encoded
+     */
+    private final Map<String, byte[]> encodings;
+
+    /**
+     * Utf8Cache constructor.
+     */
+    public Utf8Cache() {
+        this.encodings = new HashMap<>();
+    }
+
+    /**
+     * Returns the (cached) UTF-8 encoding of a string.
+     *
+     * @param string String (e.g., topic or key)
+     * @return UTF-8 encoding
+     */
+    public byte[] encode(String string) {
+        byte[] bytes = this.encodings.get(string);
+        if (bytes == null) {
+            bytes = string.getBytes(StandardCharsets.UTF_8);
+            this.encodings.put(string, bytes);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.main;
+
+/**
+ * Thrown to indicate that the TimedRawPositionSensorDataStreamElementReaderInterface implementation (or the pre-serialization of its first data stream elements) could not have been initialized.
+ */
+public class ReaderInitializationException extends Exception {
+
+    /**
+     * ReaderInitializationException constructor.
+     *
+     * @param message Reason why the reader could not have been initialized
+     * @param cause   Exception which has been thrown during the initialization
+     */
+    public ReaderInitializationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
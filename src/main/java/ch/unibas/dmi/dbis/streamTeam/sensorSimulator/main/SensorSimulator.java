@@ -19,10 +19,22 @@
 package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.main;
 
 import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.MatchRawPositionSensorDataStreamElementReader;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.TimedRawPositionSensorDataStreamElementReader;
-import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.MatchTimeHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.TimedRawPositionSensorDataStreamElementReaderInterface;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.ErrorCode;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.ShutdownHelper;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing.CatchUpController;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing.CatchUpPolicyType;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing.CatchUpTargetInterface;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing.DeadlinePacer;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing.WaitStrategyInterface;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing.WaitStrategyType;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier.StartBarrierInterface;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier.StartBarrierTimeoutException;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier.StartBarrierType;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter.SerializedDataStreamElementArena;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter.StreamWriterInitializationException;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter.StreamWriterInterface;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter.StreamWriterType;
@@ -35,9 +47,11 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main simulation class which reads data stream elements from the sensor data file and generates the sensor data stream w.r.t. the current match time.
+ * In match mode (i.e., if the sensor data file parameter points to a match directory) the sensor data files of all sensors of the match are read and sent by a single SensorSimulator.
  */
 public class SensorSimulator {
 
@@ -46,6 +60,11 @@ public class SensorSimulator {
      */
     private static final Logger logger = LoggerFactory.getLogger(SensorSimulator.class);
 
+    /**
+     * Minimal number of free bytes in the arena before the rawPositionSensorData stream elements of the next timestamp are pre-serialized (low-water mark of the SerializedDataStreamElementArenaFiller)
+     */
+    private static final int PRE_SERIALIZATION_HEADROOM_IN_BYTES = 65536;
+
     /**
      * Properties
      */
@@ -57,9 +76,34 @@ public class SensorSimulator {
     private TimeProviderInterface timeProvider;
 
     /**
-     * The TimedRawPositionSensorDataStreamElementReader instance
+     * The TimedRawPositionSensorDataStreamElementReaderInterface instance
+     */
+    private TimedRawPositionSensorDataStreamElementReaderInterface timedRawPositionSensorDataStreamElementReader;
+
+    /**
+     * Strategy for waiting until a deadline (start of the simulation and next due data stream element)
+     */
+    private WaitStrategyInterface waitStrategy;
+
+    /**
+     * Thread which initializes the reader (and fills the arena) while the stream writer is initialized (null before the start)
+     */
+    private Thread readerInitializationThread;
+
+    /**
+     * Exception which has been thrown by the readerInitializationThread (null if the reader has been initialized, only read after the thread has been joined)
      */
-    private TimedRawPositionSensorDataStreamElementReader timedRawPositionSensorDataStreamElementReader;
+    private Throwable readerInitializationException;
+
+    /**
+     * Arena storing the pre-serialized rawPositionSensorData stream elements (null if pre-serialization is disabled)
+     */
+    private SerializedDataStreamElementArena serializedDataStreamElementArena;
+
+    /**
+     * Background thread which serializes the upcoming rawPositionSensorData stream elements into the serializedDataStreamElementArena (null if pre-serialization is disabled)
+     */
+    private SerializedDataStreamElementArenaFiller serializedDataStreamElementArenaFiller;
 
     /**
      * SensorSimulator constructor.
@@ -68,6 +112,11 @@ public class SensorSimulator {
      */
     public SensorSimulator(Properties properties) {
         this.properties = properties;
+        this.timedRawPositionSensorDataStreamElementReader = null;
+        this.serializedDataStreamElementArena = null;
+        this.serializedDataStreamElementArenaFiller = null;
+        this.readerInitializationThread = null;
+        this.readerInitializationException = null;
     }
 
     /**
@@ -75,62 +124,103 @@ public class SensorSimulator {
      */
     public void start() {
         logger.info("Starting Sensor Simulator...");
+        long startupStartNanoTime = System.nanoTime();
 
         try {
+            this.serializedDataStreamElementArena = createSerializedDataStreamElementArena();
+
+            String waitStrategyTypeString = PropertyReadHelper.readStringOrDie(this.properties, "simulation.waitStrategy");
+            WaitStrategyType waitStrategyType = WaitStrategyType.valueOf(waitStrategyTypeString.toUpperCase().trim());
+            this.waitStrategy = waitStrategyType.getWaitStrategy(this.properties);
+
             String timeProviderTypeString = PropertyReadHelper.readStringOrDie(this.properties, "timeProvider.type");
             TimeProviderType timeProviderType = TimeProviderType.valueOf(timeProviderTypeString.toUpperCase().trim());
             this.timeProvider = timeProviderType.getTimeProvider(this.properties);
 
-            initializeTimeProvider();
-            initializeTimedDataStreamElementReader();
+            initializeTimeProvider(); // synchronizes in the background (CLUSTER) while the reader and the writer are initialized
+
+            this.readerInitializationThread = new Thread(() -> {
+                try {
+                    initializeTimedDataStreamElementReader();
+                    startSerializedDataStreamElementArenaFiller();
+                } catch (Throwable e) { // e.g., an IllegalArgumentException for a wrong property or an IOException while reading the sensor data files
+                    this.readerInitializationException = e;
+                }
+            }, "readerInitialization");
+            this.readerInitializationThread.start();
 
             String streamWriterTypeString = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.type");
             StreamWriterType streamWriterType = StreamWriterType.valueOf(streamWriterTypeString.toUpperCase().trim());
             StreamWriterInterface streamWriter = streamWriterType.getStreamWriter(this.properties);
 
             streamWriter.initialize();
-            ShutdownHelper.addCloseable(streamWriter);
+            logger.info("Stream Writer is ready after {} ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startupStartNanoTime));
 
+            waitForReaderInitialization();
+            if (this.readerInitializationException != null) {
+                streamWriter.close();
+                throw new ReaderInitializationException("The TimedRawPositionSensorDataStreamElementReader could not have been initialized.", this.readerInitializationException);
+            }
+            ShutdownHelper.addCloseable(streamWriter); // after the reader has been added such that the closeables are removed in the correct order
             waitForTimeProvider();
-            waitForDesiredMachineTimestamp();
-
-            logger.info("Starting Simulation...");
-            long actualMatchStartingMachineTimestampInMs = this.timeProvider.getTimeInMs();
-            logger.debug("Starting machine time = {}", actualMatchStartingMachineTimestampInMs);
+            logger.info("Sensor Simulator is ready after {} ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startupStartNanoTime));
 
-            long currentMachineTimestampInMs;
-            long currentMatchTimestampInMs = 0;
+            String startBarrierTypeString = PropertyReadHelper.readStringOrDie(this.properties, "startBarrier.type");
+            StartBarrierType startBarrierType = StartBarrierType.valueOf(startBarrierTypeString.toUpperCase().trim());
+            StartBarrierInterface startBarrier = startBarrierType.getStartBarrier(this.properties, this.timeProvider);
+            ShutdownHelper.addCloseable(startBarrier);
+            long earliestStartTimeInNs = joinStartBarrier(startBarrier);
 
             long matchStartTimestampInMs = PropertyReadHelper.readLongOrDie(this.properties, "match.time.startTs");
             long matchEndTimestampInMs = PropertyReadHelper.readLongOrDie(this.properties, "match.time.endTs");
             long dataStreamElementSendIntervalInMs = PropertyReadHelper.readLongOrDie(this.properties, "simulation.dataStreamElementSendIntervalInMs");
             double simulationSpeedup = PropertyReadHelper.readDoubleOrDie(this.properties, "simulation.speedup");
+            DeadlinePacer pacer = new DeadlinePacer(this.timeProvider, matchStartTimestampInMs, simulationSpeedup, dataStreamElementSendIntervalInMs, this.waitStrategy);
+
+            CatchUpController catchUpController = createCatchUpController();
+            CatchUpTargetInterface catchUpTarget = (this.serializedDataStreamElementArena == null) ? this.timedRawPositionSensorDataStreamElementReader : this.serializedDataStreamElementArena;
+
+            pacer.start(determineSimulationStartTimeInNs(earliestStartTimeInNs)); // the first wait of the main loop waits for the simulation start
+            logger.info("Starting Simulation...");
+
+            long currentMatchTimestampInMs = matchStartTimestampInMs;
 
             // BEGIN MAIN SIMULATION LOOP
             while (currentMatchTimestampInMs <= matchEndTimestampInMs) {
+                long nextDueMatchTimestampInMs = Math.min(peekNextGenerationTimestamp(), matchEndTimestampInMs + 1);
+                currentMatchTimestampInMs = pacer.waitUntilMatchTimestamp(nextDueMatchTimestampInMs);
                 try {
-                    Thread.sleep(dataStreamElementSendIntervalInMs);
-                } catch (InterruptedException e) {
-                    logger.error("Caught exception.", e);
-                }
-
-                currentMachineTimestampInMs = this.timeProvider.getTimeInMs();
-                currentMatchTimestampInMs = MatchTimeHelper.generateMatchTimestamp(currentMachineTimestampInMs, actualMatchStartingMachineTimestampInMs, matchStartTimestampInMs, simulationSpeedup);
-                try {
-                    List<RawPositionSensorDataStreamElement> newDataStreamElements = this.timedRawPositionSensorDataStreamElementReader.readDataStreamElementsProducedBeforeOrAt(currentMatchTimestampInMs);
-                    logger.debug("Number of read data stream elements at timestamp {}: {}", currentMatchTimestampInMs, newDataStreamElements.size());
-                    streamWriter.sendDataStreamElements(newDataStreamElements);
+                    currentMatchTimestampInMs = catchUpController.catchUp(catchUpTarget, pacer, nextDueMatchTimestampInMs, currentMatchTimestampInMs, streamWriter.getNumPendingDataStreamElements(), streamWriter.getLastSendBlockedTimeInNs());
+                    if (this.serializedDataStreamElementArena == null) {
+                        List<RawPositionSensorDataStreamElement> newDataStreamElements = this.timedRawPositionSensorDataStreamElementReader.readDataStreamElementsProducedBeforeOrAt(currentMatchTimestampInMs);
+                        logger.debug("Number of read data stream elements at timestamp {}: {}", currentMatchTimestampInMs, newDataStreamElements.size());
+                        streamWriter.sendDataStreamElements(newDataStreamElements);
+                    } else {
+                        streamWriter.sendSerializedDataStreamElements(this.serializedDataStreamElementArena, currentMatchTimestampInMs);
+                    }
                 } catch (IOException e) {
                     logger.error("Caught exception.", e);
                 }
             }
             // END MAIN SIMULATION LOOP
+            if (this.serializedDataStreamElementArenaFiller != null && this.serializedDataStreamElementArenaFiller.getException() != null) {
+                logger.error("Simulation ended before all data stream elements were sent since pre-serializing failed.");
+            }
+            logger.info("Pacing: {} deadlines, mean lateness {} us, max lateness {} us", pacer.getNumDeadlines(), pacer.getMeanLatenessInNs() / 1000, pacer.getMaxLatenessInNs() / 1000);
+            logger.info("Catch-up policy {}: {} catch-ups, {} dropped elements, max lag {} ms, clock delayed by {} ms", new Object[]{catchUpController.getPolicy(), catchUpController.getNumCatchUps(), catchUpController.getNumDroppedDataStreamElements(), catchUpController.getMaxObservedLagInMs(), TimeUnit.NANOSECONDS.toMillis(pacer.getClockDelayInNs())});
+
+            startBarrier.close();
+            ShutdownHelper.removeClosable(startBarrier);
 
             streamWriter.close();
             ShutdownHelper.removeClosable(streamWriter);
 
-        } catch (StreamWriterInitializationException | IllegalArgumentException e) {
+        } catch (StreamWriterInitializationException | ReaderInitializationException | IllegalArgumentException e) {
             logger.error("Caught exception.", e);
+            waitForReaderInitialization(); // before closing the reader
+            if (this.readerInitializationException != null && !(e instanceof ReaderInitializationException)) {
+                logger.error("Caught exception.", this.readerInitializationException);
+            }
         }
 
         closeTimedDataStreamElementReader();
@@ -138,24 +228,68 @@ public class SensorSimulator {
     }
 
     /**
-     * Initializes the TimedRawPositionSensorDataStreamElementReader.
+     * Creates the CatchUpController which applies the configured catch-up policy if the simulation falls behind.
+     *
+     * @return CatchUpController
      */
-    private void initializeTimedDataStreamElementReader() {
-        logger.info("Initializing TimedRawPositionSensorDataStreamElementReader...");
+    private CatchUpController createCatchUpController() {
+        String catchUpPolicyString = PropertyReadHelper.readStringOrDie(this.properties, "simulation.catchUp.policy");
+        CatchUpPolicyType catchUpPolicy = CatchUpPolicyType.valueOf(catchUpPolicyString.toUpperCase().trim());
+        long maxLagInMs = PropertyReadHelper.readLongOrDie(this.properties, "simulation.catchUp.maxLagInMs");
+        long maxPendingDataStreamElements = PropertyReadHelper.readLongOrDie(this.properties, "simulation.catchUp.maxPendingDataStreamElements");
+        long maxStalenessInMs = PropertyReadHelper.readLongOrDie(this.properties, "simulation.catchUp.maxStalenessInMs");
+        String matchId = PropertyReadHelper.readStringOrDie(this.properties, "match.id");
+        logger.info("Using catch-up policy {}.", catchUpPolicy);
+        return new CatchUpController(catchUpPolicy, maxLagInMs, maxPendingDataStreamElements, maxStalenessInMs, matchId);
+    }
+
+    /**
+     * Initializes the TimedRawPositionSensorDataStreamElementReaderInterface implementation (MatchRawPositionSensorDataStreamElementReader in match mode, TimedRawPositionSensorDataStreamElementReader otherwise).
+     * The reader is only assigned (and added to the ShutdownHelper) if it has been initialized.
+     *
+     * @throws IOException Thrown in case of an IOException while initializing the reader.
+     */
+    private void initializeTimedDataStreamElementReader() throws IOException {
         File sensorDataFile = new File(PropertyReadHelper.readStringOrDie(this.properties, "fileReader.sensorDataFile"));
-        this.timedRawPositionSensorDataStreamElementReader = new TimedRawPositionSensorDataStreamElementReader(this.properties, sensorDataFile);
-        try {
-            this.timedRawPositionSensorDataStreamElementReader.initialize();
-            ShutdownHelper.addCloseable(this.timedRawPositionSensorDataStreamElementReader);
-        } catch (IOException e) {
-            logger.error("Caught exception.", e);
+        boolean matchMode = PropertyReadHelper.readBooleanOrDie(this.properties, "fileReader.matchMode");
+        TimedRawPositionSensorDataStreamElementReaderInterface reader;
+        if (matchMode) {
+            logger.info("Initializing MatchRawPositionSensorDataStreamElementReader...");
+            reader = new MatchRawPositionSensorDataStreamElementReader(this.properties, sensorDataFile);
+        } else {
+            logger.info("Initializing TimedRawPositionSensorDataStreamElementReader...");
+            reader = TimedRawPositionSensorDataStreamElementReader.createReader(this.properties, sensorDataFile);
         }
+        reader.initialize();
+        ShutdownHelper.addCloseable(reader);
+        this.timedRawPositionSensorDataStreamElementReader = reader;
     }
 
     /**
-     * Closes the TimedRawPositionSensorDataStreamElementReader.
+     * Waits until the thread which initializes the TimedRawPositionSensorDataStreamElementReaderInterface implementation has terminated (returns immediately if it has already terminated).
+     * Afterwards, readerInitializationException is set if the initialization has failed.
+     */
+    private void waitForReaderInitialization() {
+        if (this.readerInitializationThread != null) {
+            try {
+                this.readerInitializationThread.join();
+            } catch (InterruptedException e) {
+                logger.error("Caught exception.", e);
+            }
+        }
+    }
+
+    /**
+     * Closes the SerializedDataStreamElementArenaFiller (if pre-serialization is enabled) and the TimedRawPositionSensorDataStreamElementReaderInterface implementation.
      */
     private void closeTimedDataStreamElementReader() {
+        if (this.serializedDataStreamElementArenaFiller != null) {
+            this.serializedDataStreamElementArenaFiller.close();
+            ShutdownHelper.removeClosable(this.serializedDataStreamElementArenaFiller);
+        }
+        if (this.timedRawPositionSensorDataStreamElementReader == null) {
+            return; // not initialized
+        }
         logger.info("Closing TimedRawPositionSensorDataStreamElementReader...");
         try {
             this.timedRawPositionSensorDataStreamElementReader.close();
@@ -165,6 +299,55 @@ public class SensorSimulator {
         }
     }
 
+    /**
+     * Returns the generation timestamp (in ms) of the next rawPositionSensorData stream element which has to be sent.
+     *
+     * @return Generation timestamp (in ms) of the next element or Long.MAX_VALUE if all elements have been sent
+     */
+    private long peekNextGenerationTimestamp() {
+        if (this.serializedDataStreamElementArena == null) {
+            return this.timedRawPositionSensorDataStreamElementReader.peekNextGenerationTimestamp();
+        } else {
+            return this.serializedDataStreamElementArena.peekNextGenerationTimestamp();
+        }
+    }
+
+    /**
+     * Creates the arena for the pre-serialized rawPositionSensorData stream elements (if simulation.preSerialization.enabled is set).
+     * Terminates the Sensor Simulator if the arena is smaller than PRE_SERIALIZATION_HEADROOM_IN_BYTES since no element would ever be pre-serialized.
+     *
+     * @return Arena or null if pre-serialization is disabled
+     */
+    private SerializedDataStreamElementArena createSerializedDataStreamElementArena() {
+        boolean preSerializationEnabled = PropertyReadHelper.readBooleanOrDie(this.properties, "simulation.preSerialization.enabled");
+        if (!preSerializationEnabled) {
+            return null;
+        }
+        int arenaSizeInBytes = PropertyReadHelper.readIntOrDie(this.properties, "simulation.preSerialization.arenaSizeInBytes");
+        if (arenaSizeInBytes < PRE_SERIALIZATION_HEADROOM_IN_BYTES) {
+            logger.error("simulation.preSerialization.arenaSizeInBytes has to be at least {} bytes.", PRE_SERIALIZATION_HEADROOM_IN_BYTES);
+            ShutdownHelper.shutdown(ErrorCode.PropertyException);
+        }
+        return new SerializedDataStreamElementArena(arenaSizeInBytes);
+    }
+
+    /**
+     * Fills the arena before the simulation starts and starts the SerializedDataStreamElementArenaFiller which refills it in the background (if pre-serialization is enabled).
+     *
+     * @throws IOException Thrown in case of an IOException while filling the arena.
+     */
+    private void startSerializedDataStreamElementArenaFiller() throws IOException {
+        if (this.serializedDataStreamElementArena != null) {
+            logger.info("Pre-serializing data stream elements...");
+            SerializedDataStreamElementArenaFiller filler = new SerializedDataStreamElementArenaFiller(this.timedRawPositionSensorDataStreamElementReader, this.serializedDataStreamElementArena, PRE_SERIALIZATION_HEADROOM_IN_BYTES);
+            filler.fill();
+            logger.info("Pre-serialized data stream elements (free bytes in the arena: {}).", this.serializedDataStreamElementArena.remaining());
+            filler.start(); // fills the arena while the consumed bytes are released
+            ShutdownHelper.addCloseable(filler); // after the reader such that it is closed before the reader
+            this.serializedDataStreamElementArenaFiller = filler;
+        }
+    }
+
     /**
      * Initializes the TimeProvider.
      */
@@ -178,13 +361,15 @@ public class SensorSimulator {
     }
 
     /**
-     * Waits until the TimeProvider has initialized.
+     * Waits until the TimeProvider has initialized (at most timeProvider.initializationTimeInMs).
      */
     private void waitForTimeProvider() {
         logger.info("Waiting for the Time Provider to initialize...");
         try {
             long timeProviderInitializationTimeInMs = PropertyReadHelper.readLongOrDie(this.properties, "timeProvider.initializationTimeInMs");
-            Thread.sleep(timeProviderInitializationTimeInMs);
+            if (!this.timeProvider.awaitInitialization(timeProviderInitializationTimeInMs)) {
+                logger.error("Time Provider has not initialized within {} ms.", timeProviderInitializationTimeInMs);
+            }
         } catch (InterruptedException e) {
             logger.error("Caught exception.", e);
         }
@@ -200,21 +385,44 @@ public class SensorSimulator {
     }
 
     /**
-     * Waits until the machine has the desired starting timestamp.
+     * Joins the start barrier and waits until all simulator instances of the match have arrived (at most startBarrier.timeoutInMs).
+     *
+     * @param startBarrier Start barrier
+     * @return Agreed time (in ns of the time provider) at which the simulation starts or the current time if the participants could not agree
      */
-    private void waitForDesiredMachineTimestamp() {
-        logger.info("Waiting for desired machine timestamp to pass before starting the simulation...");
-        long checkBeforeStartIntervalInMs = PropertyReadHelper.readLongOrDie(this.properties, "simulation.checkBeforeStartIntervalInMs");
+    private long joinStartBarrier(StartBarrierInterface startBarrier) {
+        logger.info("Waiting for all Sensor Simulators of the match to arrive at the start barrier...");
+        long startBarrierTimeoutInMs = PropertyReadHelper.readLongOrDie(this.properties, "startBarrier.timeoutInMs");
+        try {
+            return startBarrier.await(startBarrierTimeoutInMs);
+        } catch (StartBarrierTimeoutException | IOException | InterruptedException e) {
+            logger.error("Caught exception.", e);
+        }
+        return this.timeProvider.getTimeInNs(); // start without the missing participants
+    }
+
+    /**
+     * Determines the time (in ns) of the time provider at which the simulation starts.
+     * The simulation starts at the desired starting machine timestamp or at the earliest start time if simulation.desiredMatchStartingMachineTimestampInMs is not positive or lies before the earliest start time.
+     *
+     * @param earliestStartTimeInNs Earliest time (in ns of the time provider) at which the simulation can start (i.e., when all participants of the start barrier have arrived)
+     * @return Time (in ns) of the time provider at which the simulation starts
+     */
+    private long determineSimulationStartTimeInNs(long earliestStartTimeInNs) {
         long desiredMachineTimestampForStartingTheMatch = PropertyReadHelper.readLongOrDie(this.properties, "simulation.desiredMatchStartingMachineTimestampInMs");
+        if (desiredMachineTimestampForStartingTheMatch <= 0) {
+            logger.info("No desired machine timestamp for starting the match specified, starting as soon as possible.");
+            return earliestStartTimeInNs;
+        }
+
+        long desiredTimeInNs = TimeUnit.MILLISECONDS.toNanos(desiredMachineTimestampForStartingTheMatch);
         long curTs = this.timeProvider.getTimeInMs();
         logger.info("Desired: {}, Current: {}, Difference: {}", desiredMachineTimestampForStartingTheMatch, curTs, desiredMachineTimestampForStartingTheMatch - curTs);
-        while (this.timeProvider.getTimeInMs() < desiredMachineTimestampForStartingTheMatch) {
-            try {
-                Thread.sleep(checkBeforeStartIntervalInMs);
-            } catch (InterruptedException e) {
-                logger.error("Caught exception.", e);
-            }
+        if (desiredTimeInNs < earliestStartTimeInNs) {
+            logger.error("Missed the desired machine timestamp for starting the match by {} ms, starting as soon as possible.", TimeUnit.NANOSECONDS.toMillis(earliestStartTimeInNs - desiredTimeInNs));
+            return earliestStartTimeInNs;
         }
+        return desiredTimeInNs;
     }
 
 }
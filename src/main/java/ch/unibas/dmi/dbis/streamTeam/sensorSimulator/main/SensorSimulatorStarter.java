@@ -23,6 +23,7 @@ import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.ShutdownHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -47,7 +48,7 @@ public class SensorSimulatorStarter {
         ShutdownHelper.initialize();
 
         if (args.length < 5) {
-            logger.error("Required parameters: <matchConfigFile> <matchId> <sensorDataFile> <startingTimestampInMs> <isMatchAnnouncer>\n");
+            logger.error("Required parameters: <matchConfigFile> <matchId> <sensorDataFile (or sensorDataDirectory in match mode)> <startingTimestampInMs (0 = immediately)> <isMatchAnnouncer> [<startBarrierType> <numStartBarrierParticipants>]\n");
             ShutdownHelper.shutdown(ErrorCode.WrongParameters);
         }
 
@@ -77,8 +78,13 @@ public class SensorSimulatorStarter {
         // Add properties from parameters
         properties.setProperty("match.id", args[1]);
         properties.setProperty("fileReader.sensorDataFile", args[2]);
+        properties.setProperty("fileReader.matchMode", Boolean.toString(new File(args[2]).isDirectory())); // match mode if a directory containing all sensor data files of the match is passed
         properties.setProperty("simulation.desiredMatchStartingMachineTimestampInMs", args[3]);
-        properties.setProperty("streamWriter.kafka.isMatchAnnouncer", args[4]);
+        properties.setProperty("streamWriter.isMatchAnnouncer", args[4]);
+        if (args.length >= 7) {
+            properties.setProperty("startBarrier.type", args[5]);
+            properties.setProperty("startBarrier.numParticipants", args[6]);
+        }
 
         SensorSimulator sensorSimulator = new SensorSimulator(properties);
         sensorSimulator.start();
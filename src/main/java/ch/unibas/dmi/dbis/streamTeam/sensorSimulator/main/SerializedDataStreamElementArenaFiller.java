@@ -0,0 +1,171 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.main;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.TimedRawPositionSensorDataStreamElementReaderInterface;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter.SerializedDataStreamElementArena;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Background thread which serializes the upcoming rawPositionSensorData stream elements into a SerializedDataStreamElementArena such that neither reading nor serializing happens on the pacing thread.
+ * The thread sleeps until the consumer has freed at least lowWaterMarkInBytes bytes and then appends the elements timestamp by timestamp (publishing every timestamp at once) until less than lowWaterMarkInBytes bytes are free.
+ */
+public class SerializedDataStreamElementArenaFiller implements Runnable, Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SerializedDataStreamElementArenaFiller.class);
+
+    /**
+     * Reader providing the rawPositionSensorData stream elements
+     */
+    private final TimedRawPositionSensorDataStreamElementReaderInterface reader;
+
+    /**
+     * Arena into which the rawPositionSensorData stream elements are serialized
+     */
+    private final SerializedDataStreamElementArena arena;
+
+    /**
+     * Minimal number of free bytes in the arena before the elements of the next timestamp are serialized
+     */
+    private final int lowWaterMarkInBytes;
+
+    /**
+     * Consumer which appends rawPositionSensorData stream elements to the arena
+     */
+    private final Consumer<RawPositionSensorDataStreamElement> appender;
+
+    /**
+     * Reflects if the arena has rejected an element since it has been closed (only accessed by the filling thread)
+     */
+    private boolean appendRejected;
+
+    /**
+     * Thread which fills the arena
+     */
+    private final Thread thread;
+
+    /**
+     * Reflects if the thread should continue to fill the arena
+     */
+    private volatile boolean running;
+
+    /**
+     * Exception which has been thrown while reading or serializing the elements (null if there is none)
+     */
+    private volatile Exception exception;
+
+    /**
+     * SerializedDataStreamElementArenaFiller constructor.
+     *
+     * @param reader              Reader providing the rawPositionSensorData stream elements
+     * @param arena               Arena into which the rawPositionSensorData stream elements are serialized
+     * @param lowWaterMarkInBytes Minimal number of free bytes in the arena before the elements of the next timestamp are serialized
+     */
+    public SerializedDataStreamElementArenaFiller(TimedRawPositionSensorDataStreamElementReaderInterface reader, SerializedDataStreamElementArena arena, int lowWaterMarkInBytes) {
+        this.reader = reader;
+        this.arena = arena;
+        this.lowWaterMarkInBytes = lowWaterMarkInBytes;
+        this.appendRejected = false;
+        this.appender = dataStreamElement -> {
+            // The drain cannot be stopped, hence, the remaining elements of the timestamp are taken from the reader without being serialized
+            if (!this.appendRejected && !this.arena.append(dataStreamElement)) {
+                this.appendRejected = true; // arena has been closed
+            }
+        };
+        this.running = true;
+        this.exception = null;
+        this.thread = new Thread(this, "arenaFiller");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Serializes the upcoming elements into the arena until less than lowWaterMarkInBytes bytes are free, all elements are serialized or the arena has been closed.
+     * Called once before the thread is started (e.g., while the SensorSimulator waits for the start of the simulation).
+     *
+     * @return True if all elements have been serialized
+     * @throws IOException Thrown in case of an IOException while reading the sensor data file(s).
+     */
+    public boolean fill() throws IOException {
+        long nextGenerationTimestamp = this.reader.peekNextGenerationTimestamp();
+        while (this.running && !this.appendRejected && nextGenerationTimestamp != Long.MAX_VALUE && this.arena.remaining() >= this.lowWaterMarkInBytes) {
+            this.reader.drainDataStreamElementsProducedBeforeOrAt(nextGenerationTimestamp, this.appender);
+            this.arena.publish();
+            nextGenerationTimestamp = this.reader.peekNextGenerationTimestamp();
+        }
+        return nextGenerationTimestamp == Long.MAX_VALUE;
+    }
+
+    /**
+     * Starts the thread.
+     */
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Fills the arena whenever enough bytes are free until all elements are serialized or the filler is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            boolean allSerialized = fill();
+            while (this.running && !allSerialized && this.arena.awaitFreeBytes(this.lowWaterMarkInBytes)) {
+                allSerialized = fill();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Caught exception while pre-serializing data stream elements.", e);
+            this.exception = e;
+        } finally {
+            this.arena.finish();
+        }
+    }
+
+    /**
+     * Returns the exception which has been thrown while reading or serializing the elements, i.e., which made the simulation end before all elements were sent.
+     *
+     * @return Exception or null if there is none
+     */
+    public Exception getException() {
+        return this.exception;
+    }
+
+    /**
+     * Stops the thread and waits until it has terminated.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        this.arena.close();
+        if (this.thread.isAlive()) {
+            try {
+                this.thread.join();
+            } catch (InterruptedException e) {
+                logger.error("Caught exception.", e);
+            }
+        }
+    }
+}
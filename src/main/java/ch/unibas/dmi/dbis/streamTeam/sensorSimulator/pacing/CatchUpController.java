@@ -0,0 +1,200 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controller which detects if the simulation falls behind and applies the configured CatchUpPolicyType.
+ * The simulation is behind if the current match timestamp lags more than maxLagInMs behind the next due match timestamp (e.g., after a long send call) or if the stream writer reports more than maxPendingDataStreamElements pending elements (backpressure).
+ * Every catch-up is logged to a CSV file (CATCHUP marker) together with the active policy.
+ */
+public class CatchUpController {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CatchUpController.class);
+
+    /**
+     * Catch Up Marker
+     */
+    private static final Marker catchUpMarker = MarkerFactory.getMarker("CATCHUP");
+
+    /**
+     * Active catch-up policy
+     */
+    private final CatchUpPolicyType policy;
+
+    /**
+     * Maximal lag (in match ms) before the simulation is considered to be behind
+     */
+    private final long maxLagInMs;
+
+    /**
+     * Maximal number of pending elements in the stream writer before the simulation is considered to be behind
+     */
+    private final long maxPendingDataStreamElements;
+
+    /**
+     * Maximal age (in match ms) of a due element w.r.t. the current match timestamp before it is dropped (DROP_STALE)
+     */
+    private final long maxStalenessInMs;
+
+    /**
+     * Identifier of the match
+     */
+    private final String matchId;
+
+    /**
+     * Reflects if the simulation has been behind in the last call of catchUp()
+     */
+    private boolean behind;
+
+    /**
+     * Number of calls of catchUp() in which the simulation was behind
+     */
+    private long numCatchUps;
+
+    /**
+     * Total number of dropped elements
+     */
+    private long numDroppedDataStreamElements;
+
+    /**
+     * Maximal lag (in match ms) observed
+     */
+    private long maxObservedLagInMs;
+
+    /**
+     * CatchUpController constructor.
+     *
+     * @param policy                       Active catch-up policy
+     * @param maxLagInMs                   Maximal lag (in match ms) before the simulation is considered to be behind
+     * @param maxPendingDataStreamElements Maximal number of pending elements in the stream writer before the simulation is considered to be behind
+     * @param maxStalenessInMs             Maximal age (in match ms) of a due element w.r.t. the current match timestamp before it is dropped (DROP_STALE)
+     * @param matchId                      Identifier of the match
+     */
+    public CatchUpController(CatchUpPolicyType policy, long maxLagInMs, long maxPendingDataStreamElements, long maxStalenessInMs, String matchId) {
+        this.policy = policy;
+        this.maxLagInMs = maxLagInMs;
+        this.maxPendingDataStreamElements = maxPendingDataStreamElements;
+        this.maxStalenessInMs = maxStalenessInMs;
+        this.matchId = matchId;
+        this.behind = false;
+        this.numCatchUps = 0;
+        this.numDroppedDataStreamElements = 0;
+        this.maxObservedLagInMs = 0;
+    }
+
+    /**
+     * Checks if the simulation is behind and applies the catch-up policy if it is.
+     *
+     * @param target                       Source of the due elements
+     * @param pacer                        Pacer of the simulation
+     * @param nextDueMatchTimestampInMs    Match timestamp (in ms) the pacer waited for
+     * @param currentMatchTimestampInMs    Match timestamp (in ms) returned by the pacer
+     * @param numPendingDataStreamElements Number of pending elements in the stream writer
+     * @param lastSendBlockedTimeInNs      Time (in ns) the last send call blocked the simulation thread
+     * @return Match timestamp (in ms) up to which the due elements have to be sent
+     * @throws IOException Thrown in case of an IOException while dropping elements.
+     */
+    public long catchUp(CatchUpTargetInterface target, DeadlinePacer pacer, long nextDueMatchTimestampInMs, long currentMatchTimestampInMs, long numPendingDataStreamElements, long lastSendBlockedTimeInNs) throws IOException {
+        long lagInMs = currentMatchTimestampInMs - nextDueMatchTimestampInMs;
+        this.maxObservedLagInMs = Math.max(this.maxObservedLagInMs, lagInMs);
+
+        boolean nowBehind = lagInMs > this.maxLagInMs || numPendingDataStreamElements > this.maxPendingDataStreamElements;
+        if (nowBehind != this.behind) {
+            this.behind = nowBehind;
+            if (nowBehind) {
+                logger.info("Simulation is behind at match timestamp {} (lag {} ms, {} pending elements). Catching up with policy {}.", new Object[]{currentMatchTimestampInMs, lagInMs, numPendingDataStreamElements, this.policy});
+            } else {
+                logger.info("Simulation caught up at match timestamp {}.", currentMatchTimestampInMs);
+            }
+        }
+        if (!nowBehind) {
+            return currentMatchTimestampInMs;
+        }
+
+        this.numCatchUps++;
+        int numDroppedElements = 0;
+        long sendUpToMatchTimestampInMs = currentMatchTimestampInMs;
+        switch (this.policy) {
+            case BURST:
+                break;
+            case DROP_STALE:
+                numDroppedElements = target.dropDataStreamElementsProducedBefore(currentMatchTimestampInMs - this.maxStalenessInMs);
+                break;
+            case KEEP_LATEST_PER_OBJECT:
+                numDroppedElements = target.dropAllButLatestDataStreamElementsProducedBeforeOrAt(currentMatchTimestampInMs);
+                break;
+            case SLOW_CLOCK:
+                long lagInNs = pacer.getDeadlineInNs(currentMatchTimestampInMs) - pacer.getDeadlineInNs(nextDueMatchTimestampInMs);
+                pacer.delay(Math.max(lagInNs, lastSendBlockedTimeInNs));
+                sendUpToMatchTimestampInMs = nextDueMatchTimestampInMs;
+                break;
+        }
+        this.numDroppedDataStreamElements += numDroppedElements;
+
+        logger.info(catchUpMarker, "{},{},{},{},{},{},{}", new Object[]{this.matchId, this.policy, currentMatchTimestampInMs, lagInMs, numPendingDataStreamElements, numDroppedElements, TimeUnit.NANOSECONDS.toMillis(pacer.getClockDelayInNs())});
+
+        return sendUpToMatchTimestampInMs;
+    }
+
+    /**
+     * Returns the active catch-up policy.
+     *
+     * @return Active catch-up policy
+     */
+    public CatchUpPolicyType getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * Returns the number of calls of catchUp() in which the simulation was behind.
+     *
+     * @return Number of catch-ups
+     */
+    public long getNumCatchUps() {
+        return this.numCatchUps;
+    }
+
+    /**
+     * Returns the total number of dropped elements.
+     *
+     * @return Number of dropped elements
+     */
+    public long getNumDroppedDataStreamElements() {
+        return this.numDroppedDataStreamElements;
+    }
+
+    /**
+     * Returns the maximal lag (in match ms) observed.
+     *
+     * @return Maximal lag (in match ms)
+     */
+    public long getMaxObservedLagInMs() {
+        return this.maxObservedLagInMs;
+    }
+}
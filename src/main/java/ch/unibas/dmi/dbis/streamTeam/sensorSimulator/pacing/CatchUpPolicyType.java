@@ -0,0 +1,40 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing;
+
+/**
+ * Policies which specify how the simulation catches up if it falls behind the simulation clock.
+ */
+public enum CatchUpPolicyType {
+    /**
+     * Sends all elements which are due in a burst (no element is lost).
+     */
+    BURST,
+    /**
+     * Drops all due elements which are older than simulation.catchUp.maxStalenessInMs w.r.t. the current match timestamp.
+     */
+    DROP_STALE,
+    /**
+     * Drops all due elements except for the latest one of every object.
+     */
+    KEEP_LATEST_PER_OBJECT,
+    /**
+     * Slows down the simulation clock by the lag (or the time the last send call blocked) such that only the next due elements are sent (no element is lost but the match is stretched).
+     */
+    SLOW_CLOCK
+}
@@ -0,0 +1,44 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing;
+
+import java.io.IOException;
+
+/**
+ * Interface for sources of due data stream elements from which the CatchUpController drops elements while the simulation is behind.
+ */
+public interface CatchUpTargetInterface {
+
+    /**
+     * Drops all data stream elements which are measured before a given match timestamp (in ms).
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return Number of dropped data stream elements
+     * @throws IOException Thrown in case of an IOException while reading the sensor data file(s).
+     */
+    int dropDataStreamElementsProducedBefore(long timestamp) throws IOException;
+
+    /**
+     * Drops all data stream elements which are measured before or at a given match timestamp (in ms) except for the latest one of every object.
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return Number of dropped data stream elements
+     * @throws IOException Thrown in case of an IOException while reading the sensor data file(s).
+     */
+    int dropAllButLatestDataStreamElementsProducedBeforeOrAt(long timestamp) throws IOException;
+}
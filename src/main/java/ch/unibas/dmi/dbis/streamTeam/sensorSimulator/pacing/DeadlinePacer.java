@@ -0,0 +1,210 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.MatchTimeHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider.TimeProviderInterface;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pacer which maps match timestamps (in ms) to absolute deadlines (in ns) on the clock of the time provider and waits for them using a WaitStrategyInterface implementation.
+ * Since every deadline is derived from the simulation start and not from the previous wake-up, the time spent for sending the elements and late wake-ups do not accumulate (drift compensation): an overrun only delays the elements which are due during the overrun.
+ * The pacer also collects statistics about how late the simulation thread woke up w.r.t. the deadlines.
+ */
+public class DeadlinePacer {
+
+    /**
+     * Time provider
+     */
+    private final TimeProviderInterface timeProvider;
+
+    /**
+     * Match timestamp (in ms) when the simulation starts
+     */
+    private final long matchStartTimestampInMs;
+
+    /**
+     * Speedup multiplier for the simulation
+     */
+    private final double simulationSpeedup;
+
+    /**
+     * Maximal time (in ns) the simulation thread waits at once
+     */
+    private final long maxWaitTimeInNs;
+
+    /**
+     * Strategy for waiting until a deadline
+     */
+    private final WaitStrategyInterface waitStrategy;
+
+    /**
+     * Time (in ns) returned by the time provider when the simulation started
+     */
+    private long startTimeInNs;
+
+    /**
+     * Number of deadlines the pacer waited for
+     */
+    private long numDeadlines;
+
+    /**
+     * Sum of the lateness (in ns) of all wake-ups
+     */
+    private long latenessSumInNs;
+
+    /**
+     * Maximal lateness (in ns) of a wake-up
+     */
+    private long maxLatenessInNs;
+
+    /**
+     * Total time (in ns) by which the simulation clock has been delayed
+     */
+    private long clockDelayInNs;
+
+    /**
+     * DeadlinePacer constructor.
+     *
+     * @param timeProvider            Time provider
+     * @param matchStartTimestampInMs Match timestamp (in ms) when the simulation starts
+     * @param simulationSpeedup       Speedup multiplier for the simulation
+     * @param maxWaitTimeInMs         Maximal time (in ms) the simulation thread waits at once
+     * @param waitStrategy            Strategy for waiting until a deadline
+     */
+    public DeadlinePacer(TimeProviderInterface timeProvider, long matchStartTimestampInMs, double simulationSpeedup, long maxWaitTimeInMs, WaitStrategyInterface waitStrategy) {
+        this.timeProvider = timeProvider;
+        this.matchStartTimestampInMs = matchStartTimestampInMs;
+        this.simulationSpeedup = simulationSpeedup;
+        this.maxWaitTimeInNs = TimeUnit.MILLISECONDS.toNanos(maxWaitTimeInMs);
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Starts the simulation clock, i.e., the current time of the time provider corresponds to matchStartTimestampInMs.
+     */
+    public void start() {
+        start(this.timeProvider.getTimeInNs());
+    }
+
+    /**
+     * Starts the simulation clock at a given time of the time provider, i.e., the given time (which may lie in the future) corresponds to matchStartTimestampInMs.
+     * Waiting for the first match timestamp then also waits for the start of the simulation.
+     *
+     * @param startTimeInNs Time (in ns) of the time provider which corresponds to matchStartTimestampInMs
+     */
+    public void start(long startTimeInNs) {
+        this.startTimeInNs = startTimeInNs;
+        this.numDeadlines = 0;
+        this.latenessSumInNs = 0;
+        this.maxLatenessInNs = 0;
+        this.clockDelayInNs = 0;
+    }
+
+    /**
+     * Delays the simulation clock, i.e., all deadlines which are computed afterwards are shifted by the given time.
+     *
+     * @param delayInNs Delay (in ns)
+     */
+    public void delay(long delayInNs) {
+        if (delayInNs > 0) {
+            this.startTimeInNs += delayInNs;
+            this.clockDelayInNs += delayInNs;
+        }
+    }
+
+    /**
+     * Returns the total time (in ns) by which the simulation clock has been delayed.
+     *
+     * @return Total clock delay (in ns)
+     */
+    public long getClockDelayInNs() {
+        return this.clockDelayInNs;
+    }
+
+    /**
+     * Returns the time (in ns) of the time provider at which a given match timestamp is due.
+     *
+     * @param matchTimestampInMs Match timestamp (in ms)
+     * @return Deadline (in ns)
+     */
+    public long getDeadlineInNs(long matchTimestampInMs) {
+        return this.startTimeInNs + (long) Math.ceil((matchTimestampInMs - this.matchStartTimestampInMs) * 1_000_000d / this.simulationSpeedup);
+    }
+
+    /**
+     * Returns the current match timestamp (in ms).
+     *
+     * @return Current match timestamp (in ms)
+     */
+    public long getCurrentMatchTimestampInMs() {
+        long currentMatchTimestampInNs = MatchTimeHelper.generateMatchTimestampInNs(this.timeProvider.getTimeInNs(), this.startTimeInNs, this.matchStartTimestampInMs, this.simulationSpeedup);
+        return Math.floorDiv(currentMatchTimestampInNs, 1_000_000L);
+    }
+
+    /**
+     * Waits until the given match timestamp is due and returns the current match timestamp (which is later than the given one in case of an overrun).
+     *
+     * @param matchTimestampInMs Match timestamp (in ms)
+     * @return Current match timestamp (in ms), at least matchTimestampInMs
+     */
+    public long waitUntilMatchTimestamp(long matchTimestampInMs) {
+        long deadlineInNs = getDeadlineInNs(matchTimestampInMs);
+
+        long remainingTimeInNs = deadlineInNs - this.timeProvider.getTimeInNs();
+        while (remainingTimeInNs > 0) {
+            this.waitStrategy.waitUntil(System.nanoTime() + Math.min(remainingTimeInNs, this.maxWaitTimeInNs));
+            remainingTimeInNs = deadlineInNs - this.timeProvider.getTimeInNs(); // re-evaluated since the time provider may be adjusted
+        }
+
+        long latenessInNs = -remainingTimeInNs;
+        this.numDeadlines++;
+        this.latenessSumInNs += latenessInNs;
+        this.maxLatenessInNs = Math.max(this.maxLatenessInNs, latenessInNs);
+
+        return Math.max(getCurrentMatchTimestampInMs(), matchTimestampInMs); // compensates rounding errors
+    }
+
+    /**
+     * Returns the number of deadlines the pacer waited for.
+     *
+     * @return Number of deadlines
+     */
+    public long getNumDeadlines() {
+        return this.numDeadlines;
+    }
+
+    /**
+     * Returns the mean lateness (in ns) of the wake-ups.
+     *
+     * @return Mean lateness (in ns)
+     */
+    public long getMeanLatenessInNs() {
+        return this.numDeadlines == 0 ? 0 : this.latenessSumInNs / this.numDeadlines;
+    }
+
+    /**
+     * Returns the maximal lateness (in ns) of a wake-up.
+     *
+     * @return Maximal lateness (in ns)
+     */
+    public long getMaxLatenessInNs() {
+        return this.maxLatenessInNs;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wait strategy which parks the thread until shortly before the deadline and busy-spins for the remaining time (precise wake-ups while only spinning for spinThresholdInNs per deadline).
+ */
+public class SpinThenParkWaitStrategy implements WaitStrategyInterface {
+
+    /**
+     * Remaining time (in ns) before the deadline below which the thread busy-spins instead of parking
+     */
+    private final long spinThresholdInNs;
+
+    /**
+     * SpinThenParkWaitStrategy constructor.
+     *
+     * @param spinThresholdInNs Remaining time (in ns) before the deadline below which the thread busy-spins instead of parking
+     */
+    public SpinThenParkWaitStrategy(long spinThresholdInNs) {
+        this.spinThresholdInNs = spinThresholdInNs;
+    }
+
+    /**
+     * Parks the thread until spinThresholdInNs before the given deadline and busy-spins until the deadline has passed.
+     *
+     * @param deadlineNanoTime Deadline (System.nanoTime())
+     */
+    @Override
+    public void waitUntil(long deadlineNanoTime) {
+        long remainingTimeInNs = deadlineNanoTime - System.nanoTime();
+        while (remainingTimeInNs > this.spinThresholdInNs) {
+            LockSupport.parkNanos(remainingTimeInNs - this.spinThresholdInNs);
+            remainingTimeInNs = deadlineNanoTime - System.nanoTime();
+        }
+        while (deadlineNanoTime - System.nanoTime() > 0) {
+            // spin
+        }
+    }
+}
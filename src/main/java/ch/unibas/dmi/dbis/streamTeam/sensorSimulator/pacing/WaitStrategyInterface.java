@@ -0,0 +1,33 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing;
+
+/**
+ * Interface for strategies which let the simulation thread wait until a deadline.
+ * The strategies trade CPU usage for wake-up precision.
+ */
+public interface WaitStrategyInterface {
+
+    /**
+     * Waits until the given deadline has passed.
+     *
+     * @param deadlineNanoTime Deadline (System.nanoTime())
+     */
+    void waitUntil(long deadlineNanoTime);
+
+}
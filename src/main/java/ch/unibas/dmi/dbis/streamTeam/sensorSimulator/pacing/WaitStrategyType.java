@@ -0,0 +1,74 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WaitStrategy types.
+ */
+public enum WaitStrategyType {
+    /**
+     * ParkWaitStrategy.
+     */
+    PARK {
+        @Override
+        public WaitStrategyInterface getWaitStrategy(Properties properties) {
+            return new ParkWaitStrategy();
+        }
+    },
+    /**
+     * YieldWaitStrategy.
+     */
+    YIELD {
+        @Override
+        public WaitStrategyInterface getWaitStrategy(Properties properties) {
+            return new YieldWaitStrategy();
+        }
+    },
+    /**
+     * BusySpinWaitStrategy.
+     */
+    BUSY_SPIN {
+        @Override
+        public WaitStrategyInterface getWaitStrategy(Properties properties) {
+            return new BusySpinWaitStrategy();
+        }
+    },
+    /**
+     * SpinThenParkWaitStrategy.
+     */
+    SPIN_THEN_PARK {
+        @Override
+        public WaitStrategyInterface getWaitStrategy(Properties properties) {
+            long spinThresholdInUs = PropertyReadHelper.readLongOrDie(properties, "simulation.waitStrategy.spinThresholdInUs");
+            return new SpinThenParkWaitStrategy(TimeUnit.MICROSECONDS.toNanos(spinThresholdInUs));
+        }
+    };
+
+    /**
+     * Returns a WaitStrategyInterface instance.
+     *
+     * @param properties Properties
+     * @return WaitStrategyInterface instance
+     */
+    public abstract WaitStrategyInterface getWaitStrategy(Properties properties);
+}
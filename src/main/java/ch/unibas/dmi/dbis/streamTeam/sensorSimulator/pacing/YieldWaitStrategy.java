@@ -0,0 +1,36 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing;
+
+/**
+ * Wait strategy which yields the thread until the deadline (keeps the core busy unless other threads are runnable).
+ */
+public class YieldWaitStrategy implements WaitStrategyInterface {
+
+    /**
+     * Yields the thread until the given deadline has passed.
+     *
+     * @param deadlineNanoTime Deadline (System.nanoTime())
+     */
+    @Override
+    public void waitUntil(long deadlineNanoTime) {
+        while (deadlineNanoTime - System.nanoTime() > 0) {
+            Thread.yield();
+        }
+    }
+}
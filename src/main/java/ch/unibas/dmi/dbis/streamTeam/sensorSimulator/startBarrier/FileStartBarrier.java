@@ -0,0 +1,228 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider.TimeProviderInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start barrier implementation for simulator instances on the same machine which coordinate via a shared barrier file.
+ * The barrier file contains the number of arrived participants (int), the number of departed participants (int), the agreed start time (long, in ns, 0 until all participants have arrived) and the creation time of the barrier (long, in ms since the epoch) and is only modified while holding an exclusive file lock.
+ * The last arriving participant sets the start time to its arrival time (plus the start delay), all other participants poll the barrier file until the start time is set.
+ * The last departing participant deletes the barrier file.
+ * A barrier file which has been created more than the timeout ago (e.g., left over by a killed run) is reset by the next arriving participant since all participants of its run have already given up waiting.
+ * The creation time identifies the run such that late departing participants of a reset barrier do not modify the barrier of the next run.
+ */
+public class FileStartBarrier implements StartBarrierInterface {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(FileStartBarrier.class);
+
+    /**
+     * Size of the barrier file in bytes
+     */
+    private static final int BARRIER_FILE_SIZE = 2 * Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * Position of the start time in the barrier file
+     */
+    private static final int START_TIME_POSITION = 2 * Integer.BYTES;
+
+    /**
+     * Position of the creation time in the barrier file
+     */
+    private static final int CREATION_TIME_POSITION = 2 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * Interval (in ms) in which the barrier file is polled while waiting for the other participants
+     */
+    private static final long POLL_INTERVAL_IN_MS = 1;
+
+    /**
+     * Time provider
+     */
+    private final TimeProviderInterface timeProvider;
+
+    /**
+     * Barrier file
+     */
+    private final File barrierFile;
+
+    /**
+     * Number of simulator instances which join the start barrier
+     */
+    private final int numParticipants;
+
+    /**
+     * Time (in ns) between the arrival of the last participant and the start of the simulation
+     */
+    private final long startDelayInNs;
+
+    /**
+     * Buffer for reading and writing the content of the barrier file
+     */
+    private final ByteBuffer content;
+
+    /**
+     * Channel of the barrier file (null if the barrier has not been joined)
+     */
+    private FileChannel channel;
+
+    /**
+     * Creation time (in ms since the epoch) of the barrier which has been joined (identifies the run)
+     */
+    private long joinedCreationTimeInMs;
+
+    /**
+     * FileStartBarrier constructor.
+     *
+     * @param timeProvider    Time provider
+     * @param barrierFile     Barrier file
+     * @param numParticipants Number of simulator instances which join the start barrier
+     * @param startDelayInMs  Time (in ms) between the arrival of the last participant and the start of the simulation
+     */
+    public FileStartBarrier(TimeProviderInterface timeProvider, File barrierFile, int numParticipants, long startDelayInMs) {
+        this.timeProvider = timeProvider;
+        this.barrierFile = barrierFile;
+        this.numParticipants = numParticipants;
+        this.startDelayInNs = TimeUnit.MILLISECONDS.toNanos(startDelayInMs);
+        this.content = ByteBuffer.allocate(BARRIER_FILE_SIZE);
+        this.channel = null;
+    }
+
+    /**
+     * Joins the start barrier and waits until all participants have arrived.
+     *
+     * @param timeoutInMs Maximal time (in ms) to wait
+     * @return Agreed time (in ns of the time provider) at which the simulation starts
+     * @throws StartBarrierTimeoutException Thrown if not all participants have arrived within the timeout.
+     * @throws IOException                  Thrown in case of an IOException while accessing the barrier file.
+     * @throws InterruptedException         Thrown if the thread is interrupted while waiting.
+     */
+    @Override
+    public long await(long timeoutInMs) throws StartBarrierTimeoutException, IOException, InterruptedException {
+        long timeoutNanoTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+        this.channel = FileChannel.open(this.barrierFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        int numArrived;
+        try (FileLock ignored = this.channel.lock()) {
+            readContent();
+            long currentTimeInMs = System.currentTimeMillis();
+            long creationTimeInMs = this.content.getLong(CREATION_TIME_POSITION);
+            if (creationTimeInMs == 0 || currentTimeInMs - creationTimeInMs > timeoutInMs) {
+                if (this.content.getInt(0) > 0) {
+                    logger.info("Resetting stale start barrier {} ({} participants arrived {} ms ago).", new Object[]{this.barrierFile, this.content.getInt(0), currentTimeInMs - creationTimeInMs});
+                }
+                this.content.clear();
+                while (this.content.hasRemaining()) {
+                    this.content.put((byte) 0);
+                }
+                this.content.putLong(CREATION_TIME_POSITION, currentTimeInMs);
+            }
+            this.joinedCreationTimeInMs = this.content.getLong(CREATION_TIME_POSITION);
+
+            numArrived = this.content.getInt(0) + 1;
+            this.content.putInt(0, numArrived);
+            if (numArrived >= this.numParticipants && this.content.getLong(START_TIME_POSITION) == 0) {
+                this.content.putLong(START_TIME_POSITION, this.timeProvider.getTimeInNs() + this.startDelayInNs);
+            }
+            writeContent();
+        }
+        logger.info("Joined start barrier {} as participant {} of {}.", this.barrierFile, numArrived, this.numParticipants);
+
+        while (true) {
+            try (FileLock ignored = this.channel.lock(0, Long.MAX_VALUE, true)) {
+                readContent();
+            }
+            long startTimeInNs = this.content.getLong(START_TIME_POSITION);
+            if (startTimeInNs != 0) {
+                return startTimeInNs;
+            }
+            if (System.nanoTime() - timeoutNanoTime > 0) {
+                throw new StartBarrierTimeoutException(this.content.getInt(0) + " of " + this.numParticipants + " participants have arrived at start barrier " + this.barrierFile + ".");
+            }
+            Thread.sleep(POLL_INTERVAL_IN_MS);
+        }
+    }
+
+    /**
+     * Reads the content of the barrier file into the buffer (a new barrier file is read as zeros).
+     *
+     * @throws IOException Thrown in case of an IOException while reading the barrier file.
+     */
+    private void readContent() throws IOException {
+        this.content.clear();
+        while (this.content.hasRemaining() && this.channel.read(this.content, this.content.position()) >= 0) {
+            // read until the buffer is full or the end of the barrier file is reached
+        }
+        while (this.content.hasRemaining()) {
+            this.content.put((byte) 0);
+        }
+    }
+
+    /**
+     * Writes the buffer to the barrier file.
+     *
+     * @throws IOException Thrown in case of an IOException while writing the barrier file.
+     */
+    private void writeContent() throws IOException {
+        this.content.clear();
+        while (this.content.hasRemaining()) {
+            this.channel.write(this.content, this.content.position());
+        }
+    }
+
+    /**
+     * Leaves the start barrier and deletes the barrier file if all participants have left (does not modify a barrier which has been reset for the next run).
+     */
+    @Override
+    public void close() {
+        if (this.channel != null) {
+            boolean lastParticipant = false;
+            try {
+                try (FileLock ignored = this.channel.lock()) {
+                    readContent();
+                    if (this.content.getLong(CREATION_TIME_POSITION) == this.joinedCreationTimeInMs) { // otherwise the barrier has been reset for the next run
+                        int numDeparted = this.content.getInt(Integer.BYTES) + 1;
+                        this.content.putInt(Integer.BYTES, numDeparted);
+                        writeContent();
+                        lastParticipant = numDeparted >= this.numParticipants;
+                    }
+                }
+                this.channel.close();
+            } catch (IOException e) {
+                logger.error("Caught exception.", e);
+            }
+            if (lastParticipant && !this.barrierFile.delete()) {
+                logger.error("Unable to delete start barrier {}.", this.barrierFile);
+            }
+            this.channel = null;
+        }
+    }
+}
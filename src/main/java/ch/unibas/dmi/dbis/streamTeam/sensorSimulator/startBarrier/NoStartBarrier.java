@@ -0,0 +1,58 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider.TimeProviderInterface;
+
+/**
+ * Start barrier implementation for a simulator instance which does not coordinate its start with other instances, i.e., the simulation can start as soon as the instance arrives.
+ */
+public class NoStartBarrier implements StartBarrierInterface {
+
+    /**
+     * Time provider
+     */
+    private final TimeProviderInterface timeProvider;
+
+    /**
+     * NoStartBarrier constructor.
+     *
+     * @param timeProvider Time provider
+     */
+    public NoStartBarrier(TimeProviderInterface timeProvider) {
+        this.timeProvider = timeProvider;
+    }
+
+    /**
+     * Returns the current time since there are no other participants.
+     *
+     * @param timeoutInMs Maximal time (in ms) to wait
+     * @return Current time (in ns of the time provider)
+     */
+    @Override
+    public long await(long timeoutInMs) {
+        return this.timeProvider.getTimeInNs();
+    }
+
+    /**
+     * Leaves the start barrier.
+     */
+    @Override
+    public void close() {
+    }
+}
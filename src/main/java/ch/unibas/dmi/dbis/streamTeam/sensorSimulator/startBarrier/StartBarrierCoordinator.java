@@ -0,0 +1,219 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider.TimeProviderInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UDP server which coordinates the UdpStartBarrier participants of one or more matches.
+ * A join datagram contains the type JOIN (int), the identifier of the participant (long), the number of participants (int) and the match identifier (UTF-8).
+ * As soon as the last participant of a match has joined, the coordinator sets the start time to the current time (plus the start delay) and sends a start datagram to all participants of the match.
+ * A start datagram contains the type START (int), the start time (long, in ns of the time provider of the coordinator) and the match identifier (UTF-8).
+ * Joins which arrive after the start (retransmissions) are answered with a start datagram.
+ */
+public class StartBarrierCoordinator implements Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(StartBarrierCoordinator.class);
+
+    /**
+     * Type of a join datagram
+     */
+    public static final int JOIN = 1;
+
+    /**
+     * Type of a start datagram
+     */
+    public static final int START = 2;
+
+    /**
+     * Maximal size of a datagram in bytes
+     */
+    public static final int MAX_DATAGRAM_SIZE = 512;
+
+    /**
+     * Port of the coordinator
+     */
+    private final int port;
+
+    /**
+     * Time provider which provides the start time
+     */
+    private final TimeProviderInterface timeProvider;
+
+    /**
+     * Time (in ns) between the arrival of the last participant and the start of the simulation
+     */
+    private final long startDelayInNs;
+
+    /**
+     * State of the start barrier of every match (only accessed by the coordinator thread)
+     */
+    private final Map<String, MatchStartBarrier> matchStartBarriers;
+
+    /**
+     * Socket of the coordinator
+     */
+    private DatagramSocket socket;
+
+    /**
+     * Thread which answers the datagrams
+     */
+    private Thread coordinatorThread;
+
+    /**
+     * StartBarrierCoordinator constructor.
+     *
+     * @param port           Port of the coordinator
+     * @param timeProvider   Time provider which provides the start time
+     * @param startDelayInMs Time (in ms) between the arrival of the last participant and the start of the simulation
+     */
+    public StartBarrierCoordinator(int port, TimeProviderInterface timeProvider, long startDelayInMs) {
+        this.port = port;
+        this.timeProvider = timeProvider;
+        this.startDelayInNs = TimeUnit.MILLISECONDS.toNanos(startDelayInMs);
+        this.matchStartBarriers = new HashMap<>();
+    }
+
+    /**
+     * Binds the socket and starts the thread which answers the datagrams.
+     *
+     * @throws SocketException Thrown if the socket cannot be bound (e.g., if another coordinator already uses the port).
+     */
+    public void start() throws SocketException {
+        this.socket = new DatagramSocket(this.port);
+        this.coordinatorThread = new Thread(this::coordinate, "startBarrierCoordinator");
+        this.coordinatorThread.setDaemon(true);
+        this.coordinatorThread.start();
+        logger.info("Started start barrier coordinator on port {}.", this.port);
+    }
+
+    /**
+     * Answers join datagrams until the socket is closed.
+     */
+    private void coordinate() {
+        byte[] joinBytes = new byte[MAX_DATAGRAM_SIZE];
+        ByteBuffer join = ByteBuffer.wrap(joinBytes);
+        DatagramPacket joinPacket = new DatagramPacket(joinBytes, joinBytes.length);
+
+        while (!this.socket.isClosed()) {
+            try {
+                joinPacket.setLength(joinBytes.length);
+                this.socket.receive(joinPacket);
+                if (joinPacket.getLength() < Integer.BYTES + Long.BYTES + Integer.BYTES || join.getInt(0) != JOIN) {
+                    continue;
+                }
+                long participantId = join.getLong(Integer.BYTES);
+                int numParticipants = join.getInt(Integer.BYTES + Long.BYTES);
+                int matchIdOffset = Integer.BYTES + Long.BYTES + Integer.BYTES;
+                String matchId = new String(joinBytes, matchIdOffset, joinPacket.getLength() - matchIdOffset, StandardCharsets.UTF_8);
+
+                MatchStartBarrier matchStartBarrier = this.matchStartBarriers.computeIfAbsent(matchId, k -> new MatchStartBarrier());
+                if (matchStartBarrier.startTimeInNs != 0) {
+                    sendStart(matchId, matchStartBarrier.startTimeInNs, joinPacket.getSocketAddress());
+                } else if (matchStartBarrier.participantIds.add(participantId)) {
+                    matchStartBarrier.participantAddresses.add(joinPacket.getSocketAddress());
+                    logger.info("Participant {} of {} joined start barrier of match {}.", matchStartBarrier.participantIds.size(), numParticipants, matchId);
+                    if (matchStartBarrier.participantIds.size() >= numParticipants) {
+                        matchStartBarrier.startTimeInNs = this.timeProvider.getTimeInNs() + this.startDelayInNs;
+                        for (SocketAddress participantAddress : matchStartBarrier.participantAddresses) {
+                            sendStart(matchId, matchStartBarrier.startTimeInNs, participantAddress);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (!this.socket.isClosed()) {
+                    logger.error("Caught exception.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a start datagram to a participant.
+     *
+     * @param matchId            Identifier of the match
+     * @param startTimeInNs      Start time (in ns of the time provider)
+     * @param participantAddress Address of the participant
+     * @throws IOException Thrown in case of an IOException while sending the datagram.
+     */
+    private void sendStart(String matchId, long startTimeInNs, SocketAddress participantAddress) throws IOException {
+        byte[] matchIdBytes = matchId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer start = ByteBuffer.allocate(Integer.BYTES + Long.BYTES + matchIdBytes.length);
+        start.putInt(START);
+        start.putLong(startTimeInNs);
+        start.put(matchIdBytes);
+        this.socket.send(new DatagramPacket(start.array(), start.capacity(), participantAddress));
+    }
+
+    /**
+     * Stops the coordinator.
+     */
+    @Override
+    public void close() {
+        if (this.socket != null) {
+            this.socket.close();
+            try {
+                this.coordinatorThread.join();
+            } catch (InterruptedException e) {
+                logger.error("Caught exception.", e);
+            }
+        }
+    }
+
+    /**
+     * State of the start barrier of a single match.
+     */
+    private static class MatchStartBarrier {
+
+        /**
+         * Identifiers of the participants which have joined
+         */
+        private final Set<Long> participantIds = new HashSet<>();
+
+        /**
+         * Addresses of the participants which have joined
+         */
+        private final List<SocketAddress> participantAddresses = new ArrayList<>();
+
+        /**
+         * Start time (in ns of the time provider, 0 until all participants have joined)
+         */
+        private long startTimeInNs = 0;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Start barrier interface.
+ * All simulator instances of a match join the start barrier once they are ready to start and agree on the time at which the simulation starts.
+ */
+public interface StartBarrierInterface extends Closeable {
+
+    /**
+     * Joins the start barrier and waits until all participants have arrived.
+     *
+     * @param timeoutInMs Maximal time (in ms) to wait
+     * @return Agreed time (in ns of the time provider) at which the simulation starts
+     * @throws StartBarrierTimeoutException Thrown if not all participants have arrived within the timeout.
+     * @throws IOException                  Thrown in case of an IOException while communicating with the other participants.
+     * @throws InterruptedException         Thrown if the thread is interrupted while waiting.
+     */
+    long await(long timeoutInMs) throws StartBarrierTimeoutException, IOException, InterruptedException;
+
+    /**
+     * Leaves the start barrier.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,33 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier;
+
+/**
+ * Thrown to indicate that not all participants have arrived at the start barrier within the timeout.
+ */
+public class StartBarrierTimeoutException extends Exception {
+
+    /**
+     * StartBarrierTimeoutException constructor.
+     *
+     * @param message Description of the participants which have arrived
+     */
+    public StartBarrierTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider.TimeProviderInterface;
+
+import java.io.File;
+import java.util.Properties;
+
+/**
+ * StartBarrier types.
+ */
+public enum StartBarrierType {
+    /**
+     * NoStartBarrier.
+     */
+    NONE {
+        @Override
+        public StartBarrierInterface getStartBarrier(Properties properties, TimeProviderInterface timeProvider) {
+            return new NoStartBarrier(timeProvider);
+        }
+    },
+    /**
+     * FileStartBarrier.
+     */
+    FILE {
+        @Override
+        public StartBarrierInterface getStartBarrier(Properties properties, TimeProviderInterface timeProvider) {
+            String matchId = PropertyReadHelper.readStringOrDie(properties, "match.id");
+            int numParticipants = PropertyReadHelper.readIntOrDie(properties, "startBarrier.numParticipants");
+            long startDelayInMs = PropertyReadHelper.readLongOrDie(properties, "startBarrier.startDelayInMs");
+            String directory = PropertyReadHelper.readStringOrDie(properties, "startBarrier.file.directory").trim();
+            if (directory.isEmpty()) {
+                directory = System.getProperty("java.io.tmpdir");
+            }
+            return new FileStartBarrier(timeProvider, new File(directory, "startBarrier_" + matchId + ".bin"), numParticipants, startDelayInMs);
+        }
+    },
+    /**
+     * UdpStartBarrier.
+     */
+    UDP {
+        @Override
+        public StartBarrierInterface getStartBarrier(Properties properties, TimeProviderInterface timeProvider) {
+            String matchId = PropertyReadHelper.readStringOrDie(properties, "match.id");
+            int numParticipants = PropertyReadHelper.readIntOrDie(properties, "startBarrier.numParticipants");
+            long startDelayInMs = PropertyReadHelper.readLongOrDie(properties, "startBarrier.startDelayInMs");
+            String coordinatorHost = PropertyReadHelper.readStringOrDie(properties, "startBarrier.udp.coordinatorHost");
+            int coordinatorPort = PropertyReadHelper.readIntOrDie(properties, "startBarrier.udp.coordinatorPort");
+            boolean startLocalCoordinator = PropertyReadHelper.readBooleanOrDie(properties, "startBarrier.udp.startLocalCoordinator");
+            int resendIntervalInMs = PropertyReadHelper.readIntOrDie(properties, "startBarrier.udp.resendIntervalInMs");
+            return new UdpStartBarrier(timeProvider, coordinatorHost, coordinatorPort, startLocalCoordinator, matchId, numParticipants, startDelayInMs, resendIntervalInMs);
+        }
+    };
+
+    /**
+     * Returns a StartBarrierInterface instance.
+     *
+     * @param properties   Properties
+     * @param timeProvider Time provider
+     * @return StartBarrierInterface instance
+     */
+    public abstract StartBarrierInterface getStartBarrier(Properties properties, TimeProviderInterface timeProvider);
+}
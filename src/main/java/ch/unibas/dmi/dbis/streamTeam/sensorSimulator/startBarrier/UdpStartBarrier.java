@@ -0,0 +1,166 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.startBarrier;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider.TimeProviderInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start barrier implementation for simulator instances (on one or more machines) which coordinate via a StartBarrierCoordinator over UDP.
+ * Every participant sends join datagrams to the coordinator (retransmitted every resendIntervalInMs) until it receives the start datagram of its match.
+ * The start time is provided by the time provider of the coordinator, i.e., the participants on different machines should use the CLUSTER time provider.
+ */
+public class UdpStartBarrier implements StartBarrierInterface {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(UdpStartBarrier.class);
+
+    /**
+     * Address of the coordinator
+     */
+    private final InetSocketAddress coordinatorAddress;
+
+    /**
+     * In-process coordinator (null if no local coordinator is started)
+     */
+    private final StartBarrierCoordinator localCoordinator;
+
+    /**
+     * Identifier of the match
+     */
+    private final String matchId;
+
+    /**
+     * Number of simulator instances which join the start barrier
+     */
+    private final int numParticipants;
+
+    /**
+     * Interval (in ms) in which the join datagram is retransmitted
+     */
+    private final int resendIntervalInMs;
+
+    /**
+     * Socket for the communication with the coordinator
+     */
+    private DatagramSocket socket;
+
+    /**
+     * UdpStartBarrier constructor.
+     *
+     * @param timeProvider          Time provider (of the in-process coordinator)
+     * @param coordinatorHost       Host of the coordinator
+     * @param coordinatorPort       Port of the coordinator
+     * @param startLocalCoordinator Specifies if an in-process coordinator is started (the first participant on the machine which binds the port coordinates the others)
+     * @param matchId               Identifier of the match
+     * @param numParticipants       Number of simulator instances which join the start barrier
+     * @param startDelayInMs        Time (in ms) between the arrival of the last participant and the start of the simulation
+     * @param resendIntervalInMs    Interval (in ms) in which the join datagram is retransmitted
+     */
+    public UdpStartBarrier(TimeProviderInterface timeProvider, String coordinatorHost, int coordinatorPort, boolean startLocalCoordinator, String matchId, int numParticipants, long startDelayInMs, int resendIntervalInMs) {
+        this.coordinatorAddress = new InetSocketAddress(coordinatorHost, coordinatorPort);
+        this.localCoordinator = startLocalCoordinator ? new StartBarrierCoordinator(coordinatorPort, timeProvider, startDelayInMs) : null;
+        this.matchId = matchId;
+        this.numParticipants = numParticipants;
+        this.resendIntervalInMs = resendIntervalInMs;
+        this.socket = null;
+    }
+
+    /**
+     * Joins the start barrier and waits until all participants have arrived.
+     *
+     * @param timeoutInMs Maximal time (in ms) to wait
+     * @return Agreed time (in ns of the time provider) at which the simulation starts
+     * @throws StartBarrierTimeoutException Thrown if not all participants have arrived within the timeout.
+     * @throws IOException                  Thrown in case of an IOException while communicating with the coordinator.
+     */
+    @Override
+    public long await(long timeoutInMs) throws StartBarrierTimeoutException, IOException {
+        long timeoutNanoTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+
+        if (this.localCoordinator != null) {
+            try {
+                this.localCoordinator.start();
+            } catch (SocketException e) {
+                logger.info("Cannot start local start barrier coordinator ({}). Using the already running one.", e.getMessage());
+            }
+        }
+
+        this.socket = new DatagramSocket();
+        this.socket.setSoTimeout(this.resendIntervalInMs);
+
+        byte[] matchIdBytes = this.matchId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer join = ByteBuffer.allocate(Integer.BYTES + Long.BYTES + Integer.BYTES + matchIdBytes.length);
+        join.putInt(StartBarrierCoordinator.JOIN);
+        join.putLong(UUID.randomUUID().getMostSignificantBits()); // participant identifier
+        join.putInt(this.numParticipants);
+        join.put(matchIdBytes);
+        DatagramPacket joinPacket = new DatagramPacket(join.array(), join.capacity(), this.coordinatorAddress);
+
+        byte[] startBytes = new byte[StartBarrierCoordinator.MAX_DATAGRAM_SIZE];
+        ByteBuffer start = ByteBuffer.wrap(startBytes);
+        DatagramPacket startPacket = new DatagramPacket(startBytes, startBytes.length);
+        int matchIdOffset = Integer.BYTES + Long.BYTES;
+
+        logger.info("Joining start barrier of match {} at coordinator {} ({} participants).", this.matchId, this.coordinatorAddress, this.numParticipants);
+        while (System.nanoTime() - timeoutNanoTime < 0) {
+            this.socket.send(joinPacket);
+            try {
+                while (true) { // until the start datagram arrives or the resend interval elapses
+                    startPacket.setLength(startBytes.length);
+                    this.socket.receive(startPacket);
+                    if (startPacket.getLength() >= matchIdOffset && start.getInt(0) == StartBarrierCoordinator.START
+                            && this.matchId.equals(new String(startBytes, matchIdOffset, startPacket.getLength() - matchIdOffset, StandardCharsets.UTF_8))) {
+                        return start.getLong(Integer.BYTES);
+                    }
+                }
+            } catch (SocketTimeoutException e) {
+                logger.debug("No start datagram from coordinator {} within {} ms.", this.coordinatorAddress, this.resendIntervalInMs);
+            }
+        }
+        throw new StartBarrierTimeoutException("Not all " + this.numParticipants + " participants have arrived at the start barrier of match " + this.matchId + ".");
+    }
+
+    /**
+     * Leaves the start barrier and stops the in-process coordinator.
+     * The coordinator is stopped at the end of the simulation since other participants may still retransmit their join datagrams after the start.
+     */
+    @Override
+    public void close() {
+        if (this.socket != null) {
+            this.socket.close();
+        }
+        if (this.localCoordinator != null) {
+            this.localCoordinator.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+/**
+ * Record which a StreamWriterInterface implementation captured instead of sending it (e.g., in a MemoryRecordRing).
+ */
+public class CapturedRecord {
+
+    /**
+     * Topic (stream name)
+     */
+    private final String topic;
+
+    /**
+     * Key
+     */
+    private final String key;
+
+    /**
+     * Generation timestamp (in match ms)
+     */
+    private final long generationTimestamp;
+
+    /**
+     * System time (in ms) when the record has been captured
+     */
+    private final long sendTimestamp;
+
+    /**
+     * Payload (serialized data stream element)
+     */
+    private final byte[] payload;
+
+    /**
+     * CapturedRecord constructor.
+     *
+     * @param topic               Topic (stream name)
+     * @param key                 Key
+     * @param generationTimestamp Generation timestamp (in match ms)
+     * @param sendTimestamp       System time (in ms) when the record has been captured
+     * @param payload             Payload (serialized data stream element)
+     */
+    public CapturedRecord(String topic, String key, long generationTimestamp, long sendTimestamp, byte[] payload) {
+        this.topic = topic;
+        this.key = key;
+        this.generationTimestamp = generationTimestamp;
+        this.sendTimestamp = sendTimestamp;
+        this.payload = payload;
+    }
+
+    /**
+     * Returns the topic (stream name).
+     *
+     * @return Topic
+     */
+    public String getTopic() {
+        return this.topic;
+    }
+
+    /**
+     * Returns the key.
+     *
+     * @return Key
+     */
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * Returns the generation timestamp (in match ms).
+     *
+     * @return Generation timestamp
+     */
+    public long getGenerationTimestamp() {
+        return this.generationTimestamp;
+    }
+
+    /**
+     * Returns the system time (in ms) when the record has been captured.
+     *
+     * @return Send timestamp
+     */
+    public long getSendTimestamp() {
+        return this.sendTimestamp;
+    }
+
+    /**
+     * Returns the payload (serialized data stream element).
+     *
+     * @return Payload
+     */
+    public byte[] getPayload() {
+        return this.payload;
+    }
+}
@@ -0,0 +1,432 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.MatchMetadataHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.Utf8Cache;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A StreamWriterInterface implementation which writes the data stream elements as length-prefixed records to a file instead of sending them (e.g., for measuring the replay throughput without a broker or for offline consumers).
+ * The records are collected in streamWriter.file.numBuffers direct buffers which are written with a single gathering write as soon as all of them are full (and when the writer is closed).
+ * If streamWriter.file.forceEveryNumWrites is greater than 0, the file is forced to the storage device after every streamWriter.file.forceEveryNumWrites gathering writes.
+ * <p>
+ * File format (big-endian): int MAGIC, int VERSION, followed by the records.
+ * Record: int length of the rest of the record, short topic length, topic (UTF-8), int partition, short key length, key (UTF-8), long generation timestamp (match ms), long send timestamp (system ms), int payload length, payload.
+ * The partition is determined with Samza's partitioning style for streamWriter.file.numPartitions partitions.
+ */
+public class FileStreamWriter implements StreamWriterInterface {
+
+    /**
+     * Magic number at the beginning of the file ("STRC")
+     */
+    public static final int MAGIC = 0x53545243;
+
+    /**
+     * Version of the file format
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * File extension of the record files
+     */
+    public static final String FILE_EXTENSION = ".records";
+
+    /**
+     * Size of the fixed-size fields of a record in bytes
+     */
+    private static final int FIXED_RECORD_SIZE = Integer.BYTES + Short.BYTES + Integer.BYTES + Short.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(FileStreamWriter.class);
+
+    /**
+     * Send System Time Marker
+     */
+    private static final Marker sendSystemTimeMarker = MarkerFactory.getMarker("SENDSYSTEMTIME");
+
+    /**
+     * Properties
+     */
+    private final Properties properties;
+
+    /**
+     * File to which the records are written
+     */
+    private File file;
+
+    /**
+     * Channel of the file
+     */
+    private FileChannel channel;
+
+    /**
+     * Direct buffers which are filled one after the other and written with a single gathering write
+     */
+    private ByteBuffer[] buffers;
+
+    /**
+     * Index of the buffer which is currently filled
+     */
+    private int currentBufferIndex;
+
+    /**
+     * Number of gathering writes after which the file is forced to the storage device (0 = only when closing the writer)
+     */
+    private int forceEveryNumWrites;
+
+    /**
+     * Number of gathering writes since the file has been forced the last time
+     */
+    private int numWritesSinceForce;
+
+    /**
+     * Number of partitions which are used for determining the partition of a record
+     */
+    private int numPartitions;
+
+    /**
+     * UTF-8 encodings of the topics and keys
+     */
+    private final Utf8Cache utf8Cache;
+
+    /**
+     * Flag which specifies if the send system times should be logged to a CSV file
+     */
+    private boolean logSendSystemTimes;
+
+    /**
+     * Number of written records
+     */
+    private long numWrittenRecords;
+
+    /**
+     * Number of written bytes (including the file header)
+     */
+    private long numWrittenBytes;
+
+    /**
+     * Number of gathering writes
+     */
+    private long numWrites;
+
+    /**
+     * Time (in ns) the last send call blocked the simulation thread
+     */
+    private long lastSendBlockedTimeInNs;
+
+    /**
+     * FileStreamWriter constructor.
+     *
+     * @param properties Properties
+     */
+    public FileStreamWriter(Properties properties) {
+        this.properties = properties;
+        this.utf8Cache = new Utf8Cache();
+    }
+
+    /**
+     * Initializes the FileStreamWriter, i.e., creates the file and writes the file header (and the matchMetadata record if this simulator is the match announcer).
+     *
+     * @throws StreamWriterInitializationException Thrown if the file could not have been created.
+     */
+    @Override
+    public void initialize() throws StreamWriterInitializationException {
+        String matchId = PropertyReadHelper.readStringOrDie(this.properties, "match.id");
+        File sensorDataFile = new File(PropertyReadHelper.readStringOrDie(this.properties, "fileReader.sensorDataFile"));
+        String directory = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.file.directory");
+        int bufferSizeInBytes = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.file.bufferSizeInBytes");
+        int numBuffers = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.file.numBuffers");
+        this.forceEveryNumWrites = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.file.forceEveryNumWrites");
+        this.numPartitions = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.file.numPartitions");
+        this.logSendSystemTimes = PropertyReadHelper.readBooleanOrDie(this.properties, "streamWriter.logSendSystemTimes");
+
+        if (numBuffers < 1 || numPartitions < 1) {
+            throw new StreamWriterInitializationException("streamWriter.file.numBuffers and streamWriter.file.numPartitions have to be at least 1.");
+        }
+
+        this.buffers = new ByteBuffer[numBuffers];
+        for (int i = 0; i < numBuffers; ++i) {
+            this.buffers[i] = ByteBuffer.allocateDirect(bufferSizeInBytes / numBuffers);
+        }
+        this.currentBufferIndex = 0;
+
+        File dir = new File(directory);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new StreamWriterInitializationException("Cannot create the directory " + dir.getAbsolutePath() + ".");
+        }
+        this.file = new File(dir, matchId + "_" + sensorDataFile.getName() + FILE_EXTENSION);
+        try {
+            this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new StreamWriterInitializationException("Cannot open " + this.file.getAbsolutePath() + ": " + e.getMessage());
+        }
+        logger.info("Writing records to {}.", this.file.getAbsolutePath());
+
+        this.buffers[0].putInt(MAGIC);
+        this.buffers[0].putInt(VERSION);
+        this.numWrittenBytes = 2 * Integer.BYTES;
+
+        try {
+            MatchMetadataHelper.sendMatchMetadataIfMatchAnnouncer(this.properties, (streamName, key, generationTimestamp, content) -> writeRecord(streamName, key, generationTimestamp, System.currentTimeMillis(), content.length, ByteBuffer.wrap(content)));
+        } catch (IOException e) {
+            throw new StreamWriterInitializationException("Cannot write the matchMetadata record: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a list of rawPositionSensorData stream elements to the file.
+     *
+     * @param dataStreamElements List of rawPositionSensorData stream elements
+     */
+    @Override
+    public void sendDataStreamElements(List<RawPositionSensorDataStreamElement> dataStreamElements) {
+        long sendStartTimeInNs = System.nanoTime();
+        long sendTimestamp = System.currentTimeMillis();
+        try {
+            for (RawPositionSensorDataStreamElement dataStreamElement : dataStreamElements) {
+                if (this.logSendSystemTimes) {
+                    logger.info(sendSystemTimeMarker, "{},{},{}", new Object[]{dataStreamElement.getKey(), dataStreamElement.getGenerationTimestamp(), sendTimestamp});
+                }
+                byte[] content = dataStreamElement.getContentAsByteArray();
+                writeRecord(dataStreamElement.getStreamName(), dataStreamElement.getKey(), dataStreamElement.getGenerationTimestamp(), sendTimestamp, content.length, ByteBuffer.wrap(content));
+            }
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Writes all pre-serialized rawPositionSensorData stream elements from the arena which are measured before or at a given match timestamp (in ms) to the file (without copying them into byte arrays).
+     *
+     * @param arena     Arena containing the pre-serialized rawPositionSensorData stream elements
+     * @param timestamp Match timestamp (in ms)
+     */
+    @Override
+    public void sendSerializedDataStreamElements(SerializedDataStreamElementArena arena, long timestamp) {
+        long sendStartTimeInNs = System.nanoTime();
+        long sendTimestamp = System.currentTimeMillis();
+        try {
+            while (arena.nextEntryProducedBeforeOrAt(timestamp)) {
+                if (this.logSendSystemTimes) {
+                    logger.info(sendSystemTimeMarker, "{},{},{}", new Object[]{arena.getKey(), arena.getGenerationTimestamp(), sendTimestamp});
+                }
+                writeRecord(arena.getStreamName(), arena.getKey(), arena.getGenerationTimestamp(), sendTimestamp, arena.getContentLength(), arena);
+            }
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Appends a record whose payload is the content of the current entry of the arena.
+     *
+     * @param topic               Topic
+     * @param key                 Key
+     * @param generationTimestamp Generation timestamp (in match ms)
+     * @param sendTimestamp       Send timestamp (in system ms)
+     * @param payloadLength       Length of the payload
+     * @param arena               Arena whose current entry is the payload
+     * @throws IOException Thrown in case of an IOException while writing the buffers.
+     */
+    private void writeRecord(String topic, String key, long generationTimestamp, long sendTimestamp, int payloadLength, SerializedDataStreamElementArena arena) throws IOException {
+        ByteBuffer buffer = prepareRecord(topic, key, generationTimestamp, sendTimestamp, payloadLength);
+        arena.copyContentTo(buffer);
+        completeRecord(buffer);
+    }
+
+    /**
+     * Appends a record whose payload is the remaining content of a buffer.
+     *
+     * @param topic               Topic
+     * @param key                 Key
+     * @param generationTimestamp Generation timestamp (in match ms)
+     * @param sendTimestamp       Send timestamp (in system ms)
+     * @param payloadLength       Length of the payload
+     * @param payload             Buffer whose remaining content is the payload
+     * @throws IOException Thrown in case of an IOException while writing the buffers.
+     */
+    private void writeRecord(String topic, String key, long generationTimestamp, long sendTimestamp, int payloadLength, ByteBuffer payload) throws IOException {
+        ByteBuffer buffer = prepareRecord(topic, key, generationTimestamp, sendTimestamp, payloadLength);
+        buffer.put(payload);
+        completeRecord(buffer);
+    }
+
+    /**
+     * Returns a buffer which has enough space for the record and writes all fields of the record except for the payload into it.
+     * If the record is larger than a single buffer, a temporary buffer is returned which is written directly in completeRecord().
+     *
+     * @param topic               Topic
+     * @param key                 Key
+     * @param generationTimestamp Generation timestamp (in match ms)
+     * @param sendTimestamp       Send timestamp (in system ms)
+     * @param payloadLength       Length of the payload
+     * @return Buffer into which the payload has to be written
+     * @throws IOException Thrown in case of an IOException while writing the buffers.
+     */
+    private ByteBuffer prepareRecord(String topic, String key, long generationTimestamp, long sendTimestamp, int payloadLength) throws IOException {
+        byte[] topicBytes = this.utf8Cache.encode(topic);
+        byte[] keyBytes = this.utf8Cache.encode(key);
+        int recordSize = FIXED_RECORD_SIZE + topicBytes.length + keyBytes.length + payloadLength;
+
+        ByteBuffer buffer = this.buffers[this.currentBufferIndex];
+        if (recordSize > buffer.remaining()) {
+            if (recordSize > buffer.capacity()) {
+                writeBuffers(); // preserves the order of the records
+                buffer = ByteBuffer.allocate(recordSize);
+            } else if (this.currentBufferIndex == this.buffers.length - 1) {
+                writeBuffers();
+                buffer = this.buffers[this.currentBufferIndex];
+            } else {
+                this.currentBufferIndex++;
+                buffer = this.buffers[this.currentBufferIndex];
+            }
+        }
+
+        buffer.putInt(recordSize - Integer.BYTES);
+        buffer.putShort((short) topicBytes.length);
+        buffer.put(topicBytes);
+        buffer.putInt(KafkaPartitionRouter.samzaPartition(key, this.numPartitions));
+        buffer.putShort((short) keyBytes.length);
+        buffer.put(keyBytes);
+        buffer.putLong(generationTimestamp);
+        buffer.putLong(sendTimestamp);
+        buffer.putInt(payloadLength);
+
+        this.numWrittenRecords++;
+        this.numWrittenBytes += recordSize;
+        return buffer;
+    }
+
+    /**
+     * Completes a record after its payload has been written, i.e., writes the temporary buffer of a record which is larger than a single buffer.
+     *
+     * @param buffer Buffer returned by prepareRecord()
+     * @throws IOException Thrown in case of an IOException while writing the temporary buffer.
+     */
+    private void completeRecord(ByteBuffer buffer) throws IOException {
+        if (buffer != this.buffers[this.currentBufferIndex]) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Writes the content of all filled buffers with a single gathering write (and forces the file if streamWriter.file.forceEveryNumWrites gathering writes have been performed since the last force).
+     *
+     * @throws IOException Thrown in case of an IOException while writing the buffers.
+     */
+    private void writeBuffers() throws IOException {
+        int numFilledBuffers = this.currentBufferIndex + 1;
+        long numRemainingBytes = 0;
+        for (int i = 0; i < numFilledBuffers; ++i) {
+            this.buffers[i].flip();
+            numRemainingBytes += this.buffers[i].remaining();
+        }
+        if (numRemainingBytes > 0) {
+            while (numRemainingBytes > 0) {
+                numRemainingBytes -= this.channel.write(this.buffers, 0, numFilledBuffers);
+            }
+            this.numWrites++;
+
+            if (this.forceEveryNumWrites > 0 && ++this.numWritesSinceForce >= this.forceEveryNumWrites) {
+                this.channel.force(false);
+                this.numWritesSinceForce = 0;
+            }
+        }
+        for (int i = 0; i < numFilledBuffers; ++i) {
+            this.buffers[i].clear();
+        }
+        this.currentBufferIndex = 0;
+    }
+
+    /**
+     * Returns the number of pending data stream elements.
+     *
+     * @return 0 since the records are written to the page cache and not sent
+     */
+    @Override
+    public long getNumPendingDataStreamElements() {
+        return 0;
+    }
+
+    /**
+     * Returns how long (in ns) the last send call blocked the simulation thread (including the gathering writes if the buffers have been full).
+     *
+     * @return Blocked time (in ns) of the last send call
+     */
+    @Override
+    public long getLastSendBlockedTimeInNs() {
+        return this.lastSendBlockedTimeInNs;
+    }
+
+    /**
+     * Returns the number of written records.
+     *
+     * @return Number of written records
+     */
+    public long getNumWrittenRecords() {
+        return this.numWrittenRecords;
+    }
+
+    /**
+     * Returns the number of written bytes (including the file header).
+     *
+     * @return Number of written bytes
+     */
+    public long getNumWrittenBytes() {
+        return this.numWrittenBytes;
+    }
+
+    /**
+     * Closes the FileStreamWriter, i.e., writes the remaining records and forces the file to the storage device.
+     */
+    @Override
+    public void close() {
+        if (this.channel == null || !this.channel.isOpen()) {
+            return;
+        }
+        try {
+            writeBuffers();
+            this.channel.force(true);
+            this.channel.close();
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        logger.info("Wrote {} records ({} bytes, {} gathering writes) to {}.", new Object[]{this.numWrittenRecords, this.numWrittenBytes, this.numWrites, this.file.getAbsolutePath()});
+    }
+}
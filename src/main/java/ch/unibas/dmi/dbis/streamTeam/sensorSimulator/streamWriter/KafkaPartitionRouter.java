@@ -0,0 +1,220 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.errors.InterruptException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Router which determines the partition of a record using Samza's partitioning style (absolute value of the hash code of the key modulo the number of partitions of the topic).
+ * The number of partitions of every topic is fetched once (warmUp() or first record of the topic) and refreshed by a background thread every refreshIntervalInMs.
+ * Since the producer caches the metadata for metadata.max.age.ms, the KafkaStreamWriter sets metadata.max.age.ms to the refresh interval (i.e., a change is detected after at most twice the refresh interval).
+ * The partition of every key is memoized until the number of partitions of the topic changes.
+ */
+public class KafkaPartitionRouter implements Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(KafkaPartitionRouter.class);
+
+    /**
+     * Producer which provides the topic metadata
+     */
+    private final Producer<String, ?> producer;
+
+    /**
+     * Interval (in ms) in which the topic metadata is refreshed
+     */
+    private final long refreshIntervalInMs;
+
+    /**
+     * Route of every known topic
+     */
+    private final Map<String, TopicRoute> topicRoutes;
+
+    /**
+     * Thread which refreshes the topic metadata (null if the router is not started)
+     */
+    private Thread refreshThread;
+
+    /**
+     * KafkaPartitionRouter constructor.
+     *
+     * @param producer            Producer which provides the topic metadata
+     * @param refreshIntervalInMs Interval (in ms) in which the topic metadata is refreshed
+     */
+    public KafkaPartitionRouter(Producer<String, ?> producer, long refreshIntervalInMs) {
+        this.producer = producer;
+        this.refreshIntervalInMs = refreshIntervalInMs;
+        this.topicRoutes = new ConcurrentHashMap<>();
+        this.refreshThread = null;
+    }
+
+    /**
+     * Fetches the metadata of the given topics (which also establishes the connection to the cluster) and starts the thread which refreshes the topic metadata.
+     *
+     * @param topics Topics to which records are sent
+     */
+    public void warmUp(Collection<String> topics) {
+        for (String topic : topics) {
+            TopicRoute topicRoute = getTopicRoute(topic);
+            logger.info("Fetched metadata of topic {} ({} partitions).", topic, topicRoute.numPartitions);
+        }
+
+        this.refreshThread = new Thread(this::refresh, "kafkaPartitionRouter");
+        this.refreshThread.setDaemon(true);
+        this.refreshThread.start();
+    }
+
+    /**
+     * Returns the partition of a record.
+     *
+     * @param topic Topic
+     * @param key   Key
+     * @return Partition
+     */
+    public int partitionFor(String topic, String key) {
+        return getTopicRoute(topic).partitionFor(key);
+    }
+
+    /**
+     * Returns the route of a topic and fetches the metadata of the topic if it is not known yet.
+     *
+     * @param topic Topic
+     * @return Route of the topic
+     */
+    private TopicRoute getTopicRoute(String topic) {
+        TopicRoute topicRoute = this.topicRoutes.get(topic);
+        if (topicRoute == null) {
+            topicRoute = this.topicRoutes.computeIfAbsent(topic, t -> new TopicRoute(fetchNumPartitions(t)));
+        }
+        return topicRoute;
+    }
+
+    /**
+     * Fetches the number of partitions of a topic (blocks until the metadata is available).
+     *
+     * @param topic Topic
+     * @return Number of partitions
+     */
+    private int fetchNumPartitions(String topic) {
+        List<PartitionInfo> partitionInfos = this.producer.partitionsFor(topic);
+        return partitionInfos.size();
+    }
+
+    /**
+     * Refreshes the metadata of all known topics every refreshIntervalInMs until the router is closed.
+     * The route of a topic (including the memoized partitions) is replaced if its number of partitions has changed.
+     */
+    private void refresh() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(this.refreshIntervalInMs);
+                for (Map.Entry<String, TopicRoute> topicRouteEntry : this.topicRoutes.entrySet()) {
+                    int numPartitions = fetchNumPartitions(topicRouteEntry.getKey());
+                    if (numPartitions != topicRouteEntry.getValue().numPartitions) {
+                        logger.info("Number of partitions of topic {} changed from {} to {}.", topicRouteEntry.getKey(), topicRouteEntry.getValue().numPartitions, numPartitions);
+                        this.topicRoutes.put(topicRouteEntry.getKey(), new TopicRoute(numPartitions));
+                    }
+                }
+            } catch (InterruptedException | InterruptException e) { // router is closed (partitionsFor() throws an InterruptException)
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) { // e.g., metadata timeout, retried in the next interval
+                logger.error("Caught exception.", e);
+            }
+        }
+    }
+
+    /**
+     * Stops the thread which refreshes the topic metadata.
+     */
+    @Override
+    public void close() {
+        if (this.refreshThread != null) {
+            this.refreshThread.interrupt();
+            try {
+                this.refreshThread.join();
+            } catch (InterruptedException e) {
+                logger.error("Caught exception.", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the partition of a key using Samza's partitioning style (also used by stream writers which do not send to Kafka).
+     *
+     * @param key           Key
+     * @param numPartitions Number of partitions
+     * @return Partition
+     */
+    public static int samzaPartition(String key, int numPartitions) {
+        // See https://github.com/apache/samza/blob/1.5.1/samza-kafka/src/main/java/org/apache/samza/util/KafkaUtil.java (line 49) and https://github.com/apache/samza/blob/1.5.1/samza-kafka/src/main/scala/org/apache/samza/system/kafka/KafkaSystemProducer.scala (line 97)
+        return Math.abs(key.hashCode()) % numPartitions;
+    }
+
+    /**
+     * Number of partitions of a topic and the memoized partition of every key.
+     */
+    private static class TopicRoute {
+
+        /**
+         * Number of partitions of the topic
+         */
+        private final int numPartitions;
+
+        /**
+         * Memoized partition of every key
+         */
+        private final Map<String, Integer> partitionByKey;
+
+        /**
+         * TopicRoute constructor.
+         *
+         * @param numPartitions Number of partitions of the topic
+         */
+        private TopicRoute(int numPartitions) {
+            this.numPartitions = numPartitions;
+            this.partitionByKey = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Returns the (memoized) partition of a key.
+         *
+         * @param key Key
+         * @return Partition
+         */
+        private int partitionFor(String key) {
+            Integer partition = this.partitionByKey.get(key);
+            if (partition == null) {
+                partition = samzaPartition(key, this.numPartitions);
+                this.partitionByKey.put(key, partition);
+            }
+            return partition;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.Metric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Pool of KafkaProducers (stripes) which send the records of a simulator instance in parallel (every KafkaProducer has a single sender thread).
+ * All records of a topic partition are sent by the same stripe such that the order per partition is preserved.
+ * Every stripe counts its records and exposes the rate and queue metrics of its KafkaProducer.
+ */
+public class KafkaProducerPool implements Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(KafkaProducerPool.class);
+
+    /**
+     * Group of the producer metrics
+     */
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+
+    /**
+     * KafkaProducers of the stripes
+     */
+    private final List<Producer<String, String>> producers;
+
+    /**
+     * Number of records which have been sent by every stripe (only accessed by the sending thread)
+     */
+    private final long[] numSentRecords;
+
+    /**
+     * KafkaProducerPool constructor.
+     *
+     * @param producerProperties Producer properties
+     * @param numStripes         Number of stripes (KafkaProducers)
+     */
+    public KafkaProducerPool(Properties producerProperties, int numStripes) {
+        this.producers = new ArrayList<>(numStripes);
+        for (int i = 0; i < numStripes; ++i) {
+            Properties stripeProducerProperties = new Properties();
+            stripeProducerProperties.putAll(producerProperties);
+            if (numStripes > 1 && producerProperties.containsKey("client.id")) {
+                stripeProducerProperties.put("client.id", producerProperties.get("client.id") + "-" + i);
+            }
+            this.producers.add(new KafkaProducer<>(stripeProducerProperties));
+        }
+        this.numSentRecords = new long[numStripes];
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return Number of stripes
+     */
+    public int getNumStripes() {
+        return this.producers.size();
+    }
+
+    /**
+     * Returns the stripe which sends the records of a topic partition.
+     *
+     * @param topic     Topic
+     * @param partition Partition
+     * @return Stripe
+     */
+    public int getStripe(String topic, int partition) {
+        return Math.floorMod(31 * topic.hashCode() + partition, this.producers.size());
+    }
+
+    /**
+     * Returns the KafkaProducer of a stripe.
+     *
+     * @param stripe Stripe
+     * @return KafkaProducer
+     */
+    public Producer<String, String> getProducer(int stripe) {
+        return this.producers.get(stripe);
+    }
+
+    /**
+     * Returns the KafkaProducer which sends the records of a topic partition and counts the record.
+     *
+     * @param topic     Topic
+     * @param partition Partition
+     * @return KafkaProducer
+     */
+    public Producer<String, String> acquireProducer(String topic, int partition) {
+        int stripe = getStripe(topic, partition);
+        this.numSentRecords[stripe]++;
+        return this.producers.get(stripe);
+    }
+
+    /**
+     * Fetches the metadata of the given topics with every KafkaProducer.
+     *
+     * @param topics Topics to which records are sent
+     */
+    public void warmUp(Collection<String> topics) {
+        for (Producer<String, String> producer : this.producers) {
+            for (String topic : topics) {
+                producer.partitionsFor(topic);
+            }
+        }
+    }
+
+    /**
+     * Flushes all KafkaProducers, i.e., waits until all records have been acknowledged.
+     * The stripes send their records in parallel while the first one is flushed.
+     */
+    public void flush() {
+        for (Producer<String, String> producer : this.producers) {
+            producer.flush();
+        }
+    }
+
+    /**
+     * Returns the number of records which have been sent by a stripe.
+     *
+     * @param stripe Stripe
+     * @return Number of sent records
+     */
+    public long getNumSentRecords(int stripe) {
+        return this.numSentRecords[stripe];
+    }
+
+    /**
+     * Returns a producer metric (group producer-metrics) of a stripe, e.g., record-send-rate, record-queue-time-avg or buffer-available-bytes.
+     *
+     * @param stripe     Stripe
+     * @param metricName Name of the metric
+     * @return Value of the metric or NaN if the KafkaProducer does not provide the metric
+     */
+    public double getProducerMetric(int stripe, String metricName) {
+        for (Map.Entry<?, ? extends Metric> metricEntry : this.producers.get(stripe).metrics().entrySet()) {
+            Metric metric = metricEntry.getValue();
+            if (metric.metricName().group().equals(PRODUCER_METRICS_GROUP) && metric.metricName().name().equals(metricName)) {
+                Object value = metric.metricValue();
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Returns a summary of the statistics of a stripe.
+     *
+     * @param stripe Stripe
+     * @return Summary of the statistics
+     */
+    public String getStripeStatistics(int stripe) {
+        return "stripe " + stripe + ": " + getNumSentRecords(stripe) + " records, send rate " + getProducerMetric(stripe, "record-send-rate") + " records/s, mean queue time " + getProducerMetric(stripe, "record-queue-time-avg") + " ms, max queue time " + getProducerMetric(stripe, "record-queue-time-max") + " ms, available buffer " + getProducerMetric(stripe, "buffer-available-bytes") + " bytes";
+    }
+
+    /**
+     * Logs the statistics of all stripes and closes all KafkaProducers (waits until all in-flight records are acknowledged).
+     */
+    @Override
+    public void close() {
+        for (int stripe = 0; stripe < this.producers.size(); ++stripe) {
+            logger.info("Kafka producer {}", getStripeStatistics(stripe));
+        }
+        for (Producer<String, String> producer : this.producers) {
+            producer.close();
+        }
+    }
+}
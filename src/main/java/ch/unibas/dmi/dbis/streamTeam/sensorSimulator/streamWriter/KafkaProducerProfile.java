@@ -0,0 +1,108 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import java.util.Properties;
+
+/**
+ * Profiles of the producer configuration of the KafkaStreamWriter.
+ * See https://kafka.apache.org/20/documentation.html#producerconfigs
+ */
+public enum KafkaProducerProfile {
+    /**
+     * Every record is acknowledged by all in-sync replicas and sent immediately (no batching).
+     */
+    DEFAULT {
+        @Override
+        public void applyTo(Properties producerProperties) {
+            producerProperties.put("acks", "all");
+            producerProperties.put("retries", 0);
+            producerProperties.put("batch.size", 16384);
+            producerProperties.put("linger.ms", 0); // wait 0ms for batching
+            producerProperties.put("buffer.memory", 33554432);
+        }
+    },
+    /**
+     * Minimal latency for live demos: every record is sent immediately and only acknowledged by the leader.
+     */
+    LOW_LATENCY {
+        @Override
+        public void applyTo(Properties producerProperties) {
+            producerProperties.put("acks", "1");
+            producerProperties.put("retries", 0);
+            producerProperties.put("batch.size", 16384);
+            producerProperties.put("linger.ms", 0);
+            producerProperties.put("buffer.memory", 33554432);
+            producerProperties.put("compression.type", "none");
+        }
+    },
+    /**
+     * Maximal throughput for bulk runs: large batches which are collected for a few milliseconds.
+     * Retries are idempotent so that a retried batch cannot be reordered behind a later batch or written twice.
+     */
+    HIGH_THROUGHPUT {
+        @Override
+        public void applyTo(Properties producerProperties) {
+            // idempotence requires acks=all, retries > 0 and at most 5 in-flight requests per connection
+            producerProperties.put("enable.idempotence", true);
+            producerProperties.put("acks", "all");
+            producerProperties.put("retries", 3);
+            producerProperties.put("max.in.flight.requests.per.connection", 5);
+            producerProperties.put("batch.size", 262144);
+            producerProperties.put("linger.ms", 20);
+            producerProperties.put("buffer.memory", 134217728);
+            producerProperties.put("compression.type", "none");
+        }
+    },
+    /**
+     * HIGH_THROUGHPUT with LZ4 compressed batches (less network traffic and broker storage for bulk runs).
+     */
+    COMPRESSED_LZ4 {
+        @Override
+        public void applyTo(Properties producerProperties) {
+            HIGH_THROUGHPUT.applyTo(producerProperties);
+            producerProperties.put("compression.type", "lz4");
+        }
+    };
+
+    /**
+     * Prefix of the properties which are passed to the producer (after the profile has been applied, i.e., they override the profile)
+     */
+    public static final String OVERRIDE_PREFIX = "streamWriter.kafka.producer.";
+
+    /**
+     * Adds the producer configuration of the profile to the producer properties.
+     *
+     * @param producerProperties Producer properties
+     */
+    public abstract void applyTo(Properties producerProperties);
+
+    /**
+     * Adds all properties with the OVERRIDE_PREFIX (without the prefix) to the producer properties.
+     *
+     * @param properties         Properties
+     * @param producerProperties Producer properties
+     */
+    public static void applyOverrides(Properties properties, Properties producerProperties) {
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(OVERRIDE_PREFIX)) {
+                producerProperties.put(key.substring(OVERRIDE_PREFIX.length()), properties.getProperty(key).trim());
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics about the records which are sent asynchronously by the KafkaStreamWriter: number of in-flight (sent but not yet acknowledged) records and acknowledgement latency.
+ * The records which are sent in the same tick share a single callback which stores the send time of the tick.
+ * The statistics are updated by the sender thread of the producer (callbacks) and read by the simulation thread.
+ */
+public class KafkaSendStatistics {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(KafkaSendStatistics.class);
+
+    /**
+     * Minimal interval (in ms) between two logged send failures
+     */
+    private static final long FAILURE_LOG_INTERVAL_IN_MS = 1000;
+
+    /**
+     * Number of records which have been sent but not yet acknowledged
+     */
+    private final AtomicLong numInFlightRecords;
+
+    /**
+     * Maximal number of in-flight records
+     */
+    private final AtomicLong maxInFlightRecords;
+
+    /**
+     * Number of acknowledged records
+     */
+    private final LongAdder numAcknowledgedRecords;
+
+    /**
+     * Number of records which could not have been sent
+     */
+    private final LongAdder numFailedRecords;
+
+    /**
+     * Sum of the acknowledgement latencies (in ns) of all acknowledged records
+     */
+    private final LongAdder ackLatencySumInNs;
+
+    /**
+     * Maximal acknowledgement latency (in ns) of a record
+     */
+    private final AtomicLong maxAckLatencyInNs;
+
+    /**
+     * Earliest system time (in ms) at which the next send failure is logged
+     */
+    private final AtomicLong nextFailureLogTimeInMs;
+
+    /**
+     * Number of send failures which have not been logged since the last logged send failure
+     */
+    private final AtomicLong numUnloggedFailures;
+
+    /**
+     * KafkaSendStatistics constructor.
+     */
+    public KafkaSendStatistics() {
+        this.numInFlightRecords = new AtomicLong();
+        this.maxInFlightRecords = new AtomicLong();
+        this.numAcknowledgedRecords = new LongAdder();
+        this.numFailedRecords = new LongAdder();
+        this.ackLatencySumInNs = new LongAdder();
+        this.maxAckLatencyInNs = new AtomicLong();
+        this.nextFailureLogTimeInMs = new AtomicLong();
+        this.numUnloggedFailures = new AtomicLong();
+    }
+
+    /**
+     * Creates the callback for the records which are sent in the current tick.
+     *
+     * @return Callback which updates the statistics when a record is acknowledged
+     */
+    public Callback createTickCallback() {
+        long sendNanoTime = System.nanoTime();
+        return (metadata, exception) -> {
+            this.numInFlightRecords.decrementAndGet();
+            if (exception == null) {
+                long ackLatencyInNs = System.nanoTime() - sendNanoTime;
+                this.numAcknowledgedRecords.increment();
+                this.ackLatencySumInNs.add(ackLatencyInNs);
+                this.maxAckLatencyInNs.accumulateAndGet(ackLatencyInNs, Math::max);
+            } else {
+                this.numFailedRecords.increment();
+                logFailure(exception);
+            }
+        };
+    }
+
+    /**
+     * Logs a send failure unless another send failure has been logged in the last FAILURE_LOG_INTERVAL_IN_MS (a failing broker fails every in-flight record).
+     *
+     * @param exception Exception of the send failure
+     */
+    private void logFailure(Exception exception) {
+        long currentTimeInMs = System.currentTimeMillis();
+        long nextFailureLogTimeInMs = this.nextFailureLogTimeInMs.get();
+        if (currentTimeInMs >= nextFailureLogTimeInMs && this.nextFailureLogTimeInMs.compareAndSet(nextFailureLogTimeInMs, currentTimeInMs + FAILURE_LOG_INTERVAL_IN_MS)) {
+            long numUnloggedFailures = this.numUnloggedFailures.getAndSet(0);
+            if (numUnloggedFailures > 0) {
+                logger.error("{} further records could not have been sent.", numUnloggedFailures);
+            }
+            logger.error("Caught exception.", exception);
+        } else {
+            this.numUnloggedFailures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Registers a record which has been handed over to the producer.
+     */
+    public void recordSent() {
+        this.maxInFlightRecords.accumulateAndGet(this.numInFlightRecords.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * Unregisters a record for which the producer threw an exception in send() (i.e., the callback is not called).
+     */
+    public void recordNotSent() {
+        this.numInFlightRecords.decrementAndGet();
+        this.numFailedRecords.increment();
+    }
+
+    /**
+     * Returns the number of records which have been sent but not yet acknowledged.
+     *
+     * @return Number of in-flight records
+     */
+    public long getNumInFlightRecords() {
+        return this.numInFlightRecords.get();
+    }
+
+    /**
+     * Returns the maximal number of in-flight records.
+     *
+     * @return Maximal number of in-flight records
+     */
+    public long getMaxInFlightRecords() {
+        return this.maxInFlightRecords.get();
+    }
+
+    /**
+     * Returns the number of acknowledged records.
+     *
+     * @return Number of acknowledged records
+     */
+    public long getNumAcknowledgedRecords() {
+        return this.numAcknowledgedRecords.sum();
+    }
+
+    /**
+     * Returns the number of records which could not have been sent.
+     *
+     * @return Number of failed records
+     */
+    public long getNumFailedRecords() {
+        return this.numFailedRecords.sum();
+    }
+
+    /**
+     * Returns the mean acknowledgement latency (in ns) of the acknowledged records.
+     *
+     * @return Mean acknowledgement latency (in ns)
+     */
+    public long getMeanAckLatencyInNs() {
+        long numAcknowledgedRecords = this.numAcknowledgedRecords.sum();
+        return numAcknowledgedRecords == 0 ? 0 : this.ackLatencySumInNs.sum() / numAcknowledgedRecords;
+    }
+
+    /**
+     * Returns the maximal acknowledgement latency (in ns) of a record.
+     *
+     * @return Maximal acknowledgement latency (in ns)
+     */
+    public long getMaxAckLatencyInNs() {
+        return this.maxAckLatencyInNs.get();
+    }
+
+    /**
+     * Returns a summary of the statistics.
+     *
+     * @return Summary of the statistics
+     */
+    @Override
+    public String toString() {
+        return getNumAcknowledgedRecords() + " acknowledged, " + getNumFailedRecords() + " failed, " + getNumInFlightRecords() + " in flight (max " + getMaxInFlightRecords() + "), mean ack latency " + getMeanAckLatencyInNs() / 1000 + " us, max ack latency " + getMaxAckLatencyInNs() / 1000 + " us";
+    }
+}
@@ -19,23 +19,25 @@
 package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
 
 
-import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.AbstractImmutableDataStreamElement;
-import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.MatchMetadataStreamElement;
 import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.MatchMetadataHelper;
 import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
-import org.apache.kafka.clients.producer.KafkaProducer;
-import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Properties;
 
 /**
  * A StreamWriterInterface implementation for sending new data stream elements to a Kafka topic.
+ * By default, the producers are flushed after every tick, i.e., the simulation thread waits until the brokers have acknowledged all data stream elements of the tick.
+ * The records are sent by streamWriter.kafka.numProducers KafkaProducers (KafkaProducerPool) which are striped by topic partition such that the order per partition is preserved.
+ * If streamWriter.kafka.asyncSend is set, the data stream elements are sent without flushing and acknowledged via callbacks (KafkaSendStatistics), and the producers are idempotent such that retries preserve the order per partition.
  */
 public class KafkaStreamWriter implements StreamWriterInterface {
 
@@ -55,9 +57,9 @@ public class KafkaStreamWriter implements StreamWriterInterface {
     private final Properties properties;
 
     /**
-     * KafkaProducer
+     * Pool of KafkaProducers which are striped by topic partition
      */
-    private Producer<String, String> producer;
+    private KafkaProducerPool producerPool;
 
     /**
      * Identifier of the match
@@ -69,6 +71,21 @@ public class KafkaStreamWriter implements StreamWriterInterface {
      */
     private boolean logSendSystemTimes;
 
+    /**
+     * Statistics about the asynchronously sent records (null if the records are sent synchronously, i.e., with a flush after every tick)
+     */
+    private KafkaSendStatistics sendStatistics;
+
+    /**
+     * Router which determines the partition of every record
+     */
+    private KafkaPartitionRouter partitionRouter;
+
+    /**
+     * Time (in ns) the last send call blocked the simulation thread
+     */
+    private long lastSendBlockedTimeInNs;
+
     /**
      * KafkaStreamWriter constructor.
      *
@@ -76,6 +93,7 @@ public class KafkaStreamWriter implements StreamWriterInterface {
      */
     public KafkaStreamWriter(Properties properties) {
         this.properties = properties;
+        this.sendStatistics = null;
     }
 
     /**
@@ -89,56 +107,45 @@ public class KafkaStreamWriter implements StreamWriterInterface {
         String brokerList = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.kafka.brokerList");
         this.matchId = PropertyReadHelper.readStringOrDie(this.properties, "match.id");
         this.logSendSystemTimes = PropertyReadHelper.readBooleanOrDie(this.properties, "streamWriter.logSendSystemTimes");
+        boolean asyncSend = PropertyReadHelper.readBooleanOrDie(this.properties, "streamWriter.kafka.asyncSend");
+        String profileString = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.kafka.profile");
+        KafkaProducerProfile profile = KafkaProducerProfile.valueOf(profileString.toUpperCase().trim());
 
         Properties props = new Properties();
         props.put("bootstrap.servers", brokerList);
-        props.put("acks", "all");
-        props.put("retries", 0);
-        props.put("batch.size", 16384);
-        props.put("linger.ms", 0); // wait 0ms for batching
-        props.put("buffer.memory", 33554432);
+        profile.applyTo(props);
         props.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
         props.put("value.serializer", "org.apache.kafka.common.serialization.ByteArraySerializer");
+        if (asyncSend) {
+            // https://kafka.apache.org/20/documentation.html#producerconfigs (idempotence requires acks=all, retries > 0 and at most 5 in-flight requests per connection)
+            props.put("enable.idempotence", true);
+            props.put("acks", "all");
+            props.put("retries", Integer.MAX_VALUE);
+            props.put("max.in.flight.requests.per.connection", 5);
+            this.sendStatistics = new KafkaSendStatistics();
+        }
+        // partitionsFor() returns cached metadata which is only updated after metadata.max.age.ms, hence, the cache expires with the refresh interval of the KafkaPartitionRouter
+        long metadataRefreshIntervalInMs = PropertyReadHelper.readLongOrDie(this.properties, "streamWriter.kafka.metadataRefreshIntervalInMs");
+        props.put("metadata.max.age.ms", metadataRefreshIntervalInMs);
+        KafkaProducerProfile.applyOverrides(this.properties, props);
+        logger.info("Using producer profile {}.", profile);
 
-        this.producer = new KafkaProducer<>(props);
-
-        boolean isMatchAnnouncer = PropertyReadHelper.readBooleanOrDie(this.properties, "streamWriter.kafka.isMatchAnnouncer");
-
-        String dummyTopic = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.kafka.initializeTopic");
-
-        // Write a dummy record to a dummy topic in order to prevent that the first data stream elements are sent in batches
-        String dummyString = "dummy";
-        sendWithSamzaPartitioning(dummyTopic, this.matchId, dummyString.getBytes());
-        logger.info("Sent dummy record to dummy topic.");
-
-        if (isMatchAnnouncer) {
-            long matchStartTimestampInMs = PropertyReadHelper.readLongOrDie(this.properties, "match.time.startTs");
-            String sport = PropertyReadHelper.readStringOrDie(this.properties, "match.sport");
-            double fieldLength = PropertyReadHelper.readDoubleOrDie(this.properties, "match.fieldLength");
-            double fieldWidth = PropertyReadHelper.readDoubleOrDie(this.properties, "match.fieldWidth");
-            boolean mirroredX = PropertyReadHelper.readBooleanOrDie(this.properties, "match.mirroredX");
-            boolean mirroredY = PropertyReadHelper.readBooleanOrDie(this.properties, "match.mirroredY");
-            String areaInfos = PropertyReadHelper.readStringOrDie(this.properties, "match.areaInfos");
-            String competition = PropertyReadHelper.readStringOrDie(this.properties, "match.competition");
-            String venue = PropertyReadHelper.readStringOrDie(this.properties, "match.venue");
-            String objectRenameMap = PropertyReadHelper.readStringOrDie(this.properties, "match.objectRenameMap");
-            String teamRenameMap = PropertyReadHelper.readStringOrDie(this.properties, "match.teamRenameMap");
-            String videoPath = PropertyReadHelper.readStringOrDie(this.properties, "match.video.path");
-            int videoOffset = PropertyReadHelper.readIntOrDie(this.properties, "match.video.offset");
-            String teamColors = PropertyReadHelper.readStringOrDie(this.properties, "match.teamColors");
+        int numProducers = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.kafka.numProducers");
+        this.producerPool = new KafkaProducerPool(props, numProducers);
 
-            long matchStartUnixTs = System.currentTimeMillis();
+        // Fetch the metadata of the topics before the simulation starts in order to prevent that the first data stream elements wait for the metadata and are sent in batches
+        List<String> topics = PropertyReadHelper.readListOfStringsOrDie(this.properties, "streamWriter.kafka.topics");
+        this.producerPool.warmUp(topics);
+        this.partitionRouter = new KafkaPartitionRouter(this.producerPool.getProducer(0), metadataRefreshIntervalInMs);
+        this.partitionRouter.warmUp(topics);
 
-            try {
-                MatchMetadataStreamElement matchMetadataStreamElement = MatchMetadataStreamElement.generateMatchMetadataStreamElement(this.matchId, matchStartTimestampInMs, matchStartTimestampInMs, sport, fieldLength, fieldWidth, mirroredX, mirroredY, areaInfos, matchStartUnixTs, competition, venue, objectRenameMap, teamRenameMap, videoPath, videoOffset, teamColors);
-                sendWithSamzaPartitioning(matchMetadataStreamElement.getStreamName(), matchMetadataStreamElement.getKey(), matchMetadataStreamElement.getContentAsByteArray());
-                logger.info("Sent matchMetadata stream element.");
-            } catch (AbstractImmutableDataStreamElement.CannotGenerateDataStreamElement e) {
-                logger.error("Error during generating matchMetadata stream element: ", e);
-            }
+        try {
+            MatchMetadataHelper.sendMatchMetadataIfMatchAnnouncer(this.properties, (streamName, key, generationTimestamp, content) -> sendWithSamzaPartitioning(streamName, key, content));
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
         }
 
-        this.producer.flush();
+        this.producerPool.flush();
         logger.info("Flushed producer.");
     }
 
@@ -149,13 +156,96 @@ public class KafkaStreamWriter implements StreamWriterInterface {
      */
     @Override
     public void sendDataStreamElements(List<RawPositionSensorDataStreamElement> dataStreamElements) {
+        long sendStartTimeInNs = System.nanoTime();
+        Callback tickCallback = createTickCallback(dataStreamElements.isEmpty());
         for (RawPositionSensorDataStreamElement dataStreamElement : dataStreamElements) {
             if (this.logSendSystemTimes) {
                 logger.info(sendSystemTimeMarker, "{},{},{}", new Object[]{dataStreamElement.getKey(), dataStreamElement.getGenerationTimestamp(), System.currentTimeMillis()});
             }
-            sendWithSamzaPartitioning(dataStreamElement.getStreamName(), dataStreamElement.getKey(), dataStreamElement.getContentAsByteArray());
+            sendWithSamzaPartitioning(dataStreamElement.getStreamName(), dataStreamElement.getKey(), dataStreamElement.getContentAsByteArray(), tickCallback);
+        }
+        flushIfSynchronous();
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Sends all pre-serialized rawPositionSensorData stream elements from the arena which are measured before or at a given match timestamp (in ms) to Kafka.
+     *
+     * @param arena     Arena containing the pre-serialized rawPositionSensorData stream elements
+     * @param timestamp Match timestamp (in ms)
+     */
+    @Override
+    public void sendSerializedDataStreamElements(SerializedDataStreamElementArena arena, long timestamp) {
+        long sendStartTimeInNs = System.nanoTime();
+        Callback tickCallback = createTickCallback(false);
+        while (arena.nextEntryProducedBeforeOrAt(timestamp)) {
+            if (this.logSendSystemTimes) {
+                logger.info(sendSystemTimeMarker, "{},{},{}", new Object[]{arena.getKey(), arena.getGenerationTimestamp(), System.currentTimeMillis()});
+            }
+            sendWithSamzaPartitioning(arena.getStreamName(), arena.getKey(), arena.copyContent(), tickCallback);
         }
-        this.producer.flush();
+        flushIfSynchronous();
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Creates the callback for the records of the current tick (only if the records are sent asynchronously).
+     *
+     * @param emptyTick Specifies if no records are sent in the current tick
+     * @return Callback or null if the records are sent synchronously or no records are sent
+     */
+    private Callback createTickCallback(boolean emptyTick) {
+        if (this.sendStatistics == null || emptyTick) {
+            return null;
+        }
+        return this.sendStatistics.createTickCallback();
+    }
+
+    /**
+     * Flushes the producers if the records are sent synchronously, i.e., waits until all records of the tick have been acknowledged.
+     */
+    private void flushIfSynchronous() {
+        if (this.sendStatistics == null) {
+            this.producerPool.flush();
+        }
+    }
+
+    /**
+     * Returns the number of records which have been sent asynchronously but are not acknowledged yet.
+     *
+     * @return Number of in-flight records (0 if the records are sent synchronously)
+     */
+    @Override
+    public long getNumPendingDataStreamElements() {
+        return this.sendStatistics == null ? 0 : this.sendStatistics.getNumInFlightRecords();
+    }
+
+    /**
+     * Returns how long (in ns) the last send call blocked the simulation thread (including the flush if the records are sent synchronously and the time blocked in send() if the buffer of a producer is full).
+     *
+     * @return Blocked time (in ns) of the last send call
+     */
+    @Override
+    public long getLastSendBlockedTimeInNs() {
+        return this.lastSendBlockedTimeInNs;
+    }
+
+    /**
+     * Returns the statistics about the asynchronously sent records.
+     *
+     * @return Statistics or null if the records are sent synchronously
+     */
+    public KafkaSendStatistics getSendStatistics() {
+        return this.sendStatistics;
+    }
+
+    /**
+     * Returns the pool of KafkaProducers (e.g., for the statistics of the stripes).
+     *
+     * @return Pool of KafkaProducers
+     */
+    public KafkaProducerPool getProducerPool() {
+        return this.producerPool;
     }
 
     /**
@@ -166,9 +256,31 @@ public class KafkaStreamWriter implements StreamWriterInterface {
      * @param value Value
      */
     public void sendWithSamzaPartitioning(String topic, String key, byte[] value) {
-        // See https://github.com/apache/samza/blob/1.5.1/samza-kafka/src/main/java/org/apache/samza/util/KafkaUtil.java (line 49) and https://github.com/apache/samza/blob/1.5.1/samza-kafka/src/main/scala/org/apache/samza/system/kafka/KafkaSystemProducer.scala (line 97)
-        Integer partition = Math.abs(key.hashCode()) % this.producer.partitionsFor(topic).size();
-        this.producer.send(new ProducerRecord(topic, partition, key, value));
+        sendWithSamzaPartitioning(topic, key, value, null);
+    }
+
+    /**
+     * Sends a producer record to Kafka using Samza's partitioning style and registers it in the send statistics (if the records are sent asynchronously).
+     *
+     * @param topic    Topic
+     * @param key      Key
+     * @param value    Value
+     * @param callback Callback which is called when the record is acknowledged (or null)
+     */
+    private void sendWithSamzaPartitioning(String topic, String key, byte[] value, Callback callback) {
+        int partition = this.partitionRouter.partitionFor(topic, key);
+        if (callback == null) {
+            this.producerPool.acquireProducer(topic, partition).send(new ProducerRecord(topic, partition, key, value));
+        } else {
+            // registered before send() since the callback can be called before send() returns
+            this.sendStatistics.recordSent();
+            try {
+                this.producerPool.acquireProducer(topic, partition).send(new ProducerRecord(topic, partition, key, value), callback);
+            } catch (RuntimeException e) {
+                this.sendStatistics.recordNotSent();
+                throw e;
+            }
+        }
     }
 
     /**
@@ -176,6 +288,10 @@ public class KafkaStreamWriter implements StreamWriterInterface {
      */
     @Override
     public void close() {
-        this.producer.close();
+        this.partitionRouter.close();
+        this.producerPool.close(); // waits until all in-flight records are acknowledged
+        if (this.sendStatistics != null) {
+            logger.info("Asynchronous sending: {}", this.sendStatistics);
+        }
     }
 }
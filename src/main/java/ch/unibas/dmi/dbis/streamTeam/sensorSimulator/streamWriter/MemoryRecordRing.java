@@ -0,0 +1,209 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free single-producer single-consumer ring of CapturedRecords into which the MemoryStreamWriter appends the records.
+ * The records are offered by the simulation thread and can be read back by another thread (e.g., a MemoryRecordRingConsumer, a test or a benchmark in the same JVM) which looks the ring up by its name.
+ * The consumer announces itself via attachConsumer() such that the records in the ring are only reported as pending if somebody actually reads them.
+ * If the ring is full, the record is dropped (and counted) instead of blocking the simulation thread.
+ */
+public class MemoryRecordRing {
+
+    /**
+     * Rings by name
+     */
+    private static final Map<String, MemoryRecordRing> rings = new ConcurrentHashMap<>();
+
+    /**
+     * Slots of the ring
+     */
+    private final AtomicReferenceArray<CapturedRecord> slots;
+
+    /**
+     * Mask for mapping a sequence number to a slot (capacity - 1)
+     */
+    private final int mask;
+
+    /**
+     * Sequence number of the next record which is polled (only written by the consumer)
+     */
+    private final AtomicLong head;
+
+    /**
+     * Sequence number of the next record which is offered (only written by the producer)
+     */
+    private final AtomicLong tail;
+
+    /**
+     * Number of records which have been dropped since the ring was full
+     */
+    private final AtomicLong numDroppedRecords;
+
+    /**
+     * Reflects if a consumer reads the records
+     */
+    private volatile boolean consumerAttached;
+
+    /**
+     * MemoryRecordRing constructor.
+     *
+     * @param capacity Capacity (rounded up to the next power of two)
+     */
+    public MemoryRecordRing(int capacity) {
+        int powerOfTwoCapacity = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(powerOfTwoCapacity);
+        this.mask = powerOfTwoCapacity - 1;
+        this.head = new AtomicLong(0);
+        this.tail = new AtomicLong(0);
+        this.numDroppedRecords = new AtomicLong(0);
+        this.consumerAttached = false;
+    }
+
+    /**
+     * Returns the ring with the given name and creates it if it does not exist yet.
+     *
+     * @param name     Name of the ring
+     * @param capacity Capacity of the ring if it has to be created
+     * @return Ring
+     */
+    public static MemoryRecordRing getOrCreate(String name, int capacity) {
+        return rings.computeIfAbsent(name, n -> new MemoryRecordRing(capacity));
+    }
+
+    /**
+     * Returns the ring with the given name.
+     *
+     * @param name Name of the ring
+     * @return Ring or null if there is no ring with the given name
+     */
+    public static MemoryRecordRing get(String name) {
+        return rings.get(name);
+    }
+
+    /**
+     * Removes the ring with the given name.
+     *
+     * @param name Name of the ring
+     * @return Removed ring or null if there is no ring with the given name
+     */
+    public static MemoryRecordRing remove(String name) {
+        return rings.remove(name);
+    }
+
+    /**
+     * Appends a record (must only be called by the producer thread).
+     *
+     * @param record Record
+     * @return True if the record has been appended, false if the ring was full and the record has been dropped
+     */
+    public boolean offer(CapturedRecord record) {
+        long currentTail = this.tail.get();
+        if (currentTail - this.head.get() > this.mask) {
+            this.numDroppedRecords.incrementAndGet();
+            return false;
+        }
+        this.slots.lazySet((int) currentTail & this.mask, record);
+        this.tail.lazySet(currentTail + 1); // publishes the record
+        return true;
+    }
+
+    /**
+     * Removes the oldest record (must only be called by the consumer thread).
+     *
+     * @return Oldest record or null if the ring is empty
+     */
+    public CapturedRecord poll() {
+        long currentHead = this.head.get();
+        if (currentHead >= this.tail.get()) {
+            return null;
+        }
+        int index = (int) currentHead & this.mask;
+        CapturedRecord record = this.slots.get(index);
+        this.slots.lazySet(index, null);
+        this.head.lazySet(currentHead + 1); // releases the slot
+        return record;
+    }
+
+    /**
+     * Removes all records which are currently in the ring and passes them to a consumer (must only be called by the consumer thread).
+     *
+     * @param consumer Consumer of the records
+     * @return Number of removed records
+     */
+    public int drainTo(Consumer<CapturedRecord> consumer) {
+        int numRecords = 0;
+        CapturedRecord record = poll();
+        while (record != null) {
+            consumer.accept(record);
+            numRecords++;
+            record = poll();
+        }
+        return numRecords;
+    }
+
+    /**
+     * Announces that a consumer reads the records (called by the consumer before it polls the first record).
+     */
+    public void attachConsumer() {
+        this.consumerAttached = true;
+    }
+
+    /**
+     * Checks if a consumer reads the records.
+     *
+     * @return True if a consumer has been attached
+     */
+    public boolean hasConsumer() {
+        return this.consumerAttached;
+    }
+
+    /**
+     * Returns the number of records in the ring.
+     *
+     * @return Number of records
+     */
+    public int size() {
+        long currentTail = this.tail.get();
+        return (int) Math.max(currentTail - this.head.get(), 0); // the consumer may have advanced the head after reading the tail
+    }
+
+    /**
+     * Returns the capacity of the ring.
+     *
+     * @return Capacity
+     */
+    public int capacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * Returns the number of records which have been dropped since the ring was full.
+     *
+     * @return Number of dropped records
+     */
+    public long getNumDroppedRecords() {
+        return this.numDroppedRecords.get();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread which attaches itself to a MemoryRecordRing and drains it, i.e., an example consumer of the MemoryStreamWriter.
+ * It counts the records and bytes it has read and logs them when it is closed.
+ */
+public class MemoryRecordRingConsumer implements Runnable, Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MemoryRecordRingConsumer.class);
+
+    /**
+     * Time (in ns) the thread parks between two checks when the ring is empty
+     */
+    private static final long WAIT_INTERVAL_IN_NS = 100000;
+
+    /**
+     * Ring which is drained
+     */
+    private final MemoryRecordRing ring;
+
+    /**
+     * Thread which drains the ring
+     */
+    private final Thread thread;
+
+    /**
+     * Reflects if the thread should continue to drain the ring
+     */
+    private volatile boolean running;
+
+    /**
+     * Number of read records
+     */
+    private volatile long numRecords;
+
+    /**
+     * Number of read payload bytes
+     */
+    private volatile long numBytes;
+
+    /**
+     * Maximal time (in ms) between sending and reading a record
+     */
+    private volatile long maxLatencyInMs;
+
+    /**
+     * MemoryRecordRingConsumer constructor.
+     *
+     * @param ring Ring which is drained
+     * @param name Name of the thread
+     */
+    public MemoryRecordRingConsumer(MemoryRecordRing ring, String name) {
+        this.ring = ring;
+        this.running = false;
+        this.numRecords = 0;
+        this.numBytes = 0;
+        this.maxLatencyInMs = 0;
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Attaches the consumer to the ring and starts the thread.
+     */
+    public void start() {
+        this.ring.attachConsumer();
+        this.running = true;
+        this.thread.start();
+    }
+
+    /**
+     * Drains the ring until the consumer is closed (the records which are in the ring when it is closed are still read).
+     */
+    @Override
+    public void run() {
+        boolean lastRound = false;
+        while (!lastRound) {
+            lastRound = !this.running;
+            CapturedRecord record = this.ring.poll();
+            if (record == null) {
+                if (!lastRound) {
+                    LockSupport.parkNanos(WAIT_INTERVAL_IN_NS);
+                }
+                continue;
+            }
+            lastRound = false;
+            this.numRecords++;
+            this.numBytes += record.getPayload().length;
+            this.maxLatencyInMs = Math.max(this.maxLatencyInMs, System.currentTimeMillis() - record.getSendTimestamp());
+        }
+    }
+
+    /**
+     * Returns the number of read records.
+     *
+     * @return Number of read records
+     */
+    public long getNumRecords() {
+        return this.numRecords;
+    }
+
+    /**
+     * Returns the number of read payload bytes.
+     *
+     * @return Number of read payload bytes
+     */
+    public long getNumBytes() {
+        return this.numBytes;
+    }
+
+    /**
+     * Stops the thread after it has drained the ring and waits until it has terminated.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            logger.error("Caught exception.", e);
+        }
+        logger.info("Read {} records ({} bytes) from the memory ring, max latency {} ms.", new Object[]{this.numRecords, this.numBytes, this.maxLatencyInMs});
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.MatchMetadataHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A StreamWriterInterface implementation which appends the data stream elements as CapturedRecords to the MemoryRecordRing named streamWriter.memory.ringName instead of sending them.
+ * The records can be read back by another thread in the same JVM via MemoryRecordRing.get(streamWriter.memory.ringName), also after the MemoryStreamWriter has been closed.
+ * If streamWriter.memory.startConsumer is set, a MemoryRecordRingConsumer drains the ring in the background (e.g., for benchmarks without a reader).
+ * The number of records in the ring is only reported as pending data stream elements if a consumer has been attached to the ring, i.e., only a slow reader causes backpressure (an unread ring must not trigger the catch-up policy).
+ */
+public class MemoryStreamWriter implements StreamWriterInterface {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(MemoryStreamWriter.class);
+
+    /**
+     * Properties
+     */
+    private final Properties properties;
+
+    /**
+     * Ring into which the records are appended
+     */
+    private MemoryRecordRing ring;
+
+    /**
+     * Consumer which drains the ring in the background (null if streamWriter.memory.startConsumer is not set)
+     */
+    private MemoryRecordRingConsumer consumer;
+
+    /**
+     * Name of the ring
+     */
+    private String ringName;
+
+    /**
+     * Number of appended records
+     */
+    private long numRecords;
+
+    /**
+     * Time (in ns) the last send call blocked the simulation thread
+     */
+    private long lastSendBlockedTimeInNs;
+
+    /**
+     * MemoryStreamWriter constructor.
+     *
+     * @param properties Properties
+     */
+    public MemoryStreamWriter(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Initializes the MemoryStreamWriter, i.e., looks up (or creates) the ring, starts the consumer (if streamWriter.memory.startConsumer is set), and appends the matchMetadata record if this simulator is the match announcer.
+     */
+    @Override
+    public void initialize() {
+        this.ringName = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.memory.ringName");
+        int capacity = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.memory.capacity");
+        boolean startConsumer = PropertyReadHelper.readBooleanOrDie(this.properties, "streamWriter.memory.startConsumer");
+
+        this.ring = MemoryRecordRing.getOrCreate(this.ringName, capacity);
+        this.numRecords = 0;
+        logger.info("Appending records to the memory ring {} (capacity {}).", this.ringName, this.ring.capacity());
+
+        if (startConsumer) {
+            this.consumer = new MemoryRecordRingConsumer(this.ring, "memoryRecordRingConsumer-" + this.ringName);
+            this.consumer.start();
+        }
+
+        try {
+            MatchMetadataHelper.sendMatchMetadataIfMatchAnnouncer(this.properties, (streamName, key, generationTimestamp, content) -> append(new CapturedRecord(streamName, key, generationTimestamp, System.currentTimeMillis(), content)));
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+    }
+
+    /**
+     * Appends a list of rawPositionSensorData stream elements to the ring.
+     *
+     * @param dataStreamElements List of rawPositionSensorData stream elements
+     */
+    @Override
+    public void sendDataStreamElements(List<RawPositionSensorDataStreamElement> dataStreamElements) {
+        long sendStartTimeInNs = System.nanoTime();
+        long sendTimestamp = System.currentTimeMillis();
+        for (RawPositionSensorDataStreamElement dataStreamElement : dataStreamElements) {
+            append(new CapturedRecord(dataStreamElement.getStreamName(), dataStreamElement.getKey(), dataStreamElement.getGenerationTimestamp(), sendTimestamp, dataStreamElement.getContentAsByteArray()));
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Appends all pre-serialized rawPositionSensorData stream elements from the arena which are measured before or at a given match timestamp (in ms) to the ring.
+     *
+     * @param arena     Arena containing the pre-serialized rawPositionSensorData stream elements
+     * @param timestamp Match timestamp (in ms)
+     */
+    @Override
+    public void sendSerializedDataStreamElements(SerializedDataStreamElementArena arena, long timestamp) {
+        long sendStartTimeInNs = System.nanoTime();
+        long sendTimestamp = System.currentTimeMillis();
+        while (arena.nextEntryProducedBeforeOrAt(timestamp)) {
+            append(new CapturedRecord(arena.getStreamName(), arena.getKey(), arena.getGenerationTimestamp(), sendTimestamp, arena.copyContent()));
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Appends a record to the ring (the ring counts the record as dropped if it is full).
+     *
+     * @param record Record
+     */
+    private void append(CapturedRecord record) {
+        if (this.ring.offer(record)) {
+            this.numRecords++;
+        }
+    }
+
+    /**
+     * Returns the number of records in the ring which have not been read back yet.
+     *
+     * @return Number of records in the ring or 0 if no consumer has been attached to the ring
+     */
+    @Override
+    public long getNumPendingDataStreamElements() {
+        return this.ring.hasConsumer() ? this.ring.size() : 0;
+    }
+
+    /**
+     * Returns how long (in ns) the last send call blocked the simulation thread.
+     *
+     * @return Blocked time (in ns) of the last send call
+     */
+    @Override
+    public long getLastSendBlockedTimeInNs() {
+        return this.lastSendBlockedTimeInNs;
+    }
+
+    /**
+     * Returns the ring into which the records are appended.
+     *
+     * @return Ring
+     */
+    public MemoryRecordRing getRing() {
+        return this.ring;
+    }
+
+    /**
+     * Closes the MemoryStreamWriter and stops the consumer after it has drained the ring (the ring is kept such that the remaining records can still be read back).
+     */
+    @Override
+    public void close() {
+        if (this.consumer != null) {
+            this.consumer.close();
+        }
+        logger.info("Appended {} records to the memory ring {} ({} dropped since the ring was full, {} not read back yet).", new Object[]{this.numRecords, this.ringName, this.ring.getNumDroppedRecords(), this.ring.size()});
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A StreamWriterInterface implementation which discards the data stream elements and only counts the records and bytes (e.g., for measuring the cost of reading, parsing, and pacing without a broker).
+ * The data stream elements are still serialized such that the measured cost matches the cost before sending them to Kafka.
+ */
+public class NullStreamWriter implements StreamWriterInterface {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(NullStreamWriter.class);
+
+    /**
+     * Properties
+     */
+    private final Properties properties;
+
+    /**
+     * Number of consumed records
+     */
+    private long numRecords;
+
+    /**
+     * Number of consumed bytes (content of the records)
+     */
+    private long numBytes;
+
+    /**
+     * Time (in ns) the last send call blocked the simulation thread
+     */
+    private long lastSendBlockedTimeInNs;
+
+    /**
+     * NullStreamWriter constructor.
+     *
+     * @param properties Properties
+     */
+    public NullStreamWriter(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Initializes the NullStreamWriter.
+     */
+    @Override
+    public void initialize() {
+        this.numRecords = 0;
+        this.numBytes = 0;
+        logger.info("Discarding all data stream elements.");
+    }
+
+    /**
+     * Serializes and discards a list of rawPositionSensorData stream elements.
+     *
+     * @param dataStreamElements List of rawPositionSensorData stream elements
+     */
+    @Override
+    public void sendDataStreamElements(List<RawPositionSensorDataStreamElement> dataStreamElements) {
+        long sendStartTimeInNs = System.nanoTime();
+        for (RawPositionSensorDataStreamElement dataStreamElement : dataStreamElements) {
+            this.numBytes += dataStreamElement.getContentAsByteArray().length;
+        }
+        this.numRecords += dataStreamElements.size();
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Discards all pre-serialized rawPositionSensorData stream elements from the arena which are measured before or at a given match timestamp (in ms).
+     *
+     * @param arena     Arena containing the pre-serialized rawPositionSensorData stream elements
+     * @param timestamp Match timestamp (in ms)
+     */
+    @Override
+    public void sendSerializedDataStreamElements(SerializedDataStreamElementArena arena, long timestamp) {
+        long sendStartTimeInNs = System.nanoTime();
+        while (arena.nextEntryProducedBeforeOrAt(timestamp)) {
+            this.numBytes += arena.getContentLength();
+            this.numRecords++;
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Returns the number of pending data stream elements.
+     *
+     * @return 0 since the data stream elements are discarded immediately
+     */
+    @Override
+    public long getNumPendingDataStreamElements() {
+        return 0;
+    }
+
+    /**
+     * Returns how long (in ns) the last send call blocked the simulation thread.
+     *
+     * @return Blocked time (in ns) of the last send call
+     */
+    @Override
+    public long getLastSendBlockedTimeInNs() {
+        return this.lastSendBlockedTimeInNs;
+    }
+
+    /**
+     * Returns the number of consumed records.
+     *
+     * @return Number of consumed records
+     */
+    public long getNumRecords() {
+        return this.numRecords;
+    }
+
+    /**
+     * Returns the number of consumed bytes.
+     *
+     * @return Number of consumed bytes
+     */
+    public long getNumBytes() {
+        return this.numBytes;
+    }
+
+    /**
+     * Closes the NullStreamWriter.
+     */
+    @Override
+    public void close() {
+        logger.info("Discarded {} records ({} bytes).", this.numRecords, this.numBytes);
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.pacing.CatchUpTargetInterface;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Off-heap ring storing serialized rawPositionSensorData stream elements in the order of their generation timestamp.
+ * The elements are serialized once before they are due by a single producer thread (e.g., a SerializedDataStreamElementArenaFiller) such that sending them on the pacing thread only requires copying their bytes.
+ * Every entry has the form (long generationTimestamp, int streamNameRef, int keyRef, int contentLength, byte[] content) where the stream names and keys are stored once in a string table.
+ * Entries are never split at the end of the ring: the remaining bytes are skipped (marked as padding if they can hold an entry header) and the entry is written at the beginning.
+ * Appended entries become visible to the consumer when they are published (e.g., after all entries of a timestamp have been appended).
+ * The entries are read by a single consumer thread via a cursor: nextEntryProducedBeforeOrAt() moves the cursor to the next due entry whose values are afterwards accessible via the getters.
+ */
+public class SerializedDataStreamElementArena implements CatchUpTargetInterface {
+
+    /**
+     * Size of the header of an entry in bytes
+     */
+    private static final int ENTRY_HEADER_SIZE = Long.BYTES + 3 * Integer.BYTES;
+
+    /**
+     * Offset of the content length in the header of an entry
+     */
+    private static final int CONTENT_LENGTH_OFFSET = Long.BYTES + 2 * Integer.BYTES;
+
+    /**
+     * Content length which marks the remaining bytes at the end of the ring as padding
+     */
+    private static final int PADDING_MARKER = -1;
+
+    /**
+     * Off-heap buffer storing the entries (only accessed via absolute gets and puts)
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Duplicate of the buffer which is used by the producer for writing the content of an entry
+     */
+    private final ByteBuffer writeView;
+
+    /**
+     * Duplicate of the buffer which is used by the consumer for copying the content of the current entry
+     */
+    private final ByteBuffer readView;
+
+    /**
+     * Capacity of the ring in bytes
+     */
+    private final int capacity;
+
+    /**
+     * String table (stream names and keys, appended by the producer and read by the consumer)
+     */
+    private final List<String> strings;
+
+    /**
+     * Reference (index in the string table) of every string in the string table (only accessed by the producer)
+     */
+    private final Map<String, Integer> stringRefs;
+
+    /**
+     * Total number of bytes which have been released by the consumer (i.e., which the producer may overwrite)
+     */
+    private volatile long readSequence;
+
+    /**
+     * Total number of bytes which have been read or skipped by the consumer (the current entry is released when the cursor is moved again)
+     */
+    private long cursorSequence;
+
+    /**
+     * Total number of bytes which have been published by the producer
+     */
+    private volatile long publishedSequence;
+
+    /**
+     * Total number of bytes which have been appended by the producer (only accessed by the producer)
+     */
+    private long writeSequence;
+
+    /**
+     * Reflects if the producer has appended the last entry
+     */
+    private volatile boolean finished;
+
+    /**
+     * Reflects if the arena has been closed (waiting threads return)
+     */
+    private volatile boolean closed;
+
+    /**
+     * Producer thread which waits for free bytes (null if it does not wait)
+     */
+    private volatile Thread waitingProducer;
+
+    /**
+     * Number of free bytes the waiting producer waits for
+     */
+    private volatile long requiredFreeBytes;
+
+    /**
+     * Consumer thread which waits for the next entry (null if it does not wait)
+     */
+    private volatile Thread waitingConsumer;
+
+    /**
+     * Generation timestamp of the current entry
+     */
+    private long currentGenerationTimestamp;
+
+    /**
+     * Stream name reference of the current entry
+     */
+    private int currentStreamNameRef;
+
+    /**
+     * Key reference of the current entry
+     */
+    private int currentKeyRef;
+
+    /**
+     * Position of the content of the current entry
+     */
+    private int currentContentPosition;
+
+    /**
+     * Length of the content of the current entry
+     */
+    private int currentContentLength;
+
+    /**
+     * SerializedDataStreamElementArena constructor.
+     *
+     * @param capacityInBytes Capacity of the arena in bytes
+     */
+    public SerializedDataStreamElementArena(int capacityInBytes) {
+        this.buffer = ByteBuffer.allocateDirect(capacityInBytes);
+        this.writeView = this.buffer.duplicate();
+        this.readView = this.buffer.duplicate();
+        this.capacity = capacityInBytes;
+        this.strings = new CopyOnWriteArrayList<>();
+        this.stringRefs = new HashMap<>();
+        this.readSequence = 0;
+        this.cursorSequence = 0;
+        this.publishedSequence = 0;
+        this.writeSequence = 0;
+        this.finished = false;
+        this.closed = false;
+    }
+
+    /**
+     * Serializes a rawPositionSensorData stream element and appends it to the arena (producer only).
+     * Waits until there are enough free bytes if necessary (publishes the already appended entries before waiting).
+     *
+     * @param dataStreamElement rawPositionSensorData stream element
+     * @return True if the element has been appended, false if the arena has been closed while waiting
+     * @throws IllegalStateException Thrown if the element is larger than the arena.
+     */
+    public boolean append(RawPositionSensorDataStreamElement dataStreamElement) {
+        byte[] content = dataStreamElement.getContentAsByteArray();
+        int entrySize = ENTRY_HEADER_SIZE + content.length;
+        if (entrySize > this.capacity) {
+            throw new IllegalStateException("Pre-serialized data stream element does not fit into the arena.");
+        }
+
+        int position = (int) (this.writeSequence % this.capacity);
+        int paddingSize = (this.capacity - position < entrySize) ? this.capacity - position : 0;
+        if (!awaitFreeBytes(paddingSize + entrySize)) {
+            return false;
+        }
+
+        if (paddingSize > 0) {
+            if (paddingSize >= ENTRY_HEADER_SIZE) {
+                this.buffer.putInt(position + CONTENT_LENGTH_OFFSET, PADDING_MARKER);
+            }
+            this.writeSequence += paddingSize;
+            position = 0;
+        }
+
+        this.buffer.putLong(position, dataStreamElement.getGenerationTimestamp());
+        this.buffer.putInt(position + Long.BYTES, getStringRef(dataStreamElement.getStreamName()));
+        this.buffer.putInt(position + Long.BYTES + Integer.BYTES, getStringRef(dataStreamElement.getKey()));
+        this.buffer.putInt(position + CONTENT_LENGTH_OFFSET, content.length);
+        this.writeView.clear();
+        this.writeView.position(position + ENTRY_HEADER_SIZE);
+        this.writeView.put(content);
+        this.writeSequence += entrySize;
+        return true;
+    }
+
+    /**
+     * Returns the reference of a string and adds it to the string table if necessary.
+     *
+     * @param string String
+     * @return Reference of the string
+     */
+    private int getStringRef(String string) {
+        Integer ref = this.stringRefs.get(string);
+        if (ref == null) {
+            ref = this.strings.size();
+            this.strings.add(string);
+            this.stringRefs.put(string, ref);
+        }
+        return ref;
+    }
+
+    /**
+     * Makes all appended entries visible to the consumer (producer only).
+     */
+    public void publish() {
+        if (this.publishedSequence != this.writeSequence) {
+            this.publishedSequence = this.writeSequence;
+            Thread consumer = this.waitingConsumer;
+            if (consumer != null) {
+                LockSupport.unpark(consumer);
+            }
+        }
+    }
+
+    /**
+     * Publishes all appended entries and marks the arena as finished, i.e., no further entries are appended (producer only).
+     */
+    public void finish() {
+        publish();
+        this.finished = true;
+        Thread consumer = this.waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Publishes all appended entries and waits until the arena has at least the given number of free bytes (producer only).
+     *
+     * @param numBytes Number of free bytes
+     * @return True if the arena has enough free bytes, false if the arena has been closed while waiting
+     */
+    public boolean awaitFreeBytes(int numBytes) {
+        if (remaining() >= numBytes) {
+            return !this.closed;
+        }
+        publish(); // the consumer may wait for the already appended entries
+        this.requiredFreeBytes = numBytes;
+        this.waitingProducer = Thread.currentThread();
+        while (!this.closed && remaining() < numBytes) {
+            LockSupport.park(this);
+        }
+        this.waitingProducer = null;
+        return !this.closed;
+    }
+
+    /**
+     * Returns the number of bytes which can be appended before the arena is full (producer only).
+     *
+     * @return Number of free bytes
+     */
+    public int remaining() {
+        return (int) (this.capacity - (this.writeSequence - this.readSequence));
+    }
+
+    /**
+     * Wakes up the waiting threads and lets all further waits return immediately.
+     */
+    public void close() {
+        this.closed = true;
+        Thread producer = this.waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        Thread consumer = this.waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Releases the bytes read so far (including the current entry), returns the position of the next published entry, and skips the padding at the end of the ring if necessary (consumer only).
+     *
+     * @return Position of the next published entry or -1 if there is no published entry
+     */
+    private int nextEntryPosition() {
+        releaseReadBytes();
+        if (this.cursorSequence >= this.publishedSequence) {
+            return -1;
+        }
+        int position = (int) (this.cursorSequence % this.capacity);
+        if (this.capacity - position < ENTRY_HEADER_SIZE || this.buffer.getInt(position + CONTENT_LENGTH_OFFSET) == PADDING_MARKER) {
+            this.cursorSequence += this.capacity - position; // the padding is always published together with the following entry
+            releaseReadBytes();
+            return 0;
+        }
+        return position;
+    }
+
+    /**
+     * Releases the bytes read so far and wakes up the producer if it waits for the free bytes (consumer only).
+     */
+    private void releaseReadBytes() {
+        if (this.readSequence == this.cursorSequence) {
+            return;
+        }
+        this.readSequence = this.cursorSequence;
+        Thread producer = this.waitingProducer;
+        if (producer != null && remaining() >= this.requiredFreeBytes) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    /**
+     * Moves the cursor to the next entry if its generation timestamp is before or at the given match timestamp (in ms).
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return True if the cursor has been moved to the next entry, false if there is no such entry
+     */
+    public boolean nextEntryProducedBeforeOrAt(long timestamp) {
+        int position = nextEntryPosition();
+        if (position < 0 || this.buffer.getLong(position) > timestamp) {
+            return false;
+        }
+
+        this.currentGenerationTimestamp = this.buffer.getLong(position);
+        this.currentStreamNameRef = this.buffer.getInt(position + Long.BYTES);
+        this.currentKeyRef = this.buffer.getInt(position + Long.BYTES + Integer.BYTES);
+        this.currentContentLength = this.buffer.getInt(position + CONTENT_LENGTH_OFFSET);
+        this.currentContentPosition = position + ENTRY_HEADER_SIZE;
+        this.cursorSequence += ENTRY_HEADER_SIZE + this.currentContentLength; // released when the cursor is moved again
+        return true;
+    }
+
+    /**
+     * Drops all published entries whose generation timestamp is before the given match timestamp (in ms).
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return Number of dropped entries
+     */
+    @Override
+    public int dropDataStreamElementsProducedBefore(long timestamp) {
+        int numDroppedEntries = 0;
+        int position = nextEntryPosition();
+        while (position >= 0 && this.buffer.getLong(position) < timestamp) {
+            this.cursorSequence += ENTRY_HEADER_SIZE + this.buffer.getInt(position + CONTENT_LENGTH_OFFSET);
+            numDroppedEntries++;
+            position = nextEntryPosition();
+        }
+        return numDroppedEntries;
+    }
+
+    /**
+     * Drops all published entries whose generation timestamp is before or at the given match timestamp (in ms) except for the entries with the latest of these generation timestamps.
+     * Since the arena does not store to which object an entry belongs, the entries of the latest due timestamp are kept (i.e., the latest entry of every object if all objects are measured at the same timestamps, e.g., outside of match mode).
+     *
+     * @param timestamp Match timestamp (in ms)
+     * @return Number of dropped entries
+     */
+    @Override
+    public int dropAllButLatestDataStreamElementsProducedBeforeOrAt(long timestamp) {
+        long latestDueGenerationTimestamp = Long.MIN_VALUE;
+        long sequence = this.cursorSequence;
+        long publishedSequence = this.publishedSequence;
+        while (sequence < publishedSequence) {
+            int position = (int) (sequence % this.capacity);
+            if (this.capacity - position < ENTRY_HEADER_SIZE || this.buffer.getInt(position + CONTENT_LENGTH_OFFSET) == PADDING_MARKER) {
+                sequence += this.capacity - position;
+                continue;
+            }
+            if (this.buffer.getLong(position) > timestamp) {
+                break;
+            }
+            latestDueGenerationTimestamp = this.buffer.getLong(position);
+            sequence += ENTRY_HEADER_SIZE + this.buffer.getInt(position + CONTENT_LENGTH_OFFSET);
+        }
+        return dropDataStreamElementsProducedBefore(latestDueGenerationTimestamp);
+    }
+
+    /**
+     * Returns the generation timestamp of the current entry.
+     *
+     * @return Generation timestamp
+     */
+    public long getGenerationTimestamp() {
+        return this.currentGenerationTimestamp;
+    }
+
+    /**
+     * Returns the stream name of the current entry.
+     *
+     * @return Stream name
+     */
+    public String getStreamName() {
+        return this.strings.get(this.currentStreamNameRef);
+    }
+
+    /**
+     * Returns the key of the current entry.
+     *
+     * @return Key
+     */
+    public String getKey() {
+        return this.strings.get(this.currentKeyRef);
+    }
+
+    /**
+     * Returns the key reference of the current entry (i.e., entries with the same key have the same key reference).
+     *
+     * @return Key reference
+     */
+    public int getKeyRef() {
+        return this.currentKeyRef;
+    }
+
+    /**
+     * Copies the content of the current entry.
+     *
+     * @return Content (serialized rawPositionSensorData stream element)
+     */
+    public byte[] copyContent() {
+        byte[] content = new byte[this.currentContentLength];
+        this.readView.clear();
+        this.readView.position(this.currentContentPosition);
+        this.readView.get(content);
+        return content;
+    }
+
+    /**
+     * Returns the length of the content of the current entry.
+     *
+     * @return Content length (in bytes)
+     */
+    public int getContentLength() {
+        return this.currentContentLength;
+    }
+
+    /**
+     * Copies the content of the current entry into a target buffer (without allocating a byte array).
+     *
+     * @param target Buffer with at least getContentLength() remaining bytes
+     */
+    public void copyContentTo(ByteBuffer target) {
+        this.readView.limit(this.currentContentPosition + this.currentContentLength);
+        this.readView.position(this.currentContentPosition);
+        target.put(this.readView);
+    }
+
+    /**
+     * Returns the generation timestamp of the next entry without moving the cursor (consumer only).
+     * Waits until the producer has published the next entry if necessary.
+     *
+     * @return Generation timestamp of the next entry or Long.MAX_VALUE if all entries have been read
+     */
+    public long peekNextGenerationTimestamp() {
+        int position = nextEntryPosition();
+        if (position < 0) {
+            this.waitingConsumer = Thread.currentThread();
+            while ((position = nextEntryPosition()) < 0 && !this.finished && !this.closed) {
+                LockSupport.park(this);
+            }
+            this.waitingConsumer = null;
+            if (position < 0) {
+                position = nextEntryPosition(); // entries published right before finishing
+            }
+        }
+        return (position < 0) ? Long.MAX_VALUE : this.buffer.getLong(position);
+    }
+}
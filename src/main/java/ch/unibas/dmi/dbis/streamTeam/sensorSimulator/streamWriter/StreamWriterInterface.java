@@ -30,6 +30,7 @@ public interface StreamWriterInterface extends Closeable {
 
     /**
      * Initializes the StreamWriter.
+     * Returns as soon as the StreamWriter is ready to send data stream elements since the simulation may start right afterwards.
      *
      * @throws StreamWriterInitializationException Thrown if the StreamWriterInterface implementation could not have been initialized.
      */
@@ -37,11 +38,34 @@ public interface StreamWriterInterface extends Closeable {
 
     /**
      * Sends a list of rawPositionSensorData stream elements.
+     * The list may be reused by the caller after the method returns.
      *
      * @param dataStreamElements List of rawPositionSensorData stream elements
      */
     void sendDataStreamElements(List<RawPositionSensorDataStreamElement> dataStreamElements);
 
+    /**
+     * Sends all pre-serialized rawPositionSensorData stream elements from the arena which are measured before or at a given match timestamp (in ms).
+     *
+     * @param arena     Arena containing the pre-serialized rawPositionSensorData stream elements
+     * @param timestamp Match timestamp (in ms)
+     */
+    void sendSerializedDataStreamElements(SerializedDataStreamElementArena arena, long timestamp);
+
+    /**
+     * Returns the number of data stream elements which have been handed to the StreamWriter but are not sent yet (backpressure signal).
+     *
+     * @return Number of pending data stream elements (0 if the StreamWriter sends synchronously)
+     */
+    long getNumPendingDataStreamElements();
+
+    /**
+     * Returns how long (in ns) the last call of sendDataStreamElements() or sendSerializedDataStreamElements() blocked the simulation thread (backpressure signal).
+     *
+     * @return Blocked time (in ns) of the last send call
+     */
+    long getLastSendBlockedTimeInNs();
+
     /**
      * Closes the StreamWriter.
      */
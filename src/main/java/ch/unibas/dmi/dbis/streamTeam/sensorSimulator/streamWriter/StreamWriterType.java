@@ -32,6 +32,51 @@ public enum StreamWriterType {
         public StreamWriterInterface getStreamWriter(Properties properties) {
             return new KafkaStreamWriter(properties);
         }
+    },
+    /**
+     * FileStreamWriter.
+     */
+    FILE {
+        @Override
+        public StreamWriterInterface getStreamWriter(Properties properties) {
+            return new FileStreamWriter(properties);
+        }
+    },
+    /**
+     * NullStreamWriter.
+     */
+    NULL {
+        @Override
+        public StreamWriterInterface getStreamWriter(Properties properties) {
+            return new NullStreamWriter(properties);
+        }
+    },
+    /**
+     * MemoryStreamWriter.
+     */
+    MEMORY {
+        @Override
+        public StreamWriterInterface getStreamWriter(Properties properties) {
+            return new MemoryStreamWriter(properties);
+        }
+    },
+    /**
+     * TcpStreamWriter.
+     */
+    TCP {
+        @Override
+        public StreamWriterInterface getStreamWriter(Properties properties) {
+            return new TcpStreamWriter(properties);
+        }
+    },
+    /**
+     * UdpMulticastStreamWriter.
+     */
+    UDP_MULTICAST {
+        @Override
+        public StreamWriterInterface getStreamWriter(Properties properties) {
+            return new UdpMulticastStreamWriter(properties);
+        }
     };
 
     /**
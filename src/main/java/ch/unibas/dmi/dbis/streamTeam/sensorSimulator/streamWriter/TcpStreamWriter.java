@@ -0,0 +1,658 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.MatchMetadataHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.Utf8Cache;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A StreamWriterInterface implementation which streams the data stream elements as length-prefixed frames to all clients which are connected to a TCP server socket (e.g., the live visualizer), without a broker in between.
+ * The simulation thread encodes all frames of a send call into a single batch (write coalescing) and appends it to the bounded queue of every connected client.
+ * A selector thread writes the queued batches to the non-blocking SocketChannels (with gathering writes of several batches if a client fell behind).
+ * If the queue of a client is full, the batch is dropped for this client (and counted) such that a slow client neither blocks the simulation nor the other clients.
+ * <p>
+ * Stream format (big-endian): int MAGIC, int VERSION, followed by the frames.
+ * Frame: int length of the rest of the frame, short topic length, topic (UTF-8), short key length, key (UTF-8), long generation timestamp (match ms), long send timestamp (system ms), payload (protobuf-serialized data stream element, i.e., the rest of the frame).
+ * Clients which connect after the match announcer has been initialized receive the matchMetadata frame directly after the stream header.
+ */
+public class TcpStreamWriter implements StreamWriterInterface {
+
+    /**
+     * Magic number at the beginning of the stream ("STCP")
+     */
+    public static final int MAGIC = 0x53544350;
+
+    /**
+     * Version of the stream format
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Size of the fixed-size fields of a frame in bytes
+     */
+    public static final int FIXED_FRAME_SIZE = Integer.BYTES + Short.BYTES + Short.BYTES + Long.BYTES + Long.BYTES;
+
+    /**
+     * Maximal number of batches which are written to a client with a single gathering write
+     */
+    private static final int MAX_BATCHES_PER_WRITE = 64;
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TcpStreamWriter.class);
+
+    /**
+     * Properties
+     */
+    private final Properties properties;
+
+    /**
+     * Currently connected clients
+     */
+    private final List<ClientConnection> clients;
+
+    /**
+     * UTF-8 encodings of the topics and keys
+     */
+    private final Utf8Cache utf8Cache;
+
+    /**
+     * Server socket channel which accepts the clients
+     */
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * Selector of the selector thread
+     */
+    private Selector selector;
+
+    /**
+     * Thread which accepts the clients and writes the queued batches
+     */
+    private Thread selectorThread;
+
+    /**
+     * Reflects if the writer is closed (the selector thread writes the remaining batches and terminates)
+     */
+    private volatile boolean closed;
+
+    /**
+     * Maximal number of batches in the queue of a client
+     */
+    private int maxQueuedBatchesPerClient;
+
+    /**
+     * Maximal time (in ms) the remaining batches are written when the writer is closed
+     */
+    private long closeTimeoutInMs;
+
+    /**
+     * Latch which is counted down by every new client until streamWriter.tcp.numClientsToAwait clients have connected
+     */
+    private CountDownLatch awaitedClientsLatch;
+
+    /**
+     * Stream header and (if this simulator is the match announcer) matchMetadata frame which are sent to every new client
+     */
+    private ByteBuffer welcomeBatch;
+
+    /**
+     * Reusable buffer in which the frames of a send call are encoded
+     */
+    private ByteBuffer encodeBuffer;
+
+    /**
+     * Number of frames which have been encoded
+     */
+    private long numFrames;
+
+    /**
+     * Number of batches which have been dropped for a client since its queue was full
+     */
+    private final AtomicLong numDroppedBatches;
+
+    /**
+     * Time (in ns) the last send call blocked the simulation thread
+     */
+    private long lastSendBlockedTimeInNs;
+
+    /**
+     * TcpStreamWriter constructor.
+     *
+     * @param properties Properties
+     */
+    public TcpStreamWriter(Properties properties) {
+        this.properties = properties;
+        this.clients = new CopyOnWriteArrayList<>();
+        this.utf8Cache = new Utf8Cache();
+        this.numDroppedBatches = new AtomicLong(0);
+    }
+
+    /**
+     * Initializes the TcpStreamWriter, i.e., binds the server socket, starts the selector thread, and waits until streamWriter.tcp.numClientsToAwait clients are connected (at most streamWriter.tcp.awaitClientsTimeoutInMs).
+     *
+     * @throws StreamWriterInitializationException Thrown if the server socket could not have been bound.
+     */
+    @Override
+    public void initialize() throws StreamWriterInitializationException {
+        String bindAddress = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.tcp.bindAddress");
+        int port = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.tcp.port");
+        int bufferSizeInBytes = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.tcp.bufferSizeInBytes");
+        this.maxQueuedBatchesPerClient = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.tcp.maxQueuedBatchesPerClient");
+        this.closeTimeoutInMs = PropertyReadHelper.readLongOrDie(this.properties, "streamWriter.tcp.closeTimeoutInMs");
+        int numClientsToAwait = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.tcp.numClientsToAwait");
+        long awaitClientsTimeoutInMs = PropertyReadHelper.readLongOrDie(this.properties, "streamWriter.tcp.awaitClientsTimeoutInMs");
+
+        if (this.maxQueuedBatchesPerClient < 1) {
+            throw new StreamWriterInitializationException("streamWriter.tcp.maxQueuedBatchesPerClient has to be at least 1.");
+        }
+
+        this.encodeBuffer = ByteBuffer.allocate(bufferSizeInBytes);
+        this.encodeBuffer.putInt(MAGIC);
+        this.encodeBuffer.putInt(VERSION);
+        try {
+            MatchMetadataHelper.sendMatchMetadataIfMatchAnnouncer(this.properties, (streamName, key, generationTimestamp, content) -> encodeFrame(streamName, key, generationTimestamp, System.currentTimeMillis(), content));
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        this.welcomeBatch = takeEncodedBatch();
+        this.awaitedClientsLatch = new CountDownLatch(Math.max(numClientsToAwait, 0));
+
+        try {
+            this.selector = Selector.open();
+            this.serverChannel = ServerSocketChannel.open();
+            this.serverChannel.bind(new InetSocketAddress(bindAddress, port));
+            this.serverChannel.configureBlocking(false);
+            this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new StreamWriterInitializationException("Cannot bind the TCP server socket to " + bindAddress + ":" + port + ": " + e.getMessage());
+        }
+
+        this.closed = false;
+        this.selectorThread = new Thread(this::runSelectorLoop, "tcpStreamWriter");
+        this.selectorThread.setDaemon(true);
+        this.selectorThread.start();
+        logger.info("Listening for clients on {}:{}.", bindAddress, port);
+
+        try {
+            this.awaitedClientsLatch.await(awaitClientsTimeoutInMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            logger.error("Caught exception.", e);
+        }
+        if (this.clients.size() < numClientsToAwait) {
+            logger.info("Only {} of {} clients connected within {} ms.", new Object[]{this.clients.size(), numClientsToAwait, awaitClientsTimeoutInMs});
+        }
+    }
+
+    /**
+     * Streams a list of rawPositionSensorData stream elements to all connected clients.
+     *
+     * @param dataStreamElements List of rawPositionSensorData stream elements
+     */
+    @Override
+    public void sendDataStreamElements(List<RawPositionSensorDataStreamElement> dataStreamElements) {
+        long sendStartTimeInNs = System.nanoTime();
+        if (!this.clients.isEmpty() && !dataStreamElements.isEmpty()) {
+            long sendTimestamp = System.currentTimeMillis();
+            for (RawPositionSensorDataStreamElement dataStreamElement : dataStreamElements) {
+                encodeFrame(dataStreamElement.getStreamName(), dataStreamElement.getKey(), dataStreamElement.getGenerationTimestamp(), sendTimestamp, dataStreamElement.getContentAsByteArray());
+            }
+            enqueueBatch(takeEncodedBatch(), dataStreamElements.size());
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Streams all pre-serialized rawPositionSensorData stream elements from the arena which are measured before or at a given match timestamp (in ms) to all connected clients (the elements are consumed also if no client is connected).
+     *
+     * @param arena     Arena containing the pre-serialized rawPositionSensorData stream elements
+     * @param timestamp Match timestamp (in ms)
+     */
+    @Override
+    public void sendSerializedDataStreamElements(SerializedDataStreamElementArena arena, long timestamp) {
+        long sendStartTimeInNs = System.nanoTime();
+        long sendTimestamp = System.currentTimeMillis();
+        boolean hasClients = !this.clients.isEmpty();
+        int numBatchFrames = 0;
+        while (arena.nextEntryProducedBeforeOrAt(timestamp)) {
+            if (hasClients) {
+                byte[] topicBytes = this.utf8Cache.encode(arena.getStreamName());
+                byte[] keyBytes = this.utf8Cache.encode(arena.getKey());
+                putFrameHeader(topicBytes, keyBytes, arena.getGenerationTimestamp(), sendTimestamp, arena.getContentLength());
+                arena.copyContentTo(this.encodeBuffer);
+                numBatchFrames++;
+            }
+        }
+        if (numBatchFrames > 0) {
+            enqueueBatch(takeEncodedBatch(), numBatchFrames);
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Encodes a frame into the encode buffer.
+     *
+     * @param topic               Topic
+     * @param key                 Key
+     * @param generationTimestamp Generation timestamp (in match ms)
+     * @param sendTimestamp       Send timestamp (in system ms)
+     * @param payload             Payload
+     */
+    private void encodeFrame(String topic, String key, long generationTimestamp, long sendTimestamp, byte[] payload) {
+        putFrameHeader(this.utf8Cache.encode(topic), this.utf8Cache.encode(key), generationTimestamp, sendTimestamp, payload.length);
+        this.encodeBuffer.put(payload);
+    }
+
+    /**
+     * Encodes all fields of a frame except for the payload into the encode buffer (and grows the encode buffer if the frame does not fit).
+     *
+     * @param topicBytes          UTF-8 encoded topic
+     * @param keyBytes            UTF-8 encoded key
+     * @param generationTimestamp Generation timestamp (in match ms)
+     * @param sendTimestamp       Send timestamp (in system ms)
+     * @param payloadLength       Length of the payload
+     */
+    private void putFrameHeader(byte[] topicBytes, byte[] keyBytes, long generationTimestamp, long sendTimestamp, int payloadLength) {
+        int frameSize = FIXED_FRAME_SIZE + topicBytes.length + keyBytes.length + payloadLength;
+        if (frameSize > this.encodeBuffer.remaining()) {
+            ByteBuffer largerBuffer = ByteBuffer.allocate(Math.max(2 * this.encodeBuffer.capacity(), this.encodeBuffer.position() + frameSize));
+            this.encodeBuffer.flip();
+            largerBuffer.put(this.encodeBuffer);
+            this.encodeBuffer = largerBuffer;
+        }
+
+        this.encodeBuffer.putInt(frameSize - Integer.BYTES);
+        this.encodeBuffer.putShort((short) topicBytes.length);
+        this.encodeBuffer.put(topicBytes);
+        this.encodeBuffer.putShort((short) keyBytes.length);
+        this.encodeBuffer.put(keyBytes);
+        this.encodeBuffer.putLong(generationTimestamp);
+        this.encodeBuffer.putLong(sendTimestamp);
+        this.numFrames++;
+    }
+
+    /**
+     * Copies the encoded frames into a new read-only batch and clears the encode buffer.
+     *
+     * @return Batch
+     */
+    private ByteBuffer takeEncodedBatch() {
+        ByteBuffer batch = ByteBuffer.wrap(Arrays.copyOf(this.encodeBuffer.array(), this.encodeBuffer.position())).asReadOnlyBuffer();
+        this.encodeBuffer.clear();
+        return batch;
+    }
+
+    /**
+     * Appends a batch to the queue of every connected client and wakes up the selector thread.
+     *
+     * @param batch          Batch
+     * @param numBatchFrames Number of frames in the batch
+     */
+    private void enqueueBatch(ByteBuffer batch, int numBatchFrames) {
+        for (ClientConnection client : this.clients) {
+            if (!client.enqueue(new FrameBatch(batch.duplicate(), numBatchFrames))) {
+                this.numDroppedBatches.incrementAndGet();
+            }
+        }
+        this.selector.wakeup();
+    }
+
+    /**
+     * Accepts new clients and writes the queued batches until the writer is closed and all batches are written (or the close timeout has passed).
+     */
+    private void runSelectorLoop() {
+        long closeDeadlineInMs = Long.MAX_VALUE;
+        try {
+            while (true) {
+                if (this.closed) {
+                    if (closeDeadlineInMs == Long.MAX_VALUE) {
+                        closeDeadlineInMs = System.currentTimeMillis() + this.closeTimeoutInMs;
+                    }
+                    if (!hasQueuedBatches() || System.currentTimeMillis() >= closeDeadlineInMs) {
+                        break;
+                    }
+                }
+
+                this.selector.select(this.closed ? 10 : 0);
+
+                Iterator<SelectionKey> keyIterator = this.selector.selectedKeys().iterator();
+                while (keyIterator.hasNext()) {
+                    SelectionKey key = keyIterator.next();
+                    keyIterator.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            acceptClient();
+                        } else if (key.isReadable()) {
+                            ((ClientConnection) key.attachment()).discardInput();
+                        }
+                    } catch (RuntimeException e) { // must not terminate the selector thread (the other clients are still served)
+                        logger.error("Caught exception.", e);
+                    }
+                }
+
+                for (ClientConnection client : this.clients) {
+                    client.writeQueuedBatches();
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (!this.closed) {
+                logger.error("Caught exception.", e);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Caught exception, the TcpStreamWriter stops streaming.", e);
+        }
+    }
+
+    /**
+     * Accepts a new client and queues the welcome batch for it.
+     *
+     * @throws IOException Thrown in case of an IOException while accepting the client.
+     */
+    private void acceptClient() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        ClientConnection client = new ClientConnection(channel, this.maxQueuedBatchesPerClient);
+        client.key = channel.register(this.selector, SelectionKey.OP_READ, client);
+        client.enqueue(new FrameBatch(this.welcomeBatch.duplicate(), 0));
+        this.clients.add(client);
+        this.awaitedClientsLatch.countDown();
+        logger.info("Client {} connected ({} clients).", channel.getRemoteAddress(), this.clients.size());
+    }
+
+    /**
+     * Checks if a client has batches which are not written completely.
+     *
+     * @return True if a client has batches which are not written completely
+     */
+    private boolean hasQueuedBatches() {
+        for (ClientConnection client : this.clients) {
+            if (client.hasQueuedBatches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes and closes a client after it disconnected or a write failed.
+     *
+     * @param client Client
+     */
+    private void disconnectClient(ClientConnection client) {
+        this.clients.remove(client);
+        client.key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        logger.info("Client disconnected ({} clients, {} frames were not delivered).", this.clients.size(), client.numQueuedFrames.get());
+    }
+
+    /**
+     * Returns the maximal number of frames which are queued for a single client (i.e., the backpressure of the slowest client).
+     *
+     * @return Number of queued frames of the slowest client
+     */
+    @Override
+    public long getNumPendingDataStreamElements() {
+        long maxNumQueuedFrames = 0;
+        for (ClientConnection client : this.clients) {
+            maxNumQueuedFrames = Math.max(maxNumQueuedFrames, client.numQueuedFrames.get());
+        }
+        return maxNumQueuedFrames;
+    }
+
+    /**
+     * Returns how long (in ns) the last send call blocked the simulation thread (encoding and queueing, the frames are written by the selector thread).
+     *
+     * @return Blocked time (in ns) of the last send call
+     */
+    @Override
+    public long getLastSendBlockedTimeInNs() {
+        return this.lastSendBlockedTimeInNs;
+    }
+
+    /**
+     * Returns the number of currently connected clients.
+     *
+     * @return Number of connected clients
+     */
+    public int getNumClients() {
+        return this.clients.size();
+    }
+
+    /**
+     * Closes the TcpStreamWriter, i.e., writes the remaining batches (at most streamWriter.tcp.closeTimeoutInMs) and closes all connections.
+     */
+    @Override
+    public void close() {
+        if (this.selectorThread == null || this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.selector.wakeup();
+        try {
+            this.selectorThread.join();
+        } catch (InterruptedException e) {
+            logger.error("Caught exception.", e);
+        }
+        for (ClientConnection client : this.clients) {
+            disconnectClient(client);
+        }
+        try {
+            this.serverChannel.close();
+            this.selector.close();
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        logger.info("Encoded {} frames ({} batches dropped for slow clients).", this.numFrames, this.numDroppedBatches.get());
+    }
+
+    /**
+     * Batch of encoded frames together with the number of frames it contains.
+     */
+    private static class FrameBatch {
+
+        /**
+         * Buffer containing the frames (own position for every client)
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Number of frames in the buffer
+         */
+        private final int numFrames;
+
+        /**
+         * FrameBatch constructor.
+         *
+         * @param buffer    Buffer containing the frames
+         * @param numFrames Number of frames in the buffer
+         */
+        private FrameBatch(ByteBuffer buffer, int numFrames) {
+            this.buffer = buffer;
+            this.numFrames = numFrames;
+        }
+    }
+
+    /**
+     * Connection to a client with its bounded queue of batches.
+     */
+    private class ClientConnection {
+
+        /**
+         * Socket channel of the client
+         */
+        private final SocketChannel channel;
+
+        /**
+         * Batches which are not written yet (filled by the simulation thread, emptied by the selector thread)
+         */
+        private final ArrayBlockingQueue<FrameBatch> queue;
+
+        /**
+         * Number of frames in the queue
+         */
+        private final AtomicLong numQueuedFrames;
+
+        /**
+         * Batches which are currently written (only accessed by the selector thread)
+         */
+        private final ArrayDeque<FrameBatch> writing;
+
+        /**
+         * Reusable array of the buffers of a gathering write
+         */
+        private final ByteBuffer[] writeBuffers;
+
+        /**
+         * Reusable buffer for discarding the input of the client
+         */
+        private final ByteBuffer discardBuffer;
+
+        /**
+         * Selection key of the channel
+         */
+        private SelectionKey key;
+
+        /**
+         * ClientConnection constructor.
+         *
+         * @param channel          Socket channel of the client
+         * @param maxQueuedBatches Maximal number of batches in the queue
+         */
+        private ClientConnection(SocketChannel channel, int maxQueuedBatches) {
+            this.channel = channel;
+            this.queue = new ArrayBlockingQueue<>(maxQueuedBatches);
+            this.numQueuedFrames = new AtomicLong(0);
+            this.writing = new ArrayDeque<>(MAX_BATCHES_PER_WRITE);
+            this.writeBuffers = new ByteBuffer[MAX_BATCHES_PER_WRITE];
+            this.discardBuffer = ByteBuffer.allocate(256);
+        }
+
+        /**
+         * Appends a batch to the queue (without blocking).
+         *
+         * @param batch Batch
+         * @return True if the batch has been appended, false if the queue was full
+         */
+        private boolean enqueue(FrameBatch batch) {
+            if (this.queue.offer(batch)) {
+                this.numQueuedFrames.addAndGet(batch.numFrames);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Checks if the client has batches which are not written completely.
+         *
+         * @return True if the client has batches which are not written completely
+         */
+        private boolean hasQueuedBatches() {
+            return !this.writing.isEmpty() || !this.queue.isEmpty();
+        }
+
+        /**
+         * Writes as many queued batches as the socket accepts with gathering writes and registers the write interest if the socket is full.
+         */
+        private void writeQueuedBatches() {
+            if (!this.key.isValid()) {
+                return; // disconnected while iterating over the clients
+            }
+            try {
+                while (true) {
+                    while (this.writing.size() < MAX_BATCHES_PER_WRITE) {
+                        FrameBatch batch = this.queue.poll();
+                        if (batch == null) {
+                            break;
+                        }
+                        this.writing.addLast(batch);
+                    }
+                    if (this.writing.isEmpty()) {
+                        this.key.interestOps(SelectionKey.OP_READ);
+                        return;
+                    }
+
+                    int numBuffers = 0;
+                    for (FrameBatch batch : this.writing) {
+                        this.writeBuffers[numBuffers++] = batch.buffer;
+                    }
+                    long numWrittenBytes = this.channel.write(this.writeBuffers, 0, numBuffers);
+
+                    while (!this.writing.isEmpty() && !this.writing.peekFirst().buffer.hasRemaining()) {
+                        this.numQueuedFrames.addAndGet(-this.writing.pollFirst().numFrames);
+                    }
+                    if (numWrittenBytes == 0 || !this.writing.isEmpty()) {
+                        this.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE); // socket buffer is full
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                disconnectClient(this);
+            }
+        }
+
+        /**
+         * Reads and discards the input of the client (clients do not send anything) and detects if the client disconnected.
+         */
+        private void discardInput() {
+            try {
+                this.discardBuffer.clear();
+                if (this.channel.read(this.discardBuffer) < 0) {
+                    disconnectClient(this);
+                }
+            } catch (IOException e) {
+                disconnectClient(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter;
+
+import ch.unibas.dmi.dbis.streamTeam.dataStreamElements.football.RawPositionSensorDataStreamElement;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.MatchMetadataHelper;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.Utf8Cache;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A StreamWriterInterface implementation which sends the data stream elements to a UDP multicast group, i.e., every datagram is sent once regardless of the number of receivers (e.g., analytics workers on the same LAN).
+ * The elements of a send call are packed into datagrams of at most streamWriter.udpMulticast.maxDatagramSizeInBytes bytes, whereby a datagram only contains elements of the same topic and generation timestamp.
+ * An element which does not fit into such a datagram (e.g., the matchMetadata element of a real match) is sent alone in a larger datagram of at most 65507 bytes which is fragmented by IP.
+ * Every datagram carries the identifier of the sender and a sequence number which is incremented per datagram such that the receivers can detect lost datagrams.
+ * <p>
+ * Datagram format (big-endian): int MAGIC, byte VERSION, long sender identifier, long sequence number, long generation timestamp (match ms), long send timestamp (system ms), short topic length, topic (UTF-8), short number of elements, followed by the elements.
+ * Element: short key length, key (UTF-8), unsigned short payload length, payload (protobuf-serialized data stream element).
+ */
+public class UdpMulticastStreamWriter implements StreamWriterInterface {
+
+    /**
+     * Magic number at the beginning of every datagram ("STMC")
+     */
+    public static final int MAGIC = 0x53544d43;
+
+    /**
+     * Version of the datagram format
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * Size of the fixed-size fields of the datagram header in bytes
+     */
+    public static final int FIXED_HEADER_SIZE = Integer.BYTES + Byte.BYTES + 4 * Long.BYTES + Short.BYTES + Short.BYTES;
+
+    /**
+     * Maximal payload size of a UDP datagram (over IPv4) in bytes
+     */
+    public static final int MAX_UDP_PAYLOAD_SIZE = 65507;
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(UdpMulticastStreamWriter.class);
+
+    /**
+     * Properties
+     */
+    private final Properties properties;
+
+    /**
+     * UTF-8 encodings of the topics and keys
+     */
+    private final Utf8Cache utf8Cache;
+
+    /**
+     * Channel which sends the datagrams
+     */
+    private DatagramChannel channel;
+
+    /**
+     * Address of the multicast group
+     */
+    private InetSocketAddress groupAddress;
+
+    /**
+     * Buffer in which the current datagram is packed (limited to maxDatagramSizeInBytes unless the datagram contains a single larger element)
+     */
+    private ByteBuffer datagram;
+
+    /**
+     * Maximal size of a datagram with several elements in bytes
+     */
+    private int maxDatagramSizeInBytes;
+
+    /**
+     * Reflects if the current datagram is larger than maxDatagramSizeInBytes (it contains a single element and is sent before the next element is packed)
+     */
+    private boolean largeDatagram;
+
+    /**
+     * Identifier of this sender
+     */
+    private long senderId;
+
+    /**
+     * Sequence number of the next datagram
+     */
+    private long nextSequenceNumber;
+
+    /**
+     * Topic of the elements in the current datagram (null if no datagram is open)
+     */
+    private String datagramTopic;
+
+    /**
+     * Generation timestamp of the elements in the current datagram
+     */
+    private long datagramGenerationTimestamp;
+
+    /**
+     * Number of elements in the current datagram
+     */
+    private int numDatagramElements;
+
+    /**
+     * Position of the number of elements in the current datagram
+     */
+    private int numElementsPosition;
+
+    /**
+     * Number of sent datagrams
+     */
+    private long numDatagrams;
+
+    /**
+     * Number of sent elements
+     */
+    private long numElements;
+
+    /**
+     * Number of sent bytes
+     */
+    private long numBytes;
+
+    /**
+     * Number of datagrams which have been larger than maxDatagramSizeInBytes
+     */
+    private long numLargeDatagrams;
+
+    /**
+     * Number of elements which have not been sent since they do not fit into a single UDP datagram
+     */
+    private long numOversizedElements;
+
+    /**
+     * Time (in ns) the last send call blocked the simulation thread
+     */
+    private long lastSendBlockedTimeInNs;
+
+    /**
+     * UdpMulticastStreamWriter constructor.
+     *
+     * @param properties Properties
+     */
+    public UdpMulticastStreamWriter(Properties properties) {
+        this.properties = properties;
+        this.utf8Cache = new Utf8Cache();
+    }
+
+    /**
+     * Initializes the UdpMulticastStreamWriter, i.e., opens the channel and sends the matchMetadata element if this simulator is the match announcer.
+     *
+     * @throws StreamWriterInitializationException Thrown if the channel could not have been opened.
+     */
+    @Override
+    public void initialize() throws StreamWriterInitializationException {
+        String group = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.udpMulticast.group");
+        int port = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.udpMulticast.port");
+        String networkInterfaceName = PropertyReadHelper.readStringOrDie(this.properties, "streamWriter.udpMulticast.networkInterface");
+        int ttl = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.udpMulticast.ttl");
+        boolean loopback = PropertyReadHelper.readBooleanOrDie(this.properties, "streamWriter.udpMulticast.loopback");
+        this.maxDatagramSizeInBytes = PropertyReadHelper.readIntOrDie(this.properties, "streamWriter.udpMulticast.maxDatagramSizeInBytes");
+
+        if (this.maxDatagramSizeInBytes <= FIXED_HEADER_SIZE || this.maxDatagramSizeInBytes > MAX_UDP_PAYLOAD_SIZE) {
+            throw new StreamWriterInitializationException("streamWriter.udpMulticast.maxDatagramSizeInBytes has to be between " + (FIXED_HEADER_SIZE + 1) + " and " + MAX_UDP_PAYLOAD_SIZE + ".");
+        }
+
+        try {
+            this.groupAddress = new InetSocketAddress(InetAddress.getByName(group), port);
+            if (!this.groupAddress.getAddress().isMulticastAddress()) {
+                throw new StreamWriterInitializationException(group + " is not a multicast address.");
+            }
+            this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+            if (!networkInterfaceName.isEmpty()) {
+                NetworkInterface networkInterface = NetworkInterface.getByName(networkInterfaceName);
+                if (networkInterface == null) {
+                    throw new StreamWriterInitializationException("Unknown network interface " + networkInterfaceName + ".");
+                }
+                this.channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+            }
+            this.channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, ttl);
+            this.channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, loopback);
+        } catch (IOException e) {
+            throw new StreamWriterInitializationException("Cannot open the multicast channel for " + group + ":" + port + ": " + e.getMessage());
+        }
+
+        this.datagram = ByteBuffer.allocateDirect(MAX_UDP_PAYLOAD_SIZE);
+        this.datagram.limit(this.maxDatagramSizeInBytes);
+        this.largeDatagram = false;
+        this.senderId = ThreadLocalRandom.current().nextLong();
+        this.nextSequenceNumber = 0;
+        this.datagramTopic = null;
+        logger.info("Sending datagrams to the multicast group {}:{} (sender {}).", new Object[]{group, port, Long.toHexString(this.senderId)});
+
+        try {
+            MatchMetadataHelper.sendMatchMetadataIfMatchAnnouncer(this.properties, (streamName, key, generationTimestamp, content) -> {
+                if (prepareElement(streamName, key, generationTimestamp, System.currentTimeMillis(), content.length)) {
+                    this.datagram.put(content);
+                    sendDatagram();
+                }
+            });
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+    }
+
+    /**
+     * Sends a list of rawPositionSensorData stream elements to the multicast group.
+     *
+     * @param dataStreamElements List of rawPositionSensorData stream elements
+     */
+    @Override
+    public void sendDataStreamElements(List<RawPositionSensorDataStreamElement> dataStreamElements) {
+        long sendStartTimeInNs = System.nanoTime();
+        long sendTimestamp = System.currentTimeMillis();
+        try {
+            for (RawPositionSensorDataStreamElement dataStreamElement : dataStreamElements) {
+                byte[] content = dataStreamElement.getContentAsByteArray();
+                if (prepareElement(dataStreamElement.getStreamName(), dataStreamElement.getKey(), dataStreamElement.getGenerationTimestamp(), sendTimestamp, content.length)) {
+                    this.datagram.put(content);
+                }
+            }
+            sendDatagram();
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Sends all pre-serialized rawPositionSensorData stream elements from the arena which are measured before or at a given match timestamp (in ms) to the multicast group.
+     *
+     * @param arena     Arena containing the pre-serialized rawPositionSensorData stream elements
+     * @param timestamp Match timestamp (in ms)
+     */
+    @Override
+    public void sendSerializedDataStreamElements(SerializedDataStreamElementArena arena, long timestamp) {
+        long sendStartTimeInNs = System.nanoTime();
+        long sendTimestamp = System.currentTimeMillis();
+        try {
+            while (arena.nextEntryProducedBeforeOrAt(timestamp)) {
+                if (prepareElement(arena.getStreamName(), arena.getKey(), arena.getGenerationTimestamp(), sendTimestamp, arena.getContentLength())) {
+                    arena.copyContentTo(this.datagram);
+                }
+            }
+            sendDatagram();
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        this.lastSendBlockedTimeInNs = System.nanoTime() - sendStartTimeInNs;
+    }
+
+    /**
+     * Makes sure that the current datagram has the topic and generation timestamp of the element and enough space for it (otherwise the current datagram is sent and a new one is started) and writes the key and the payload length of the element.
+     * An element which does not fit into a datagram of maxDatagramSizeInBytes bytes is packed alone into a larger datagram.
+     *
+     * @param topic               Topic
+     * @param key                 Key
+     * @param generationTimestamp Generation timestamp (in match ms)
+     * @param sendTimestamp       Send timestamp (in system ms)
+     * @param payloadLength       Length of the payload
+     * @return True if the payload has to be written into the datagram, false if the element does not fit into a single UDP datagram and is skipped
+     * @throws IOException Thrown in case of an IOException while sending the current datagram.
+     */
+    private boolean prepareElement(String topic, String key, long generationTimestamp, long sendTimestamp, int payloadLength) throws IOException {
+        byte[] topicBytes = this.utf8Cache.encode(topic);
+        byte[] keyBytes = this.utf8Cache.encode(key);
+        int elementSize = Short.BYTES + keyBytes.length + Short.BYTES + payloadLength;
+        int singleElementDatagramSize = FIXED_HEADER_SIZE + topicBytes.length + elementSize;
+
+        if (singleElementDatagramSize > MAX_UDP_PAYLOAD_SIZE) {
+            this.numOversizedElements++;
+            logger.error("Skipped element of {} with {} bytes since it does not fit into a UDP datagram.", key, payloadLength);
+            return false;
+        }
+
+        if (this.datagramTopic != null && (this.largeDatagram || !this.datagramTopic.equals(topic) || this.datagramGenerationTimestamp != generationTimestamp || elementSize > this.datagram.remaining() || this.numDatagramElements == Short.MAX_VALUE)) {
+            sendDatagram();
+        }
+        if (this.datagramTopic == null) {
+            if (singleElementDatagramSize > this.maxDatagramSizeInBytes) {
+                this.datagram.limit(this.datagram.capacity());
+                this.largeDatagram = true;
+            }
+            this.datagram.putInt(MAGIC);
+            this.datagram.put(VERSION);
+            this.datagram.putLong(this.senderId);
+            this.datagram.putLong(this.nextSequenceNumber);
+            this.datagram.putLong(generationTimestamp);
+            this.datagram.putLong(sendTimestamp);
+            this.datagram.putShort((short) topicBytes.length);
+            this.datagram.put(topicBytes);
+            this.numElementsPosition = this.datagram.position();
+            this.datagram.putShort((short) 0);
+            this.datagramTopic = topic;
+            this.datagramGenerationTimestamp = generationTimestamp;
+            this.numDatagramElements = 0;
+        }
+
+        this.datagram.putShort((short) keyBytes.length);
+        this.datagram.put(keyBytes);
+        this.datagram.putShort((short) payloadLength);
+        this.numDatagramElements++;
+        return true;
+    }
+
+    /**
+     * Sends the current datagram (if there is one).
+     *
+     * @throws IOException Thrown in case of an IOException while sending the datagram.
+     */
+    private void sendDatagram() throws IOException {
+        if (this.datagramTopic == null) {
+            return;
+        }
+        this.datagram.putShort(this.numElementsPosition, (short) this.numDatagramElements);
+        this.datagram.flip();
+        try {
+            this.numBytes += this.channel.send(this.datagram, this.groupAddress);
+            this.numDatagrams++;
+            if (this.largeDatagram) {
+                this.numLargeDatagrams++;
+            }
+            this.numElements += this.numDatagramElements;
+        } finally {
+            this.nextSequenceNumber++; // a datagram which could not have been sent is reported as lost by the receivers
+            this.datagram.clear();
+            this.datagram.limit(this.maxDatagramSizeInBytes);
+            this.largeDatagram = false;
+            this.datagramTopic = null;
+        }
+    }
+
+    /**
+     * Returns the number of pending data stream elements.
+     *
+     * @return 0 since the datagrams are handed to the network stack immediately (receivers cannot cause backpressure)
+     */
+    @Override
+    public long getNumPendingDataStreamElements() {
+        return 0;
+    }
+
+    /**
+     * Returns how long (in ns) the last send call blocked the simulation thread.
+     *
+     * @return Blocked time (in ns) of the last send call
+     */
+    @Override
+    public long getLastSendBlockedTimeInNs() {
+        return this.lastSendBlockedTimeInNs;
+    }
+
+    /**
+     * Returns the number of sent datagrams.
+     *
+     * @return Number of sent datagrams
+     */
+    public long getNumDatagrams() {
+        return this.numDatagrams;
+    }
+
+    /**
+     * Returns the number of sent elements.
+     *
+     * @return Number of sent elements
+     */
+    public long getNumElements() {
+        return this.numElements;
+    }
+
+    /**
+     * Closes the UdpMulticastStreamWriter.
+     */
+    @Override
+    public void close() {
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+        logger.info("Sent {} elements in {} datagrams ({} bytes, {} datagrams larger than {} bytes, {} oversized elements skipped).", new Object[]{this.numElements, this.numDatagrams, this.numBytes, this.numLargeDatagrams, this.maxDatagramSizeInBytes, this.numOversizedElements});
+    }
+}
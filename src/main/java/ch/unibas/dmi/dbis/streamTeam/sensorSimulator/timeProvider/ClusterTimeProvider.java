@@ -0,0 +1,315 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time provider implementation which synchronizes a MonotonicTimeProvider with a ReferenceTimeServer over UDP such that all simulators of a match (on different hosts) share the same clock.
+ * Every exchange yields an offset estimation ((t1 - t0) + (t2 - t3)) / 2 and a round-trip time (t3 - t0) - (t2 - t1) (NTP-style).
+ * The offset of the exchange with the smallest round-trip time among the last exchanges is used (queuing delays only increase the round-trip time) and smoothed exponentially once the time provider has converged.
+ * Until convergence the exchanges are performed back-to-back, afterwards every syncIntervalInMs.
+ */
+public class ClusterTimeProvider implements TimeProviderInterface {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ClusterTimeProvider.class);
+
+    /**
+     * Number of the last exchanges among which the one with the smallest round-trip time is used
+     */
+    private static final int SAMPLE_WINDOW_SIZE = 8;
+
+    /**
+     * Local clock
+     */
+    private final MonotonicTimeProvider localTimeProvider;
+
+    /**
+     * Address of the reference time server
+     */
+    private final InetSocketAddress serverAddress;
+
+    /**
+     * In-process reference time server (null if no local server is started)
+     */
+    private final ReferenceTimeServer localServer;
+
+    /**
+     * Interval (in ms) between two exchanges after convergence
+     */
+    private final long syncIntervalInMs;
+
+    /**
+     * Timeout (in ms) for a single exchange
+     */
+    private final int requestTimeoutInMs;
+
+    /**
+     * Number of exchanges before the time provider is considered converged
+     */
+    private final int numSamplesForConvergence;
+
+    /**
+     * Factor for the exponential smoothing of the offset after convergence
+     */
+    private final double smoothingFactor;
+
+    /**
+     * Offsets (in ns) of the last exchanges
+     */
+    private final long[] sampleOffsets;
+
+    /**
+     * Round-trip times (in ns) of the last exchanges
+     */
+    private final long[] sampleRoundTripTimes;
+
+    /**
+     * Number of exchanges
+     */
+    private long numSamples;
+
+    /**
+     * Current (smoothed) offset (in ns) between the reference time and the local clock
+     */
+    private volatile long offsetInNs;
+
+    /**
+     * Latch which is released when the time provider has converged
+     */
+    private final CountDownLatch convergedLatch;
+
+    /**
+     * Socket for the exchanges
+     */
+    private DatagramSocket socket;
+
+    /**
+     * Thread which performs the exchanges
+     */
+    private Thread syncThread;
+
+    /**
+     * Reflects if the time provider is running
+     */
+    private volatile boolean running;
+
+    /**
+     * ClusterTimeProvider constructor.
+     *
+     * @param serverHost               Host of the reference time server
+     * @param serverPort               Port of the reference time server
+     * @param startLocalServer         Specifies if an in-process reference time server is started (for local testing)
+     * @param syncIntervalInMs         Interval (in ms) between two exchanges after convergence
+     * @param requestTimeoutInMs       Timeout (in ms) for a single exchange
+     * @param numSamplesForConvergence Number of exchanges before the time provider is considered converged
+     * @param smoothingFactor          Factor for the exponential smoothing of the offset after convergence
+     */
+    public ClusterTimeProvider(String serverHost, int serverPort, boolean startLocalServer, long syncIntervalInMs, int requestTimeoutInMs, int numSamplesForConvergence, double smoothingFactor) {
+        this.localTimeProvider = new MonotonicTimeProvider();
+        this.serverAddress = new InetSocketAddress(serverHost, serverPort);
+        this.localServer = startLocalServer ? new ReferenceTimeServer(serverPort) : null;
+        this.syncIntervalInMs = syncIntervalInMs;
+        this.requestTimeoutInMs = requestTimeoutInMs;
+        this.numSamplesForConvergence = numSamplesForConvergence;
+        this.smoothingFactor = smoothingFactor;
+        this.sampleOffsets = new long[SAMPLE_WINDOW_SIZE];
+        this.sampleRoundTripTimes = new long[SAMPLE_WINDOW_SIZE];
+        this.numSamples = 0;
+        this.offsetInNs = 0;
+        this.convergedLatch = new CountDownLatch(1);
+    }
+
+    /**
+     * Starts the in-process reference time server (if requested) and the thread which performs the exchanges.
+     *
+     * @throws SocketException Thrown if the socket for the exchanges cannot be created.
+     */
+    @Override
+    public void start() throws SocketException {
+        if (this.localServer != null) {
+            try {
+                this.localServer.start();
+            } catch (SocketException e) {
+                logger.info("Cannot start local reference time server ({}). Using the already running one.", e.getMessage());
+            }
+        }
+
+        this.socket = new DatagramSocket();
+        this.socket.setSoTimeout(this.requestTimeoutInMs);
+        this.running = true;
+        this.syncThread = new Thread(this::synchronize, "clusterTimeProvider");
+        this.syncThread.setDaemon(true);
+        this.syncThread.start();
+    }
+
+    /**
+     * Performs exchanges with the reference time server until the time provider is closed.
+     */
+    private void synchronize() {
+        ByteBuffer request = ByteBuffer.allocate(ReferenceTimeServer.REQUEST_SIZE);
+        byte[] responseBytes = new byte[ReferenceTimeServer.RESPONSE_SIZE];
+        ByteBuffer response = ByteBuffer.wrap(responseBytes);
+        DatagramPacket responsePacket = new DatagramPacket(responseBytes, responseBytes.length);
+
+        while (this.running) {
+            try {
+                long t0 = this.localTimeProvider.getTimeInNs();
+                request.clear();
+                request.putLong(t0);
+                this.socket.send(new DatagramPacket(request.array(), ReferenceTimeServer.REQUEST_SIZE, this.serverAddress));
+
+                boolean answered = false;
+                while (!answered) { // skip late responses of previous exchanges
+                    responsePacket.setLength(responseBytes.length);
+                    this.socket.receive(responsePacket);
+                    long t3 = this.localTimeProvider.getTimeInNs();
+                    if (responsePacket.getLength() == ReferenceTimeServer.RESPONSE_SIZE && response.getLong(0) == t0) {
+                        long t1 = response.getLong(Long.BYTES);
+                        long t2 = response.getLong(2 * Long.BYTES);
+                        addSample(((t1 - t0) + (t2 - t3)) / 2, (t3 - t0) - (t2 - t1));
+                        answered = true;
+                    }
+                }
+
+                if (this.convergedLatch.getCount() == 0) {
+                    Thread.sleep(this.syncIntervalInMs);
+                }
+            } catch (SocketTimeoutException e) {
+                logger.debug("Exchange with reference time server {} timed out.", this.serverAddress);
+            } catch (IOException e) {
+                if (this.running) {
+                    logger.error("Caught exception.", e);
+                    sleepAfterError();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for the next exchange after an error (e.g., if the reference time server is not reachable yet).
+     */
+    private void sleepAfterError() {
+        try {
+            Thread.sleep(this.requestTimeoutInMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds the result of an exchange and updates the offset.
+     *
+     * @param offsetInNs        Offset (in ns) between the reference time and the local clock
+     * @param roundTripTimeInNs Round-trip time (in ns)
+     */
+    private void addSample(long offsetInNs, long roundTripTimeInNs) {
+        int position = (int) (this.numSamples % SAMPLE_WINDOW_SIZE);
+        this.sampleOffsets[position] = offsetInNs;
+        this.sampleRoundTripTimes[position] = roundTripTimeInNs;
+        this.numSamples++;
+
+        int bestPosition = 0;
+        int windowSize = (int) Math.min(this.numSamples, SAMPLE_WINDOW_SIZE);
+        for (int i = 1; i < windowSize; ++i) {
+            if (this.sampleRoundTripTimes[i] < this.sampleRoundTripTimes[bestPosition]) {
+                bestPosition = i;
+            }
+        }
+        long filteredOffsetInNs = this.sampleOffsets[bestPosition];
+
+        if (this.convergedLatch.getCount() > 0) {
+            this.offsetInNs = filteredOffsetInNs;
+            if (this.numSamples >= this.numSamplesForConvergence) {
+                logger.info("Converged after {} exchanges: offset {} us, round-trip time {} us.", this.numSamples, filteredOffsetInNs / 1000, this.sampleRoundTripTimes[bestPosition] / 1000);
+                this.convergedLatch.countDown();
+            }
+        } else {
+            this.offsetInNs += (long) (this.smoothingFactor * (filteredOffsetInNs - this.offsetInNs));
+        }
+    }
+
+    /**
+     * Waits until the time provider has converged.
+     *
+     * @param timeoutInMs Maximal time (in ms) to wait
+     * @return True if the time provider has converged, false if the timeout has elapsed
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting.
+     */
+    @Override
+    public boolean awaitInitialization(long timeoutInMs) throws InterruptedException {
+        return this.convergedLatch.await(timeoutInMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the current reference time (in ms).
+     *
+     * @return Current reference time (in ms)
+     */
+    @Override
+    public long getTimeInMs() {
+        return TimeUnit.NANOSECONDS.toMillis(getTimeInNs());
+    }
+
+    /**
+     * Returns the current reference time (in ns), i.e., the local clock corrected by the current offset.
+     *
+     * @return Current reference time (in ns)
+     */
+    @Override
+    public long getTimeInNs() {
+        return this.localTimeProvider.getTimeInNs() + this.offsetInNs;
+    }
+
+    /**
+     * Stops the exchanges and the in-process reference time server.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        if (this.socket != null) {
+            this.socket.close();
+            this.syncThread.interrupt();
+            try {
+                this.syncThread.join();
+            } catch (InterruptedException e) {
+                logger.error("Caught exception.", e);
+            }
+        }
+        if (this.localServer != null) {
+            this.localServer.close();
+        }
+    }
+}
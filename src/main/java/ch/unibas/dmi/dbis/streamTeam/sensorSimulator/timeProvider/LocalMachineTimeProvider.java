@@ -18,6 +18,8 @@
 
 package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Time provider implementation that simply returns the current local machine timestamp using System.currentTimeMillis().
  */
@@ -38,6 +40,17 @@ public class LocalMachineTimeProvider implements TimeProviderInterface {
         // NOTHING TO DO
     }
 
+    /**
+     * Returns immediately since the local machine time provider does not have to initialize.
+     *
+     * @param timeoutInMs Maximal time (in ms) to wait
+     * @return True
+     */
+    @Override
+    public boolean awaitInitialization(long timeoutInMs) {
+        return true;
+    }
+
     /**
      * Returns the current local machine timestamp (in ms) using System.currentTimeMillis().
      *
@@ -48,6 +61,16 @@ public class LocalMachineTimeProvider implements TimeProviderInterface {
         return System.currentTimeMillis();
     }
 
+    /**
+     * Returns the current local machine timestamp (in ns) using System.currentTimeMillis(), i.e., with millisecond resolution.
+     *
+     * @return Current local machine timestamp (in ns)
+     */
+    @Override
+    public long getTimeInNs() {
+        return TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    }
+
     /**
      * Stops the local machine time provider (does nothing).
      */
@@ -0,0 +1,100 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time provider implementation that is anchored once to the local machine timestamp (System.currentTimeMillis()) and then advanced by System.nanoTime().
+ * In contrast to the LocalMachineTimeProvider, the returned time has sub-millisecond resolution and never jumps (e.g., when NTP steps or slews the wall clock).
+ */
+public class MonotonicTimeProvider implements TimeProviderInterface {
+
+    /**
+     * Local machine timestamp (in ns) at the anchor
+     */
+    private long anchorTimeInNs;
+
+    /**
+     * System.nanoTime() at the anchor
+     */
+    private long anchorNanoTime;
+
+    /**
+     * MonotonicTimeProvider constructor.
+     */
+    public MonotonicTimeProvider() {
+        anchor();
+    }
+
+    /**
+     * Starts the monotonic time provider (re-anchors it to the local machine timestamp).
+     */
+    @Override
+    public void start() {
+        anchor();
+    }
+
+    /**
+     * Anchors the time provider to the local machine timestamp.
+     */
+    private void anchor() {
+        this.anchorNanoTime = System.nanoTime();
+        this.anchorTimeInNs = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    }
+
+    /**
+     * Returns immediately since the monotonic time provider does not have to initialize.
+     *
+     * @param timeoutInMs Maximal time (in ms) to wait
+     * @return True
+     */
+    @Override
+    public boolean awaitInitialization(long timeoutInMs) {
+        return true;
+    }
+
+    /**
+     * Returns the current time (in ms).
+     *
+     * @return Current time (in ms)
+     */
+    @Override
+    public long getTimeInMs() {
+        return TimeUnit.NANOSECONDS.toMillis(getTimeInNs());
+    }
+
+    /**
+     * Returns the current time (in ns) by advancing the anchor by the elapsed System.nanoTime().
+     *
+     * @return Current time (in ns)
+     */
+    @Override
+    public long getTimeInNs() {
+        return this.anchorTimeInNs + (System.nanoTime() - this.anchorNanoTime);
+    }
+
+    /**
+     * Stops the monotonic time provider (does nothing).
+     */
+    @Override
+    public void close() {
+        // NOTHING TO DO
+    }
+
+}
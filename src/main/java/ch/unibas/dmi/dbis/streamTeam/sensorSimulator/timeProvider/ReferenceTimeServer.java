@@ -0,0 +1,148 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+
+/**
+ * UDP server which provides the reference time for the ClusterTimeProvider.
+ * Every request datagram contains the send time (long, in ns) of the client and is answered with a datagram containing this send time, the receive time and the send time (long, in ns) of the server.
+ * The reference time is provided by a MonotonicTimeProvider.
+ */
+public class ReferenceTimeServer implements Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceTimeServer.class);
+
+    /**
+     * Size of a request datagram in bytes
+     */
+    public static final int REQUEST_SIZE = Long.BYTES;
+
+    /**
+     * Size of a response datagram in bytes
+     */
+    public static final int RESPONSE_SIZE = 3 * Long.BYTES;
+
+    /**
+     * Port of the server
+     */
+    private final int port;
+
+    /**
+     * Time provider which provides the reference time
+     */
+    private final MonotonicTimeProvider referenceTimeProvider;
+
+    /**
+     * Socket of the server
+     */
+    private DatagramSocket socket;
+
+    /**
+     * Thread which answers the requests
+     */
+    private Thread serverThread;
+
+    /**
+     * ReferenceTimeServer constructor.
+     *
+     * @param port Port of the server
+     */
+    public ReferenceTimeServer(int port) {
+        this.port = port;
+        this.referenceTimeProvider = new MonotonicTimeProvider();
+    }
+
+    /**
+     * Binds the socket and starts the thread which answers the requests.
+     *
+     * @throws SocketException Thrown if the socket cannot be bound (e.g., if another reference time server already uses the port).
+     */
+    public void start() throws SocketException {
+        this.socket = new DatagramSocket(this.port);
+        this.serverThread = new Thread(this::serve, "referenceTimeServer");
+        this.serverThread.setDaemon(true);
+        this.serverThread.start();
+        logger.info("Started reference time server on port {}.", this.port);
+    }
+
+    /**
+     * Answers requests until the socket is closed.
+     */
+    private void serve() {
+        byte[] requestBytes = new byte[REQUEST_SIZE];
+        DatagramPacket request = new DatagramPacket(requestBytes, requestBytes.length);
+        ByteBuffer response = ByteBuffer.allocate(RESPONSE_SIZE);
+
+        while (!this.socket.isClosed()) {
+            try {
+                request.setLength(requestBytes.length);
+                this.socket.receive(request);
+                long receiveTimeInNs = this.referenceTimeProvider.getTimeInNs();
+                if (request.getLength() != REQUEST_SIZE) {
+                    continue;
+                }
+
+                response.clear();
+                response.putLong(ByteBuffer.wrap(requestBytes).getLong());
+                response.putLong(receiveTimeInNs);
+                response.putLong(this.referenceTimeProvider.getTimeInNs());
+                this.socket.send(new DatagramPacket(response.array(), RESPONSE_SIZE, request.getSocketAddress()));
+            } catch (IOException e) {
+                if (!this.socket.isClosed()) {
+                    logger.error("Caught exception.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until the server is stopped.
+     *
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting.
+     */
+    public void awaitTermination() throws InterruptedException {
+        this.serverThread.join();
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        if (this.socket != null) {
+            this.socket.close();
+            try {
+                this.serverThread.join();
+            } catch (InterruptedException e) {
+                logger.error("Caught exception.", e);
+            }
+        }
+    }
+}
@@ -32,6 +32,15 @@ public interface TimeProviderInterface extends Closeable {
      */
     void start() throws Exception;
 
+    /**
+     * Waits until the time provider has initialized (e.g., until it is synchronized with a reference clock).
+     *
+     * @param timeoutInMs Maximal time (in ms) to wait
+     * @return True if the time provider has initialized, false if the timeout has elapsed
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting.
+     */
+    boolean awaitInitialization(long timeoutInMs) throws InterruptedException;
+
     /**
      * Returns the current time (in ms).
      *
@@ -39,6 +48,13 @@ public interface TimeProviderInterface extends Closeable {
      */
     long getTimeInMs();
 
+    /**
+     * Returns the current time (in ns since the epoch).
+     *
+     * @return Current time (in ns)
+     */
+    long getTimeInNs();
+
     /**
      * Stops the time provider.
      */
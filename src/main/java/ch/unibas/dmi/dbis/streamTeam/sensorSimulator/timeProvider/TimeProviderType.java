@@ -18,6 +18,8 @@
 
 package ch.unibas.dmi.dbis.streamTeam.sensorSimulator.timeProvider;
 
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.properties.PropertyReadHelper;
+
 import java.util.Properties;
 
 /**
@@ -32,6 +34,31 @@ public enum TimeProviderType {
         public TimeProviderInterface getTimeProvider(Properties properties) {
             return new LocalMachineTimeProvider();
         }
+    },
+    /**
+     * MonotonicTimeProvider.
+     */
+    MONOTONIC {
+        @Override
+        public TimeProviderInterface getTimeProvider(Properties properties) {
+            return new MonotonicTimeProvider();
+        }
+    },
+    /**
+     * ClusterTimeProvider.
+     */
+    CLUSTER {
+        @Override
+        public TimeProviderInterface getTimeProvider(Properties properties) {
+            String serverHost = PropertyReadHelper.readStringOrDie(properties, "timeProvider.cluster.serverHost");
+            int serverPort = PropertyReadHelper.readIntOrDie(properties, "timeProvider.cluster.serverPort");
+            boolean startLocalServer = PropertyReadHelper.readBooleanOrDie(properties, "timeProvider.cluster.startLocalServer");
+            long syncIntervalInMs = PropertyReadHelper.readLongOrDie(properties, "timeProvider.cluster.syncIntervalInMs");
+            int requestTimeoutInMs = PropertyReadHelper.readIntOrDie(properties, "timeProvider.cluster.requestTimeoutInMs");
+            int numSamplesForConvergence = PropertyReadHelper.readIntOrDie(properties, "timeProvider.cluster.numSamplesForConvergence");
+            double smoothingFactor = PropertyReadHelper.readDoubleOrDie(properties, "timeProvider.cluster.smoothingFactor");
+            return new ClusterTimeProvider(serverHost, serverPort, startLocalServer, syncIntervalInMs, requestTimeoutInMs, numSamplesForConvergence, smoothingFactor);
+        }
     };
 
     /**
@@ -0,0 +1,221 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.tcpTestClient;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter.TcpStreamWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Client which connects to a TcpStreamWriter, decodes the frames, and logs the received frames, bytes, and latencies (receive time - send time) every second.
+ * Used for verifying the TcpStreamWriter on a single machine.
+ */
+public class TcpTestClient implements Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TcpTestClient.class);
+
+    /**
+     * Interval (in ms) in which the statistics are logged
+     */
+    private static final long REPORT_INTERVAL_IN_MS = 1000;
+
+    /**
+     * Socket channel to the TcpStreamWriter
+     */
+    private final SocketChannel channel;
+
+    /**
+     * Buffer into which the stream is read
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Keys of the received frames
+     */
+    private final Set<String> keys;
+
+    /**
+     * Total number of received frames
+     */
+    private long numFrames;
+
+    /**
+     * Total number of received bytes
+     */
+    private long numBytes;
+
+    /**
+     * Number of frames received in the current report interval
+     */
+    private long numIntervalFrames;
+
+    /**
+     * Sum of the latencies (in ms) of the frames received in the current report interval
+     */
+    private long intervalLatencySumInMs;
+
+    /**
+     * Maximal latency (in ms) of a frame received in the current report interval
+     */
+    private long intervalMaxLatencyInMs;
+
+    /**
+     * Generation timestamp (in match ms) of the last received frame
+     */
+    private long lastGenerationTimestamp;
+
+    /**
+     * TcpTestClient constructor (connects to the TcpStreamWriter).
+     *
+     * @param host Host of the TcpStreamWriter
+     * @param port Port of the TcpStreamWriter
+     * @throws IOException Thrown if the connection could not have been established.
+     */
+    public TcpTestClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        this.buffer = ByteBuffer.allocate(1 << 16);
+        this.buffer.flip();
+        this.keys = new HashSet<>();
+    }
+
+    /**
+     * Reads and decodes frames until the TcpStreamWriter closes the connection.
+     *
+     * @throws IOException Thrown in case of an IOException while reading or if the stream header is invalid.
+     */
+    public void run() throws IOException {
+        ensureAvailable(2 * Integer.BYTES);
+        int magic = this.buffer.getInt();
+        int version = this.buffer.getInt();
+        if (magic != TcpStreamWriter.MAGIC || version != TcpStreamWriter.VERSION) {
+            throw new IOException("Invalid stream header (magic " + Integer.toHexString(magic) + ", version " + version + ").");
+        }
+        logger.info("Connected to {}.", this.channel.getRemoteAddress());
+
+        long nextReportTimeInMs = System.currentTimeMillis() + REPORT_INTERVAL_IN_MS;
+        try {
+            while (true) {
+                ensureAvailable(Integer.BYTES);
+                int frameLength = this.buffer.getInt();
+                ensureAvailable(frameLength);
+                readFrame(frameLength);
+
+                long currentTimeInMs = System.currentTimeMillis();
+                if (currentTimeInMs >= nextReportTimeInMs) {
+                    report();
+                    nextReportTimeInMs = currentTimeInMs + REPORT_INTERVAL_IN_MS;
+                }
+            }
+        } catch (EOFException e) {
+            report();
+            logger.info("Connection closed after {} frames ({} bytes) of {} keys.", new Object[]{this.numFrames, this.numBytes, this.keys.size()});
+        }
+    }
+
+    /**
+     * Decodes a frame from the buffer (the length field is already read) and updates the statistics.
+     *
+     * @param frameLength Length of the frame without the length field
+     */
+    private void readFrame(int frameLength) {
+        int frameEnd = this.buffer.position() + frameLength;
+        int topicLength = this.buffer.getShort();
+        this.buffer.position(this.buffer.position() + topicLength); // skips the topic
+        byte[] keyBytes = new byte[this.buffer.getShort()];
+        this.buffer.get(keyBytes);
+        this.lastGenerationTimestamp = this.buffer.getLong();
+        long sendTimestamp = this.buffer.getLong();
+        this.buffer.position(frameEnd); // payload
+
+        long latencyInMs = System.currentTimeMillis() - sendTimestamp;
+        this.keys.add(new String(keyBytes, StandardCharsets.UTF_8));
+        this.numFrames++;
+        this.numBytes += Integer.BYTES + frameLength;
+        this.numIntervalFrames++;
+        this.intervalLatencySumInMs += latencyInMs;
+        this.intervalMaxLatencyInMs = Math.max(this.intervalMaxLatencyInMs, latencyInMs);
+    }
+
+    /**
+     * Makes sure that the buffer contains at least the given number of bytes (reads from the channel and grows the buffer if necessary).
+     *
+     * @param numBytes Number of bytes
+     * @throws IOException Thrown in case of an IOException while reading or if the connection has been closed.
+     */
+    private void ensureAvailable(int numBytes) throws IOException {
+        if (this.buffer.remaining() >= numBytes) {
+            return;
+        }
+        this.buffer.compact();
+        if (this.buffer.capacity() < numBytes) {
+            ByteBuffer largerBuffer = ByteBuffer.allocate(Math.max(2 * this.buffer.capacity(), numBytes));
+            this.buffer.flip();
+            largerBuffer.put(this.buffer);
+            this.buffer = largerBuffer;
+        }
+        while (this.buffer.position() < numBytes) {
+            if (this.channel.read(this.buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+        this.buffer.flip();
+    }
+
+    /**
+     * Logs the statistics of the current report interval and resets them.
+     */
+    private void report() {
+        long meanLatencyInMs = this.numIntervalFrames == 0 ? 0 : this.intervalLatencySumInMs / this.numIntervalFrames;
+        logger.info("Received {} frames (total {} frames, {} keys), mean latency {} ms, max latency {} ms, last generation timestamp {}", new Object[]{this.numIntervalFrames, this.numFrames, this.keys.size(), meanLatencyInMs, this.intervalMaxLatencyInMs, this.lastGenerationTimestamp});
+        this.numIntervalFrames = 0;
+        this.intervalLatencySumInMs = 0;
+        this.intervalMaxLatencyInMs = 0;
+    }
+
+    /**
+     * Returns the total number of received frames.
+     *
+     * @return Number of received frames
+     */
+    public long getNumFrames() {
+        return this.numFrames;
+    }
+
+    /**
+     * Closes the connection.
+     *
+     * @throws IOException Thrown in case of an IOException while closing the connection.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -18,6 +18,8 @@
 
 package ch.unibas.dmi.dbis.streamTeam.tracabFileTransformator;
 
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.SensorDataFileIndex;
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.fileReader.helper.SensorDataFileCompression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -29,6 +31,7 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -45,13 +48,19 @@ public class TracabFileTransformator {
     /**
      * Main method for performing the parameters.
      *
-     * @param args trackingDataFilePath and metaDataFilePath
+     * @param args trackingDataFilePath, metaDataFilePath, and optionally "gzip" or "lz4" (for writing compressed sensor files)
      */
     public static void main(String[] args) {
         String trackingDataFilePath = args[0];
         logger.info("Tracking data file: {}", trackingDataFilePath);
         String metaDataFilePath = args[1];
         logger.info("Meta data file: {}", trackingDataFilePath);
+        String compression = args.length > 2 ? args[2] : "none";
+        if (!compression.equals("none") && !compression.equals("gzip") && !compression.equals("lz4")) {
+            logger.error("Unknown compression {} (supported: gzip, lz4).", compression);
+            return;
+        }
+        logger.info("Compression of the sensor files: {}", compression);
 
         try {
             //===========================
@@ -151,12 +160,12 @@ public class TracabFileTransformator {
             logger.info("Starts writing files.");
             Collections.sort(homePlayerIds);
             Collections.sort(awayPlayerIds);
-            writeSensorFile("ball", 200, ballLines);
+            writeSensorFile("ball", 200, ballLines, compression);
             for (Integer homePlayerId : homePlayerIds) {
-                writeSensorFile("home", homePlayerId, playerLines.get(homePlayerId));
+                writeSensorFile("home", homePlayerId, playerLines.get(homePlayerId), compression);
             }
             for (Integer awayPlayerId : awayPlayerIds) {
-                writeSensorFile("away", awayPlayerId, playerLines.get(awayPlayerId));
+                writeSensorFile("away", awayPlayerId, playerLines.get(awayPlayerId), compression);
             }
             writeConfig(startFrameNumber, endFrameNumber, fps, xSize, ySize, homePlayerIds, awayPlayerIds);
             writeSids(homePlayerIds, awayPlayerIds);
@@ -195,27 +204,53 @@ public class TracabFileTransformator {
     }
 
     /**
-     * Writes a sensor file.
+     * Writes a sensor file and its timestamp index file.
      *
-     * @param team     Team (ball/home/away)
-     * @param id       Player or ball identifier
-     * @param lineList List of lines for the sensor file
+     * @param team           Team (ball/home/away)
+     * @param id             Player or ball identifier
+     * @param lineList       List of lines for the sensor file
+     * @param compression    Compression of the sensor file (none, gzip for id.csv.gz or lz4 for id.csv.lz4)
      * @throws IOException All potential IOExceptions
      */
-    public static void writeSensorFile(String team, int id, List<String> lineList) throws IOException {
+    public static void writeSensorFile(String team, int id, List<String> lineList, String compression) throws IOException {
         File outputDir = new File("output/" + team);
         outputDir.mkdirs();
-        File outputFile = new File("output/" + team + "/" + id + ".csv");
+        String fileExtension = ".csv";
+        if (compression.equals("gzip")) {
+            fileExtension += SensorDataFileCompression.GZIP_FILE_EXTENSION;
+        } else if (compression.equals("lz4")) {
+            fileExtension += SensorDataFileCompression.LZ4_FILE_EXTENSION;
+        }
+        File outputFile = new File("output/" + team + "/" + id + fileExtension);
         if (outputFile.exists()) {
             outputFile.delete();
         }
         outputFile.createNewFile();
-        FileWriter fileWriter = new FileWriter(outputFile);
-        fileWriter.write("\"Timestamp\",\"X\",\"Y\",\"Z\",\"ID\"\n");
+        OutputStream outputStream = new FileOutputStream(outputFile);
+        if (compression.equals("gzip")) {
+            outputStream = SensorDataFileCompression.wrapGzipOutputStream(outputStream);
+        } else if (compression.equals("lz4")) {
+            outputStream = SensorDataFileCompression.wrapLz4OutputStream(outputStream);
+        }
+        Writer fileWriter = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.US_ASCII)); // the index offsets assume one byte per character
+        String headerLine = "\"Timestamp\",\"X\",\"Y\",\"Z\",\"ID\"\n";
+        fileWriter.write(headerLine);
+
+        SensorDataFileIndex index = new SensorDataFileIndex(); // sparse timestamp index for seeking to a match timestamp
+        long offset = headerLine.length(); // the lines are ASCII encoded and the offsets refer to the uncompressed content
+        int lineNumber = 0;
         for (String line : lineList) {
+            if (lineNumber % SensorDataFileIndex.DEFAULT_INTERVAL == 0) {
+                index.add(Long.parseLong(line.substring(0, line.indexOf(','))), offset);
+            }
             fileWriter.write(line + "\n");
+            offset += line.length() + 1;
+            lineNumber++;
         }
         fileWriter.close();
+
+        index.setSensorDataFileAttributes(outputFile);
+        index.write(SensorDataFileIndex.getIndexFile(outputFile));
     }
 
     /**
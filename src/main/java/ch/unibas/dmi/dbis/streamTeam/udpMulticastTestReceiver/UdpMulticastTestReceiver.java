@@ -0,0 +1,256 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.udpMulticastTestReceiver;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.streamWriter.UdpMulticastStreamWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Receiver which joins the multicast group of UdpMulticastStreamWriters, decodes the datagrams, detects lost datagrams via the sequence numbers of every sender, and logs the statistics every second.
+ * Used for verifying the UdpMulticastStreamWriter on a single machine (loopback).
+ */
+public class UdpMulticastTestReceiver implements Closeable {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(UdpMulticastTestReceiver.class);
+
+    /**
+     * Interval (in ms) in which the statistics are logged
+     */
+    private static final long REPORT_INTERVAL_IN_MS = 1000;
+
+    /**
+     * Maximal size of a UDP datagram in bytes
+     */
+    private static final int MAX_DATAGRAM_SIZE = 65535;
+
+    /**
+     * Requested size of the socket receive buffer in bytes (absorbs bursts of datagrams)
+     */
+    private static final int RECEIVE_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Channel which receives the datagrams
+     */
+    private final DatagramChannel channel;
+
+    /**
+     * Buffer into which a datagram is received
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Expected sequence number of the next datagram of every sender
+     */
+    private final Map<Long, Long> nextSequenceNumbers;
+
+    /**
+     * Keys of the received elements
+     */
+    private final Set<String> keys;
+
+    /**
+     * Total number of received datagrams
+     */
+    private long numDatagrams;
+
+    /**
+     * Total number of received elements
+     */
+    private long numElements;
+
+    /**
+     * Total number of lost datagrams (gaps in the sequence numbers)
+     */
+    private long numLostDatagrams;
+
+    /**
+     * Total number of datagrams which arrived after a datagram with a higher sequence number of the same sender
+     */
+    private long numReorderedDatagrams;
+
+    /**
+     * Total number of datagrams which could not have been decoded
+     */
+    private long numInvalidDatagrams;
+
+    /**
+     * Number of datagrams received in the current report interval
+     */
+    private long numIntervalDatagrams;
+
+    /**
+     * Sum of the latencies (in ms) of the datagrams received in the current report interval
+     */
+    private long intervalLatencySumInMs;
+
+    /**
+     * Maximal latency (in ms) of a datagram received in the current report interval
+     */
+    private long intervalMaxLatencyInMs;
+
+    /**
+     * UdpMulticastTestReceiver constructor (joins the multicast group).
+     *
+     * @param group                Address of the multicast group
+     * @param port                 Port of the multicast group
+     * @param networkInterfaceName Name of the network interface on which the group is joined (e.g., lo)
+     * @throws IOException Thrown if the multicast group could not have been joined.
+     */
+    public UdpMulticastTestReceiver(String group, int port, String networkInterfaceName) throws IOException {
+        NetworkInterface networkInterface = NetworkInterface.getByName(networkInterfaceName);
+        if (networkInterface == null) {
+            throw new IOException("Unknown network interface " + networkInterfaceName + ".");
+        }
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        this.channel.setOption(StandardSocketOptions.SO_REUSEADDR, true); // several receivers on the same machine
+        this.channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+        this.channel.bind(new InetSocketAddress(port));
+        this.channel.join(InetAddress.getByName(group), networkInterface);
+        this.buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+        this.nextSequenceNumbers = new HashMap<>();
+        this.keys = new HashSet<>();
+    }
+
+    /**
+     * Receives and decodes datagrams until the receiver is closed.
+     *
+     * @throws IOException Thrown in case of an IOException while receiving.
+     */
+    public void run() throws IOException {
+        logger.info("Joined the multicast group.");
+        long nextReportTimeInMs = System.currentTimeMillis() + REPORT_INTERVAL_IN_MS;
+        try {
+            while (true) {
+                this.buffer.clear();
+                this.channel.receive(this.buffer);
+                this.buffer.flip();
+                readDatagram();
+
+                long currentTimeInMs = System.currentTimeMillis();
+                if (currentTimeInMs >= nextReportTimeInMs) {
+                    report();
+                    nextReportTimeInMs = currentTimeInMs + REPORT_INTERVAL_IN_MS;
+                }
+            }
+        } catch (AsynchronousCloseException e) {
+            report();
+            logger.info("Received {} elements of {} keys in {} datagrams ({} lost, {} reordered, {} invalid).", new Object[]{this.numElements, this.keys.size(), this.numDatagrams, this.numLostDatagrams, this.numReorderedDatagrams, this.numInvalidDatagrams});
+        }
+    }
+
+    /**
+     * Decodes the datagram in the buffer and updates the statistics.
+     */
+    private void readDatagram() {
+        if (this.buffer.remaining() < UdpMulticastStreamWriter.FIXED_HEADER_SIZE || this.buffer.getInt() != UdpMulticastStreamWriter.MAGIC || this.buffer.get() != UdpMulticastStreamWriter.VERSION) {
+            this.numInvalidDatagrams++;
+            return;
+        }
+        long senderId = this.buffer.getLong();
+        long sequenceNumber = this.buffer.getLong();
+        this.buffer.getLong(); // generation timestamp
+        long sendTimestamp = this.buffer.getLong();
+        int topicLength = this.buffer.getShort();
+        this.buffer.position(this.buffer.position() + topicLength); // skips the topic
+        int numDatagramElements = this.buffer.getShort();
+        for (int i = 0; i < numDatagramElements; ++i) {
+            byte[] keyBytes = new byte[this.buffer.getShort()];
+            this.buffer.get(keyBytes);
+            int payloadLength = this.buffer.getShort() & 0xFFFF;
+            this.buffer.position(this.buffer.position() + payloadLength); // skips the payload
+            this.keys.add(new String(keyBytes, StandardCharsets.UTF_8));
+        }
+
+        Long expectedSequenceNumber = this.nextSequenceNumbers.get(senderId);
+        if (expectedSequenceNumber == null || sequenceNumber >= expectedSequenceNumber) {
+            if (expectedSequenceNumber != null) {
+                this.numLostDatagrams += sequenceNumber - expectedSequenceNumber;
+            }
+            this.nextSequenceNumbers.put(senderId, sequenceNumber + 1);
+        } else {
+            this.numReorderedDatagrams++;
+            this.numLostDatagrams--; // has been counted as lost
+        }
+
+        long latencyInMs = System.currentTimeMillis() - sendTimestamp;
+        this.numDatagrams++;
+        this.numElements += numDatagramElements;
+        this.numIntervalDatagrams++;
+        this.intervalLatencySumInMs += latencyInMs;
+        this.intervalMaxLatencyInMs = Math.max(this.intervalMaxLatencyInMs, latencyInMs);
+    }
+
+    /**
+     * Logs the statistics of the current report interval and resets them.
+     */
+    private void report() {
+        long meanLatencyInMs = this.numIntervalDatagrams == 0 ? 0 : this.intervalLatencySumInMs / this.numIntervalDatagrams;
+        logger.info("Received {} datagrams (total {} datagrams, {} elements, {} keys, {} senders, {} lost), mean latency {} ms, max latency {} ms", new Object[]{this.numIntervalDatagrams, this.numDatagrams, this.numElements, this.keys.size(), this.nextSequenceNumbers.size(), this.numLostDatagrams, meanLatencyInMs, this.intervalMaxLatencyInMs});
+        this.numIntervalDatagrams = 0;
+        this.intervalLatencySumInMs = 0;
+        this.intervalMaxLatencyInMs = 0;
+    }
+
+    /**
+     * Returns the total number of received elements.
+     *
+     * @return Number of received elements
+     */
+    public long getNumElements() {
+        return this.numElements;
+    }
+
+    /**
+     * Returns the total number of lost datagrams.
+     *
+     * @return Number of lost datagrams
+     */
+    public long getNumLostDatagrams() {
+        return this.numLostDatagrams;
+    }
+
+    /**
+     * Closes the receiver (run() returns).
+     *
+     * @throws IOException Thrown in case of an IOException while closing the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * StreamTeam
+ * Copyright (C) 2019  University of Basel
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package ch.unibas.dmi.dbis.streamTeam.udpMulticastTestReceiver;
+
+import ch.unibas.dmi.dbis.streamTeam.sensorSimulator.helper.ShutdownHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Starter for a UdpMulticastTestReceiver which receives the datagrams of the Sensor Simulators with streamWriter.type=UDP_MULTICAST.
+ */
+public class UdpMulticastTestReceiverStarter {
+
+    /**
+     * Slf4j logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(UdpMulticastTestReceiverStarter.class);
+
+    /**
+     * Main method for performing the parameters.
+     *
+     * @param args group port networkInterface
+     */
+    public static void main(String[] args) {
+        ShutdownHelper.initialize();
+
+        String group = args[0];
+        int port = Integer.parseInt(args[1]);
+        String networkInterfaceName = args[2];
+        logger.info("Group: {}, Port: {}, Network Interface: {}", new Object[]{group, port, networkInterfaceName});
+
+        try (UdpMulticastTestReceiver udpMulticastTestReceiver = new UdpMulticastTestReceiver(group, port, networkInterfaceName)) {
+            ShutdownHelper.addCloseable(udpMulticastTestReceiver);
+            udpMulticastTestReceiver.run();
+        } catch (IOException e) {
+            logger.error("Caught exception.", e);
+        }
+    }
+}
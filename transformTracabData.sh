@@ -22,6 +22,6 @@ die() {
 	echo >&2 "$@"
 	exit 1
 }
-[ "$#" -ge 2 ] || die "requires at least two arguments (trackingDataFilePath, metaDataFilePath), $# provided"
+[ "$#" -ge 2 ] || die "requires at least two arguments (trackingDataFilePath, metaDataFilePath, [gzip|lz4]), $# provided"
 
 java -classpath "./target/streamteam-sensor-simulator-1.2.0-jar-with-dependencies.jar" -DlogFileName=TracabFileTransformator ch.unibas.dmi.dbis.streamTeam.tracabFileTransformator.TracabFileTransformator $@
\ No newline at end of file